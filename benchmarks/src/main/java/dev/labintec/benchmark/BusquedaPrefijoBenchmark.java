@@ -0,0 +1,74 @@
+package dev.labintec.benchmark;
+
+import dev.labintec.usuario.dto.UsuarioResponseDTO;
+import dev.labintec.usuario.repositorio.UsuarioRepository;
+import dev.labintec.usuario.servicio.IndiceUsernames;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Autocompletado por prefijo desde el índice en memoria frente a la búsqueda
+ * exacta por username en la base de datos, con 100.000 usuarios cargados.
+ * Al preparar informa la memoria del índice por usuario.
+ * @author Quique
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BusquedaPrefijoBenchmark {
+
+    private static final int USUARIOS = 100_000;
+
+    private ConfigurableApplicationContext usuarios;
+    private IndiceUsernames indice;
+    private UsuarioRepository repositorio;
+
+    @Setup
+    public void preparar() {
+        usuarios = Contextos.usuarios();
+        List<Object[]> filas = new ArrayList<>(USUARIOS);
+        for (int i = 0; i < USUARIOS; i++)
+            filas.add(new Object[] {String.format("usuario-%06d", i), "hash"});
+        usuarios.getBean(JdbcTemplate.class).batchUpdate("INSERT INTO `user` (username, password) VALUES (?, ?)", filas);
+        indice = usuarios.getBean(IndiceUsernames.class);
+        repositorio = usuarios.getBean(UsuarioRepository.class);
+        indice.reconstruir();
+        System.out.printf("%nÍndice: %d usuarios, %d bytes, %.1f bytes por usuario%n",
+                indice.tamano(), indice.bytes(), (double) indice.bytes() / indice.tamano());
+    }
+
+    @TearDown
+    public void cerrar() {
+        usuarios.close();
+    }
+
+    @Benchmark
+    public List<UsuarioResponseDTO> prefijoEnIndice() {
+        // "usuario-01230" coincide con 10 usuarios (usuario-012300 .. usuario-012309)
+        return indice.buscar(String.format("usuario-%05d", ThreadLocalRandom.current().nextInt(USUARIOS / 10)), 10);
+    }
+
+    @Benchmark
+    public Optional<UsuarioResponseDTO> exactoEnBaseDeDatos() {
+        return repositorio.buscarDTOPorUsername(String.format("usuario-%06d", ThreadLocalRandom.current().nextInt(USUARIOS)));
+    }
+}
@@ -0,0 +1,68 @@
+package dev.labintec.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Compara dos resultados JMH en formato JSON y falla si alguno empeoró.
+ * Uso: CompararResultados base.json actual.json [tolerancia-%]
+ * Termina con código 1 si algún benchmark retrocede más que la tolerancia,
+ * de modo que puede usarse como paso previo al despliegue.
+ * @author Quique
+ */
+public class CompararResultados {
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Uso: CompararResultados base.json actual.json [tolerancia-%]");
+            System.exit(2);
+        }
+        double tolerancia = (args.length > 2) ? Double.parseDouble(args[2]) : 10.0;
+        Map<String, JsonNode> base = leer(new File(args[0]));
+        Map<String, JsonNode> actual = leer(new File(args[1]));
+
+        int regresiones = 0;
+        for (Map.Entry<String, JsonNode> entrada : actual.entrySet()) {
+            JsonNode anterior = base.get(entrada.getKey());
+            if (anterior == null)
+                continue;                               // Benchmark nuevo: sin referencia
+            double antes = anterior.path("primaryMetric").path("score").asDouble();
+            double ahora = entrada.getValue().path("primaryMetric").path("score").asDouble();
+            // En modo throughput más es mejor; en el resto (tiempos) menos es mejor
+            boolean masEsMejor = "thrpt".equals(entrada.getValue().path("mode").asText());
+            double cambio = (antes == 0) ? 0 : (ahora - antes) / antes * 100.0;
+            double empeora = masEsMejor ? -cambio : cambio;
+            String unidad = entrada.getValue().path("primaryMetric").path("scoreUnit").asText();
+            boolean regresion = empeora > tolerancia;
+            if (regresion)
+                regresiones++;
+            System.out.printf("%-8s %-70s %12.3f → %12.3f %s (%+.1f%%)%n",
+                    regresion ? "REGRESA" : "ok", entrada.getKey(), antes, ahora, unidad, cambio);
+        }
+        System.out.println(regresiones + " regresiones con tolerancia de " + tolerancia + "%");
+        System.exit(regresiones > 0 ? 1 : 0);
+    }
+
+    /**
+     * Indexa los resultados por nombre de benchmark, modo y parámetros.
+     */
+    private static Map<String, JsonNode> leer(File archivo) throws IOException {
+        Map<String, JsonNode> resultados = new HashMap<>();
+        for (JsonNode resultado : new ObjectMapper().readTree(archivo)) {
+            StringBuilder clave = new StringBuilder(resultado.path("benchmark").asText())
+                    .append(" [").append(resultado.path("mode").asText()).append(']');
+            Iterator<Map.Entry<String, JsonNode>> params = resultado.path("params").fields();
+            while (params.hasNext()) {
+                Map.Entry<String, JsonNode> param = params.next();
+                clave.append(' ').append(param.getKey()).append('=').append(param.getValue().asText());
+            }
+            resultados.put(clave.toString(), resultado);
+        }
+        return resultados;
+    }
+}
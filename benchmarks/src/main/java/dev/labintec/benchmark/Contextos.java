@@ -0,0 +1,59 @@
+package dev.labintec.benchmark;
+
+import dev.labintec.tramite.TramitesApiApplication;
+import dev.labintec.usuario.UsuariosApiApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Arranca los contextos de Spring de cada microservicio sobre una base H2 embebida
+ * en modo MySQL, sin servidor web, para los benchmarks que atraviesan
+ * controlador, servicio y repositorio.
+ * @author Quique
+ */
+public class Contextos {
+
+    /**
+     * Propiedades comunes: H2 en memoria, esquema generado y sin log de SQL.
+     */
+    private static String[] propiedades(String base) {
+        return new String[] {
+            "spring.datasource.url=jdbc:h2:mem:" + base + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=USER,VALUE;DB_CLOSE_DELAY=-1",
+            "spring.datasource.username=sa",
+            "spring.datasource.password=",
+            "spring.jpa.hibernate.ddl-auto=create-drop",
+            "spring.jpa.show-sql=false",
+            "spring.jpa.open-in-view=false",
+            "spring.main.banner-mode=off",
+            "logging.level.root=WARN",
+            "usuarios.hash.costo=4"                     // Costo mínimo salvo en el benchmark de hash
+        };
+    }
+
+    /**
+     * Arranca usuarios-api con propiedades adicionales.
+     * @param extra propiedades que reemplazan a las comunes.
+     * @return contexto listo para obtener beans.
+     */
+    public static ConfigurableApplicationContext usuarios(String... extra) {
+        return new SpringApplicationBuilder(UsuariosApiApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(propiedades("usuarios"))
+                .properties(extra)
+                .run();
+    }
+
+    /**
+     * Arranca tramites-api con propiedades adicionales.
+     * @param extra propiedades que reemplazan a las comunes.
+     * @return contexto listo para obtener beans.
+     */
+    public static ConfigurableApplicationContext tramites(String... extra) {
+        return new SpringApplicationBuilder(TramitesApiApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(propiedades("tramites"))
+                .properties(extra)
+                .run();
+    }
+}
@@ -0,0 +1,109 @@
+package dev.labintec.benchmark;
+
+import dev.labintec.tramite.controlador.TramiteController;
+import dev.labintec.tramite.entidad.Tramite;
+import dev.labintec.tramite.repositorio.TramiteRepository;
+import dev.labintec.usuario.controlador.UsuarioController;
+import dev.labintec.usuario.dto.PaginaUsuariosDTO;
+import dev.labintec.usuario.dto.UsuarioResponseDTO;
+import dev.labintec.usuario.entidad.Usuario;
+import dev.labintec.usuario.servicio.UsuarioService;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.ServletWebRequest;
+
+/**
+ * Endpoints de lectura de UsuarioController y TramiteController invocados
+ * directamente sobre H2: armado de listas, paginación, lecturas por clave
+ * y revalidación con If-None-Match.
+ * @author Quique
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ControladoresBenchmark {
+
+    @Param({"1000"})
+    private int filas;
+
+    private ConfigurableApplicationContext usuarios;
+    private ConfigurableApplicationContext tramites;
+    private UsuarioController usuarioController;
+    private TramiteController tramiteController;
+    private String etagUsuario;
+
+    @Setup
+    public void preparar() {
+        usuarios = Contextos.usuarios();
+        tramites = Contextos.tramites();
+        List<Usuario> nuevos = new ArrayList<>(filas);
+        for (int i = 0; i < filas; i++)
+            nuevos.add(new Usuario("usuario-" + i, "secreto"));
+        usuarios.getBean(UsuarioService.class).crearLote(nuevos);
+        List<Tramite> tramitesNuevos = new ArrayList<>(filas);
+        for (int i = 0; i < filas; i++)
+            tramitesNuevos.add(new Tramite("tramite-" + i, i % 2 == 0));
+        tramites.getBean(TramiteRepository.class).saveAll(tramitesNuevos);
+        usuarioController = usuarios.getBean(UsuarioController.class);
+        tramiteController = tramites.getBean(TramiteController.class);
+        etagUsuario = obtenerUsuarioPorUsername().getHeaders().getETag();
+    }
+
+    @TearDown
+    public void cerrar() {
+        usuarios.close();
+        tramites.close();
+    }
+
+    @Benchmark
+    public List<UsuarioResponseDTO> listarUsuariosTodos() {
+        return usuarioController.listarTodos();
+    }
+
+    @Benchmark
+    public PaginaUsuariosDTO listarUsuariosPagina() {
+        return usuarioController.listarUsuarios(50, null);
+    }
+
+    @Benchmark
+    public ResponseEntity<UsuarioResponseDTO> obtenerUsuarioPorUsername() {
+        return usuarioController.obtenerPorUsername("usuario-7", new ServletWebRequest(new MockHttpServletRequest("GET", "/api/v1/usuarios/username/usuario-7")));
+    }
+
+    @Benchmark
+    public ResponseEntity<UsuarioResponseDTO> revalidarUsuarioPorUsername() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/usuarios/username/usuario-7");
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, etagUsuario);
+        return usuarioController.obtenerPorUsername("usuario-7", new ServletWebRequest(request));
+    }
+
+    @Benchmark
+    public ResponseEntity<byte[]> listarTramites() {
+        return tramiteController.listarTramites(new ServletWebRequest(new MockHttpServletRequest("GET", "/api/v1/tramites")));
+    }
+
+    @Benchmark
+    public ResponseEntity<?> obtenerTramitePorType() {
+        return tramiteController.obtenerPorType("tramite-7", new ServletWebRequest(new MockHttpServletRequest("GET", "/api/v1/tramites/type/tramite-7")));
+    }
+}
@@ -0,0 +1,77 @@
+package dev.labintec.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.labintec.usuario.controlador.ManejadorExcepciones;
+import dev.labintec.usuario.excepcion.RecursoDuplicadoException;
+import dev.labintec.usuario.excepcion.RecursoNoEncontradoException;
+import dev.labintec.usuario.servicio.UsuarioService;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+/**
+ * Ruta de error 404/409: creación de la excepción, ManejadorExcepciones y
+ * serialización del cuerpo. Ejecutar con "-prof gc" para ver la asignación por error.
+ * @author Quique
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ErroresBenchmark {
+
+    private ConfigurableApplicationContext usuarios;
+    private UsuarioService servicio;
+    private ManejadorExcepciones manejador;
+    private ObjectMapper mapper;
+    private MockHttpServletRequest request;
+
+    @Setup
+    public void preparar() {
+        usuarios = Contextos.usuarios();
+        servicio = usuarios.getBean(UsuarioService.class);
+        manejador = usuarios.getBean(ManejadorExcepciones.class);
+        mapper = usuarios.getBean(ObjectMapper.class);
+        request = new MockHttpServletRequest("GET", "/api/v1/usuarios/username/bot");
+    }
+
+    @TearDown
+    public void cerrar() {
+        usuarios.close();
+    }
+
+    @Benchmark
+    public byte[] error404() throws Exception {
+        RecursoNoEncontradoException e = new RecursoNoEncontradoException("Usuario con nombre = bot, no existe.");
+        return mapper.writeValueAsBytes(manejador.maanejarRecursoNoEncontrado(e, request).getBody());
+    }
+
+    @Benchmark
+    public byte[] error409() throws Exception {
+        RecursoDuplicadoException e = new RecursoDuplicadoException("Usuario con nombre = bot, ya existe.");
+        return mapper.writeValueAsBytes(manejador.maanejarRecursoDuplicado(e, request).getBody());
+    }
+
+    @Benchmark
+    public byte[] error404DesdeServicio() throws Exception {
+        try {
+            servicio.obtenerPorUsername("bot");
+            throw new IllegalStateException("El usuario bot no debería existir");
+        } catch (RecursoNoEncontradoException e) {
+            return mapper.writeValueAsBytes(manejador.maanejarRecursoNoEncontrado(e, request).getBody());
+        }
+    }
+}
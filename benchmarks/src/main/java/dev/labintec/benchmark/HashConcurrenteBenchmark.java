@@ -0,0 +1,81 @@
+package dev.labintec.benchmark;
+
+import dev.labintec.usuario.dto.UsuarioResponseDTO;
+import dev.labintec.usuario.entidad.Usuario;
+import dev.labintec.usuario.excepcion.ServicioSaturadoException;
+import dev.labintec.usuario.servicio.UsuarioService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Latencia (p50/p99) de las lecturas por id mientras una ráfaga de altas
+ * cifra contraseñas con bcrypt de costo 10. El grupo "soloLecturas" sirve de base
+ * y el grupo "lecturasConAltas" debería mantener un p99 similar gracias al pool
+ * de hash acotado. Se lee por id, que no pasa por la caché, para que cada
+ * lectura consulte H2.
+ * @author Quique
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HashConcurrenteBenchmark {
+
+    private final AtomicLong secuencia = new AtomicLong();
+    private ConfigurableApplicationContext usuarios;
+    private UsuarioService servicio;
+    private Long idLector;
+
+    @Setup
+    public void preparar() {
+        usuarios = Contextos.usuarios("usuarios.hash.costo=10");
+        servicio = usuarios.getBean(UsuarioService.class);
+        idLector = servicio.crearUsuario(new Usuario("lector", "secreto")).getIdUser();
+    }
+
+    @TearDown
+    public void cerrar() {
+        usuarios.close();
+    }
+
+    @Benchmark
+    @Group("soloLecturas")
+    @GroupThreads(4)
+    public UsuarioResponseDTO leerSinAltas() {
+        return servicio.obtenerPorId(idLector);
+    }
+
+    @Benchmark
+    @Group("lecturasConAltas")
+    @GroupThreads(4)
+    public UsuarioResponseDTO leer() {
+        return servicio.obtenerPorId(idLector);
+    }
+
+    @Benchmark
+    @Group("lecturasConAltas")
+    @GroupThreads(8)
+    public Object crear() {
+        try {
+            return servicio.crearUsuario(new Usuario("rafaga-" + secuencia.incrementAndGet(), "secreto"));
+        } catch (ServicioSaturadoException e) {
+            return e;   // Rechazo por contrapresión: esperado durante la ráfaga
+        }
+    }
+}
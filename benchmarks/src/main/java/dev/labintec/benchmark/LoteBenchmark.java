@@ -0,0 +1,77 @@
+package dev.labintec.benchmark;
+
+import dev.labintec.usuario.dto.ResultadoLoteDTO;
+import dev.labintec.usuario.entidad.Usuario;
+import dev.labintec.usuario.servicio.UsuarioService;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Alta de usuarios de a uno (crearUsuario) frente al alta por lote (crearLote).
+ * Los resultados se expresan en usuarios creados por segundo.
+ * @author Quique
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LoteBenchmark {
+
+    private static final int USUARIOS = 500;
+
+    private final AtomicLong secuencia = new AtomicLong();
+    private ConfigurableApplicationContext usuarios;
+    private UsuarioService servicio;
+
+    @Setup
+    public void preparar() {
+        usuarios = Contextos.usuarios();
+        servicio = usuarios.getBean(UsuarioService.class);
+    }
+
+    @TearDown
+    public void cerrar() {
+        usuarios.close();
+    }
+
+    private List<Usuario> nuevos() {
+        List<Usuario> lista = new ArrayList<>(USUARIOS);
+        for (int i = 0; i < USUARIOS; i++)
+            lista.add(new Usuario("alta-" + secuencia.incrementAndGet(), "secreto"));
+        return lista;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(USUARIOS)
+    public int crearUnoPorUno() {
+        int creados = 0;
+        for (Usuario usuario : nuevos()) {
+            servicio.crearUsuario(usuario);
+            creados++;
+        }
+        return creados;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(USUARIOS)
+    public List<ResultadoLoteDTO> crearLote() {
+        return servicio.crearLote(nuevos());
+    }
+}
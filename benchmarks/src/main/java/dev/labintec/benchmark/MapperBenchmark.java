@@ -0,0 +1,58 @@
+package dev.labintec.benchmark;
+
+import dev.labintec.tramite.dto.TramiteMapper;
+import dev.labintec.tramite.dto.TramiteRequestDTO;
+import dev.labintec.tramite.dto.TramiteResponseDTO;
+import dev.labintec.tramite.entidad.Tramite;
+import dev.labintec.usuario.dto.UsuarioMapper;
+import dev.labintec.usuario.dto.UsuarioRequestDTO;
+import dev.labintec.usuario.dto.UsuarioResponseDTO;
+import dev.labintec.usuario.entidad.Usuario;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Conversiones entidad ↔ DTO de UsuarioMapper y TramiteMapper.
+ * @author Quique
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MapperBenchmark {
+
+    private final Usuario usuario = new Usuario(42L, "quique", "$2a$10$abcdefghijklmnopqrstuv", 0L);
+    private final UsuarioRequestDTO usuarioRequest = new UsuarioRequestDTO("quique", "secreto");
+    private final Tramite tramite = new Tramite(7L, "inscripcion", true, 42L);
+    private final TramiteRequestDTO tramiteRequest = new TramiteRequestDTO("inscripcion", true, 42L);
+
+    @Benchmark
+    public UsuarioResponseDTO usuarioToDTO() {
+        return UsuarioMapper.toDTO(usuario);
+    }
+
+    @Benchmark
+    public Usuario usuarioToEntidad() {
+        return UsuarioMapper.toUsuario(usuarioRequest);
+    }
+
+    @Benchmark
+    public TramiteResponseDTO tramiteToDTO() {
+        return TramiteMapper.toDTO(tramite);
+    }
+
+    @Benchmark
+    public Tramite tramiteToEntidad() {
+        return TramiteMapper.toTramite(tramiteRequest);
+    }
+}
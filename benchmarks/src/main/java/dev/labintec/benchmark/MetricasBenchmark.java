@@ -0,0 +1,103 @@
+package dev.labintec.benchmark;
+
+import dev.labintec.tramite.dto.TramiteResponseDTO;
+import dev.labintec.tramite.entidad.Tramite;
+import dev.labintec.tramite.repositorio.TramiteRepository;
+import dev.labintec.tramite.servicio.TramiteService;
+import dev.labintec.usuario.controlador.ManejadorExcepciones;
+import dev.labintec.usuario.dto.ErrorDTO;
+import dev.labintec.usuario.dto.UsuarioResponseDTO;
+import dev.labintec.usuario.entidad.Usuario;
+import dev.labintec.usuario.excepcion.RecursoNoEncontradoException;
+import dev.labintec.usuario.servicio.UsuarioService;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+/**
+ * Costo de registrar métricas: las mismas lecturas por clave y la misma ruta
+ * de error 404 con y sin instrumentación (@Timed en servicios, tiempos de
+ * repositorio e histogramas Prometheus). La diferencia entre ambos valores de
+ * "metricas" es la sobrecarga por llamada.
+ * @author Quique
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 10, time = 2)   // Hibernate e H2 tardan en estabilizarse
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MetricasBenchmark {
+
+    @Param({"false", "true"})
+    private boolean metricas;
+
+    private ConfigurableApplicationContext usuarios;
+    private ConfigurableApplicationContext tramites;
+    private UsuarioService usuarioService;
+    private TramiteService tramiteService;
+    private ManejadorExcepciones manejador;
+    private MockHttpServletRequest request;
+
+    @Setup
+    public void preparar() {
+        String[] propiedades = metricas
+                ? new String[] {   // Igual que application.properties de cada servicio
+                    "management.metrics.data.repository.autotime.enabled=true",
+                    "management.metrics.distribution.percentiles-histogram.spring.data.repository.invocations=true",
+                    "management.metrics.distribution.percentiles-histogram.hikaricp.connections.acquire=true",
+                    "management.metrics.distribution.maximum-expected-value.usuarios.servicio=10s",
+                    "management.metrics.distribution.maximum-expected-value.tramites.servicio=10s",
+                    "management.metrics.distribution.maximum-expected-value.spring.data.repository.invocations=10s" }
+                : new String[] {   // Sin aspecto @Timed ni tiempos de repositorio
+                    "spring.aop.auto=false",
+                    "management.metrics.data.repository.autotime.enabled=false" };
+        usuarios = Contextos.usuarios(propiedades);
+        tramites = Contextos.tramites(propiedades);
+        usuarios.getBean(UsuarioService.class).crearLote(List.of(new Usuario("usuario-1", "secreto")));
+        tramites.getBean(TramiteRepository.class).save(new Tramite("tramite-1", true));
+        usuarioService = usuarios.getBean(UsuarioService.class);
+        tramiteService = tramites.getBean(TramiteService.class);
+        manejador = usuarios.getBean(ManejadorExcepciones.class);
+        request = new MockHttpServletRequest("GET", "/api/v1/usuarios/username/bot");
+    }
+
+    @TearDown
+    public void cerrar() {
+        usuarios.close();
+        tramites.close();
+    }
+
+    @Benchmark
+    public UsuarioResponseDTO obtenerUsuarioPorId() {
+        return usuarioService.obtenerPorId(1L);
+    }
+
+    @Benchmark
+    public TramiteResponseDTO obtenerTramitePorType() {
+        return tramiteService.obtenerPorType("tramite-1");
+    }
+
+    @Benchmark
+    public ErrorDTO error404() {
+        try {
+            usuarioService.obtenerPorId(-1L);
+            throw new IllegalStateException("El usuario -1 no debería existir");
+        } catch (RecursoNoEncontradoException e) {
+            return manejador.maanejarRecursoNoEncontrado(e, request).getBody();
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package dev.labintec.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.labintec.tramite.dto.TramiteResponseDTO;
+import dev.labintec.usuario.dto.PaginaUsuariosDTO;
+import dev.labintec.usuario.dto.UsuarioResponseDTO;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * Serialización Jackson de los DTO de respuesta, individuales y en listas.
+ * Usa un ObjectMapper configurado igual que el de Spring MVC.
+ * @author Quique
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializacionBenchmark {
+
+    @Param({"50", "1000"})
+    private int cantidad;
+
+    private ObjectMapper mapper;
+    private UsuarioResponseDTO usuario;
+    private TramiteResponseDTO tramite;
+    private PaginaUsuariosDTO pagina;
+    private List<TramiteResponseDTO> tramites;
+
+    @Setup
+    public void preparar() {
+        mapper = Jackson2ObjectMapperBuilder.json().build();
+        usuario = new UsuarioResponseDTO(1L, "usuario-1", 0L);
+        tramite = new TramiteResponseDTO(1L, "tramite-1", true, 1L);
+        List<UsuarioResponseDTO> usuarios = new ArrayList<>(cantidad);
+        tramites = new ArrayList<>(cantidad);
+        for (long i = 0; i < cantidad; i++) {
+            usuarios.add(new UsuarioResponseDTO(i, "usuario-" + i, 0L));
+            tramites.add(new TramiteResponseDTO(i, "tramite-" + i, i % 2 == 0, i));
+        }
+        pagina = new PaginaUsuariosDTO(usuarios, "dTo1MA");
+    }
+
+    @Benchmark
+    public byte[] usuario() throws Exception {
+        return mapper.writeValueAsBytes(usuario);
+    }
+
+    @Benchmark
+    public byte[] tramite() throws Exception {
+        return mapper.writeValueAsBytes(tramite);
+    }
+
+    @Benchmark
+    public byte[] paginaUsuarios() throws Exception {
+        return mapper.writeValueAsBytes(pagina);
+    }
+
+    @Benchmark
+    public byte[] listaTramites() throws Exception {
+        return mapper.writeValueAsBytes(tramites);
+    }
+}
@@ -0,0 +1,65 @@
+#!/usr/bin/env bash
+# Compara el arranque del jar habitual con el del perfil Maven arranque-rapido
+# (procesamiento AOT de Spring y archivo CDS de la JVM): tiempo hasta la primera
+# respuesta y memoria residente.
+#
+# Requisitos: Java 17+. usuarios-api necesita MySQL con la base gestion_uni;
+# tramites-api usa por defecto el perfil "embebida" (H2) y no lo necesita.
+# Uso: ./carga/comparar-arranque.sh [usuarios-api|tramites-api] [repeticiones]
+# Con PERFILES=... se eligen los perfiles de Spring (los mismos en el build AOT y al ejecutar).
+#
+# Para cada variante arranca el módulo varias veces y mide desde el lanzamiento de
+# la JVM hasta la primera respuesta 200 de un endpoint de lectura, el tiempo de
+# arranque que informa Spring y el RSS tras esa primera respuesta. Imprime la mediana.
+set -euo pipefail
+
+MODULO="${1:-tramites-api}"
+REPETICIONES="${2:-5}"
+
+case "$MODULO" in
+  usuarios-api) PUERTO=8080; RUTA="/api/v1/usuarios?limit=1"; PERFILES="${PERFILES:-default}"; PERFIL_MAVEN="" ;;
+  tramites-api) PUERTO=8081; RUTA="/api/v1/tramites"; PERFILES="${PERFILES:-embebida}"; PERFIL_MAVEN="-Pembebida" ;;
+  *) echo "Módulo desconocido: $MODULO" >&2; exit 1 ;;
+esac
+
+RAIZ="$(cd "$(dirname "$0")/.." && pwd)"
+cd "$RAIZ/$MODULO"
+SALIDA="target/comparacion-arranque"
+
+# Primero el jar habitual (se copia: el build siguiente lo reemplaza), después el AOT + CDS
+./mvnw -q $PERFIL_MAVEN -DskipTests package
+rm -rf "$SALIDA" && mkdir -p "$SALIDA"
+cp target/*-SNAPSHOT.jar "$SALIDA/habitual.jar"
+./mvnw -q $PERFIL_MAVEN -Parranque-rapido -Darranque.perfiles="$PERFILES" -DskipTests package
+JAR_EXTRAIDO="$(ls target/arranque/*-SNAPSHOT.jar)"
+
+ahora_ms() { echo $(( $(date +%s%N) / 1000000 )); }
+
+mediana() { sort -n | awk '{ v[NR] = $1 } END { print v[int((NR + 1) / 2)] }'; }
+
+medir() {
+  local variante="$1"; shift
+  local tiempos="" arranques="" memorias=""
+  for i in $(seq 1 "$REPETICIONES"); do
+    local inicio; inicio="$(ahora_ms)"
+    java "$@" --spring.profiles.active="$PERFILES" --${MODULO%-api}.admision.habilitada=false > "$SALIDA/$variante-$i.log" 2>&1 &
+    local pid=$!
+    trap 'kill $pid 2>/dev/null || true' EXIT
+    until curl -sf -o /dev/null "http://localhost:$PUERTO$RUTA"; do
+      kill -0 $pid 2>/dev/null || { echo "$variante no arrancó, ver $SALIDA/$variante-$i.log" >&2; exit 1; }
+      sleep 0.02
+    done
+    tiempos+="$(( $(ahora_ms) - inicio ))"$'\n'
+    memorias+="$(ps -o rss= -p $pid | tr -d ' ')"$'\n'
+    arranques+="$(grep -o "Started .* in [0-9.]* seconds" "$SALIDA/$variante-$i.log" | grep -o "in [0-9.]*" | cut -c4-)"$'\n'
+    kill $pid; wait $pid 2>/dev/null || true
+    trap - EXIT
+  done
+  printf "%-10s primera respuesta: %5s ms   arranque Spring: %5s s   RSS: %7s KB\n" "$variante" \
+    "$(printf "%s" "$tiempos" | mediana)" "$(printf "%s" "$arranques" | mediana)" "$(printf "%s" "$memorias" | mediana)"
+}
+
+echo "=== $MODULO — perfiles $PERFILES, mediana de $REPETICIONES arranques ==="
+medir habitual -jar "$SALIDA/habitual.jar"
+medir aot -Dspring.aot.enabled=true -jar "$JAR_EXTRAIDO"
+medir aot+cds -XX:SharedArchiveFile=target/arranque/app.jsa -Dspring.aot.enabled=true -jar "$JAR_EXTRAIDO"
@@ -0,0 +1,44 @@
+#!/usr/bin/env bash
+# Compara throughput y latencia de cola entre hilos de plataforma y hilos virtuales.
+#
+# Requisitos: Java 21+, MySQL con la base gestion_uni y wrk (https://github.com/wg/wrk).
+# Uso: ./carga/comparar-hilos.sh [usuarios-api|tramites-api] [conexiones] [duración]
+#
+# Para cada modo arranca el módulo, lo calienta y ejecuta wrk contra un endpoint
+# de lectura con alta concurrencia, imprimiendo req/s y percentiles p50/p90/p99.
+# El control de admisión se desactiva: wrk envía todo desde una sola dirección.
+set -euo pipefail
+
+MODULO="${1:-tramites-api}"
+CONEXIONES="${2:-2000}"
+DURACION="${3:-60s}"
+HILOS_WRK="${HILOS_WRK:-8}"
+
+case "$MODULO" in
+  usuarios-api) PUERTO=8080; RUTA="/api/v1/usuarios?limit=50" ;;
+  tramites-api) PUERTO=8081; RUTA="/api/v1/tramites/1" ;;
+  *) echo "Módulo desconocido: $MODULO" >&2; exit 1 ;;
+esac
+
+RAIZ="$(cd "$(dirname "$0")/.." && pwd)"
+cd "$RAIZ/$MODULO"
+
+ejecutar() {
+  local modo="$1" perfil_maven="$2"
+  echo "=== $MODULO — $modo ==="
+  ./mvnw -q $perfil_maven -DskipTests package
+  java -jar target/*.jar ${3:-} --${MODULO%-api}.admision.habilitada=false > "target/carga-$modo.log" 2>&1 &
+  local pid=$!
+  trap 'kill $pid 2>/dev/null || true' EXIT
+  until curl -s -o /dev/null "http://localhost:$PUERTO$RUTA"; do sleep 1; done
+  wrk -t"$HILOS_WRK" -c100 -d10s "http://localhost:$PUERTO$RUTA" > /dev/null   # Calentamiento
+  wrk -t"$HILOS_WRK" -c"$CONEXIONES" -d"$DURACION" --latency "http://localhost:$PUERTO$RUTA" \
+    | tee "target/carga-$modo.txt" | grep -E "Requests/sec|^ +(50|90|99)%"
+  echo "RSS (KB): $(ps -o rss= -p $pid)"
+  kill $pid; wait $pid 2>/dev/null || true
+  trap - EXIT
+}
+
+ejecutar plataforma ""
+ejecutar virtual "-Philos-virtuales" "--spring.profiles.active=virtual"
+grep -h "Hilo virtual anclado" "target/carga-virtual.log" | sort | uniq -c | sort -rn | head || true
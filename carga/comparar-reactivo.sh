@@ -0,0 +1,66 @@
+#!/usr/bin/env bash
+# Compara tramites-api (servlet + JPA) con tramites-reactivo (WebFlux + R2DBC)
+# sobre la misma base H2 embebida: throughput, latencia de cola y memoria por conexión.
+#
+# Requisitos: Java 17+ y wrk (https://github.com/wg/wrk). No necesita MySQL.
+# Uso: ./carga/comparar-reactivo.sh [conexiones separadas por espacio] [duración] [filas]
+#
+# Para cada variante: arranca el jar con el perfil "embebida", carga las mismas filas,
+# mide RSS e hilos en reposo, ejecuta wrk contra GET /api/v1/tramites/{id} en cada
+# nivel de concurrencia y vuelve a medir RSS e hilos con la carga en curso.
+# Memoria por conexión = (RSS con carga - RSS en reposo) / conexiones.
+# El control de admisión de tramites-api se desactiva: wrk envía todo desde una sola dirección.
+set -euo pipefail
+
+CONEXIONES="${1:-100 1000 5000}"
+DURACION="${2:-30s}"
+FILAS="${3:-1000}"
+HILOS_WRK="${HILOS_WRK:-8}"
+
+RAIZ="$(cd "$(dirname "$0")/.." && pwd)"
+MVNW="$RAIZ/tramites-api/mvnw"
+SALIDA="$RAIZ/tramites-reactivo/target/carga"
+mkdir -p "$SALIDA"
+
+"$MVNW" -q -f "$RAIZ/tramites-api/pom.xml" -Pembebida -DskipTests package
+"$MVNW" -q -f "$RAIZ/tramites-reactivo/pom.xml" -DskipTests package
+
+rss() { ps -o rss= -p "$1" | tr -d ' '; }
+hilos() { ps -o nlwp= -p "$1" | tr -d ' '; }
+
+ejecutar() {
+  local variante="$1" jar="$2" puerto="$3"
+  local base="http://localhost:$puerto/api/v1/tramites"
+  echo "=== $variante ==="
+  java -jar $jar --spring.profiles.active=embebida --server.port="$puerto" --tramites.admision.habilitada=false > "$SALIDA/$variante.log" 2>&1 &
+  local pid=$!
+  trap 'kill $pid 2>/dev/null || true' EXIT
+  until curl -s -o /dev/null "$base"; do sleep 1; done
+  for i in $(seq 1 "$FILAS"); do
+    curl -s -o /dev/null -H 'Content-Type: application/json' -d "{\"type\":\"carga-$i\",\"status\":true}" "$base"
+  done
+  wrk -t"$HILOS_WRK" -c100 -d10s "$base/1" > /dev/null   # Calentamiento
+  sleep 2
+  local rss_reposo hilos_reposo
+  rss_reposo=$(rss $pid); hilos_reposo=$(hilos $pid)
+  echo "Reposo: RSS ${rss_reposo} KB, ${hilos_reposo} hilos"
+  printf "%-11s %12s %10s %10s %12s %8s %14s\n" conexiones req/s p50 p99 "RSS (KB)" hilos "KB/conexión"
+  for c in $CONEXIONES; do
+    wrk -t"$HILOS_WRK" -c"$c" -d"$DURACION" --latency "$base/1" > "$SALIDA/$variante-$c.txt" &
+    local wrk_pid=$!
+    sleep "$(( ${DURACION%s} / 2 ))"      # Mide a mitad de la corrida, con todas las conexiones abiertas
+    local rss_carga hilos_carga
+    rss_carga=$(rss $pid); hilos_carga=$(hilos $pid)
+    wait $wrk_pid
+    printf "%-11s %12s %10s %10s %12s %8s %14s\n" "$c" \
+      "$(awk '/Requests\/sec/ {print $2}' "$SALIDA/$variante-$c.txt")" \
+      "$(awk '$1 == "50%" {print $2}' "$SALIDA/$variante-$c.txt")" \
+      "$(awk '$1 == "99%" {print $2}' "$SALIDA/$variante-$c.txt")" \
+      "$rss_carga" "$hilos_carga" "$(( (rss_carga - rss_reposo) / c ))"
+  done
+  kill $pid; wait $pid 2>/dev/null || true
+  trap - EXIT
+}
+
+ejecutar servlet "$RAIZ/tramites-api/target/tramite-0.0.1-SNAPSHOT.jar" 8081
+ejecutar reactivo "$RAIZ/tramites-reactivo/target/tramite-reactivo-0.0.1-SNAPSHOT.jar" 8082
@@ -0,0 +1,137 @@
+package dev.labintec.comun.admision;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Set;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Control de admisión delante de los controladores REST.
+ * Cada petición pasa primero por la cubeta de fichas de su cliente (dirección
+ * remota) y luego por el límite global de concurrencia, que se adapta a la
+ * latencia observada. Lo que no se admite se rechaza de inmediato, sin tocar
+ * el pool de conexiones:
+ *  - cliente sin fichas   → HTTP 429 Too Many Requests (Retry-After: segundos hasta la próxima ficha)
+ *  - servicio al límite   → HTTP 503 Service Unavailable (Retry-After: 1)
+ * Los rechazos se cuentan en {prefijo}.admision.rechazos (etiqueta motivo).
+ * Las rutas de actuator y los clientes exentos (otros servicios) no pasan por el filtro.
+ * Está desactivado salvo que se habilite: el cliente es request.getRemoteAddr(),
+ * que detrás de un proxy solo es la dirección real con forward-headers-strategy
+ * y proxies confiables configurados (ver application.properties).
+ *
+ * Es la implementación común de usuarios-api y tramites-api; cada servicio la
+ * declara como filtro con una subclase FiltroAdmision que lee su configuración
+ * {prefijo}.admision.* (usuarios o tramites) y arma el cuerpo de error con su ErrorDTO.
+ * @author Quique
+ */
+public abstract class ControlAdmision extends OncePerRequestFilter {
+
+    private final String prefijo;
+    private final boolean habilitada;
+    private final Set<String> exentos;
+    private final LimitadorClientes clientes;
+    private final LimiteConcurrencia concurrencia;
+
+    @Autowired
+    private ObjectMapper mapper;
+
+    @Autowired // Registro de métricas provisto por actuator
+    private MeterRegistry registro;
+
+    private Counter rechazosTasa;
+    private Counter rechazosConcurrencia;
+
+    /**
+     * Construye los limitadores con los parámetros configurados.
+     * @param prefijo prefijo de las métricas del servicio (por ejemplo "usuarios").
+     * @param habilitada si es false todas las peticiones se admiten.
+     * @param exentos direcciones remotas que no se limitan (por ejemplo, otro microservicio).
+     * @param tasa peticiones por segundo sostenidas por cliente.
+     * @param rafaga peticiones que un cliente puede enviar de golpe.
+     * @param clientesMaximos cantidad máxima de clientes con estado en memoria.
+     * @param inicial límite de concurrencia al arrancar.
+     * @param minimo límite de concurrencia mínimo.
+     * @param maximo límite de concurrencia máximo.
+     * @param latenciaObjetivo latencia por encima de la cual el límite se reduce.
+     */
+    protected ControlAdmision(String prefijo, boolean habilitada, Set<String> exentos, double tasa, int rafaga,
+                              long clientesMaximos, int inicial, int minimo, int maximo, Duration latenciaObjetivo) {
+        this.prefijo = prefijo;
+        this.habilitada = habilitada;
+        this.exentos = exentos;
+        this.clientes = new LimitadorClientes(tasa, rafaga, clientesMaximos);
+        this.concurrencia = new LimiteConcurrencia(inicial, minimo, maximo, latenciaObjetivo);
+    }
+
+    /**
+     * Registra los contadores de rechazos y los indicadores del límite de concurrencia.
+     */
+    @PostConstruct
+    public void registrarMetricas() {
+        rechazosTasa = Counter.builder(prefijo + ".admision.rechazos").tag("motivo", "tasa").register(registro);
+        rechazosConcurrencia = Counter.builder(prefijo + ".admision.rechazos").tag("motivo", "concurrencia").register(registro);
+        Gauge.builder(prefijo + ".admision.limite", concurrencia, LimiteConcurrencia::getLimite).register(registro);
+        Gauge.builder(prefijo + ".admision.en.vuelo", concurrencia, LimiteConcurrencia::getEnVuelo).register(registro);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !habilitada || request.getRequestURI().startsWith("/actuator") || exentos.contains(request.getRemoteAddr());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        long espera = clientes.intentar(request.getRemoteAddr());
+        if (espera > 0) {
+            rechazosTasa.increment();
+            rechazar(request, response, HttpStatus.TOO_MANY_REQUESTS, "Demasiadas solicitudes",
+                    "Límite de solicitudes por cliente excedido, reintente más tarde.", (espera + 999_999_999L) / 1_000_000_000L);
+            return;
+        }
+        if (!concurrencia.adquirir()) {
+            rechazosConcurrencia.increment();
+            rechazar(request, response, HttpStatus.SERVICE_UNAVAILABLE, "Servicio saturado",
+                    "Demasiadas solicitudes en curso, reintente más tarde.", 1);
+            return;
+        }
+        long inicio = System.nanoTime();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            concurrencia.liberar(System.nanoTime() - inicio);
+        }
+    }
+
+    /**
+     * Arma el cuerpo JSON de un rechazo con el formato de error del servicio.
+     * @param request petición rechazada.
+     * @param estado estado HTTP de la respuesta.
+     * @param error descripción breve del estado.
+     * @param mensaje detalle para el cliente.
+     * @return objeto a serializar con el ObjectMapper de la aplicación.
+     */
+    protected abstract Object cuerpoError(HttpServletRequest request, HttpStatus estado, String error, String mensaje);
+
+    private void rechazar(HttpServletRequest request, HttpServletResponse response, HttpStatus estado,
+                          String error, String mensaje, long segundos) throws IOException {
+        Object cuerpo = cuerpoError(request, estado, error, mensaje);
+        response.setStatus(estado.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(segundos));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        mapper.writeValue(response.getOutputStream(), cuerpo);
+    }
+}
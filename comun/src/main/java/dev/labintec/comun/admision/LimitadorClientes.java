@@ -0,0 +1,53 @@
+package dev.labintec.comun.admision;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cubeta de fichas por cliente implementada como GCRA (generic cell rate algorithm).
+ * El estado de cada cliente es un único AtomicLong con el "instante teórico de
+ * llegada" de la próxima petición; admitir una petición es un compareAndSet, sin
+ * bloqueos. Los clientes inactivos se expulsan de la caché acotada.
+ * @author Quique
+ */
+public class LimitadorClientes {
+
+    private final long intervaloNs;
+    private final long toleranciaNs;
+    private final Cache<String, AtomicLong> clientes;
+
+    /**
+     * @param tasa peticiones por segundo sostenidas por cliente.
+     * @param rafaga peticiones que un cliente inactivo puede enviar de golpe.
+     * @param clientesMaximos cantidad máxima de clientes con estado en memoria.
+     */
+    public LimitadorClientes(double tasa, int rafaga, long clientesMaximos) {
+        this.intervaloNs = (long) (1_000_000_000L / tasa);
+        this.toleranciaNs = intervaloNs * rafaga;
+        this.clientes = Caffeine.newBuilder()
+                .maximumSize(clientesMaximos)
+                .expireAfterAccess(Duration.ofNanos(Math.max(toleranciaNs, 1_000_000_000L)))  // Cubeta llena: el estado ya no importa
+                .build();
+    }
+
+    /**
+     * Intenta consumir una ficha del cliente.
+     * @param cliente identificador del cliente (dirección remota).
+     * @return 0 si la petición se admite; si no, nanosegundos hasta la próxima ficha.
+     */
+    public long intentar(String cliente) {
+        long ahora = System.nanoTime();
+        AtomicLong llegada = clientes.get(cliente, k -> new AtomicLong(ahora));
+        while (true) {
+            long anterior = llegada.get();
+            long siguiente = ((anterior - ahora > 0) ? anterior : ahora) + intervaloNs;
+            long exceso = siguiente - ahora - toleranciaNs;
+            if (exceso > 0)
+                return exceso;  // Sin fichas: no modifica el estado
+            if (llegada.compareAndSet(anterior, siguiente))
+                return 0;
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package dev.labintec.comun.admision;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Límite global de peticiones simultáneas que se adapta a la latencia (AIMD).
+ * Mientras las peticiones admitidas terminan por debajo de la latencia objetivo
+ * y el servicio trabaja cerca del límite, este crece de a uno; cuando una supera
+ * el objetivo (el pool de conexiones o la base de datos ya no dan abasto) se reduce
+ * un 10 %, a lo sumo una vez por ventana. Contadores atómicos, sin bloqueos.
+ * @author Quique
+ */
+public class LimiteConcurrencia {
+
+    private final int minimo;
+    private final int maximo;
+    private final long objetivoNs;
+
+    private final AtomicInteger limite;
+    private final AtomicInteger enVuelo = new AtomicInteger();
+    private final AtomicLong ultimaReduccion = new AtomicLong(System.nanoTime());
+
+    /**
+     * @param inicial límite al arrancar.
+     * @param minimo límite por debajo del cual nunca se reduce.
+     * @param maximo límite por encima del cual nunca crece.
+     * @param latenciaObjetivo latencia por encima de la cual el límite se reduce.
+     */
+    public LimiteConcurrencia(int inicial, int minimo, int maximo, Duration latenciaObjetivo) {
+        this.minimo = minimo;
+        this.maximo = maximo;
+        this.objetivoNs = latenciaObjetivo.toNanos();
+        this.limite = new AtomicInteger(Math.max(minimo, Math.min(inicial, maximo)));
+    }
+
+    /**
+     * Reserva un lugar si hay capacidad.
+     * @return true si la petición se admite; debe seguirse de liberar().
+     */
+    public boolean adquirir() {
+        while (true) {
+            int actual = enVuelo.get();
+            if (actual >= limite.get())
+                return false;
+            if (enVuelo.compareAndSet(actual, actual + 1))
+                return true;
+        }
+    }
+
+    /**
+     * Libera el lugar de una petición admitida y ajusta el límite con su latencia.
+     * @param nanos duración de la petición.
+     */
+    public void liberar(long nanos) {
+        int enCurso = enVuelo.getAndDecrement();
+        if (nanos > objetivoNs) {
+            long ahora = System.nanoTime();
+            long ultima = ultimaReduccion.get();
+            if (ahora - ultima >= objetivoNs && ultimaReduccion.compareAndSet(ultima, ahora))
+                limite.updateAndGet(l -> Math.max(minimo, l * 9 / 10));
+        } else if (enCurso * 2 >= limite.get()) {   // Solo crece si el límite se está usando
+            limite.updateAndGet(l -> Math.min(maximo, l + 1));
+        }
+    }
+
+    /**
+     * @return límite vigente.
+     */
+    public int getLimite() {
+        return limite.get();
+    }
+
+    /**
+     * @return peticiones admitidas en curso.
+     */
+    public int getEnVuelo() {
+        return enVuelo.get();
+    }
+}
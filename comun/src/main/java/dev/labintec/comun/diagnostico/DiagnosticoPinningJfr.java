@@ -0,0 +1,104 @@
+package dev.labintec.comun.diagnostico;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Detecta y reporta el anclaje (pinning) de hilos virtuales a su hilo portador.
+ * Escucha el evento JFR jdk.VirtualThreadPinned y registra en el log la traza
+ * de cada anclaje que supere el umbral, marcando si ocurrió dentro del driver
+ * JDBC, del pool Hikari o de Hibernate.
+ *
+ * Es la implementación común de usuarios-api y tramites-api; cada servicio la
+ * declara como bean con una subclase DiagnosticoPinning que lee su umbral y la
+ * activa solo en el modo de hilos virtuales.
+ * @author Quique
+ */
+public class DiagnosticoPinningJfr {
+
+    private final Logger log = LoggerFactory.getLogger(getClass());
+
+    /**
+     * Prefijos de paquete que identifican la ruta de acceso a datos.
+     */
+    private static final List<String> PAQUETES_DATOS = List.of("com.mysql.", "com.zaxxer.hikari.", "org.hibernate.");
+
+    private final Duration umbral;
+    private final LongAdder anclajes = new LongAdder();
+    private final LongAdder anclajesDatos = new LongAdder();
+    private RecordingStream stream;
+
+    /**
+     * @param umbral duración mínima de un anclaje para ser reportado.
+     */
+    public DiagnosticoPinningJfr(Duration umbral) {
+        this.umbral = umbral;
+    }
+
+    /**
+     * Inicia la grabación JFR en segundo plano.
+     */
+    @PostConstruct
+    public void iniciar() {
+        if (Runtime.version().feature() < 21) {
+            log.warn("spring.threads.virtual.enabled=true requiere Java 21+; se ejecuta con hilos de plataforma (Java {}).",
+                    Runtime.version().feature());
+            return;
+        }
+        stream = new RecordingStream();
+        stream.enable("jdk.VirtualThreadPinned").withThreshold(umbral).withStackTrace();
+        stream.onEvent("jdk.VirtualThreadPinned", this::reportar);
+        stream.startAsync();
+        log.info("Diagnóstico de pinning activo (umbral {} ms).", umbral.toMillis());
+    }
+
+    private void reportar(RecordedEvent evento) {
+        anclajes.increment();
+        StringBuilder traza = new StringBuilder();
+        boolean enDatos = false;
+        if (evento.getStackTrace() != null) {
+            for (RecordedFrame frame : evento.getStackTrace().getFrames()) {
+                String clase = frame.getMethod().getType().getName();
+                for (String paquete : PAQUETES_DATOS)
+                    enDatos |= clase.startsWith(paquete);
+                traza.append("\n\tat ").append(clase).append('.').append(frame.getMethod().getName())
+                     .append(':').append(frame.getLineNumber());
+            }
+        }
+        if (enDatos)
+            anclajesDatos.increment();
+        log.warn("Hilo virtual anclado {} ms{}{}", evento.getDuration().toMillis(),
+                enDatos ? " en la ruta JDBC/Hibernate" : "", traza);
+    }
+
+    /**
+     * @return cantidad total de anclajes reportados desde el arranque.
+     */
+    public long getAnclajes() {
+        return anclajes.sum();
+    }
+
+    /**
+     * @return cantidad de anclajes ocurridos dentro de JDBC, Hikari o Hibernate.
+     */
+    public long getAnclajesDatos() {
+        return anclajesDatos.sum();
+    }
+
+    /**
+     * Detiene la grabación al cerrar la aplicación.
+     */
+    @PreDestroy
+    public void detener() {
+        if (stream != null)
+            stream.close();
+    }
+}
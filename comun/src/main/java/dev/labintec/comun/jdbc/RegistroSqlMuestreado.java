@@ -0,0 +1,304 @@
+package dev.labintec.comun.jdbc;
+
+import jakarta.annotation.PreDestroy;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import javax.sql.DataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+/**
+ * Registro de sentencias SQL muestreado y fuera del hilo de la petición.
+ * Reemplaza a spring.jpa.show-sql: envuelve el DataSource y mide cada sentencia
+ * (ejecución más lectura de filas), contando parámetros enlazados y filas leídas
+ * o modificadas. Las sentencias que superan el umbral de lentitud se registran
+ * siempre (WARN); del resto solo una fracción "muestreo" (INFO). El texto se
+ * arma y se escribe en un hilo propio con cola acotada: si la cola se llena, las
+ * muestras se descartan y las lentas se escriben en el hilo que las ejecutó.
+ *
+ * Es la implementación común de usuarios-api y tramites-api (ambos agregan
+ * comun/src/main/java a sus fuentes); cada servicio la declara como bean con una
+ * subclase RegistroSql que lee su propia configuración y da nombre al logger.
+ * @author Quique
+ */
+public class RegistroSqlMuestreado implements BeanPostProcessor {
+
+    private final Logger log = LoggerFactory.getLogger(getClass());
+
+    private final boolean habilitado;
+    private final double muestreo;
+    private final long umbralNs;
+    private final ThreadPoolExecutor escritor;
+    private final LongAdder descartadas = new LongAdder();
+
+    /**
+     * @param habilitado si es false el DataSource no se envuelve.
+     * @param muestreo fracción (0 a 1) de las sentencias rápidas que se registran.
+     * @param umbralLento duración a partir de la cual una sentencia se registra siempre.
+     * @param cola cantidad máxima de registros pendientes de escritura.
+     */
+    public RegistroSqlMuestreado(boolean habilitado, double muestreo, Duration umbralLento, int cola) {
+        this.habilitado = habilitado;
+        this.muestreo = muestreo;
+        this.umbralNs = umbralLento.toNanos();
+        this.escritor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(cola), new CustomizableThreadFactory("registro-sql-"),
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Envuelve los DataSource ya configurados; el resto de los beans no se modifica.
+     */
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (habilitado && bean instanceof DataSource dataSource && !(bean instanceof DataSourceRegistrado))
+            return new DataSourceRegistrado(dataSource);
+        return bean;
+    }
+
+    /**
+     * Cantidad de registros muestreados descartados por cola llena.
+     * @return total desde el arranque.
+     */
+    public long getDescartadas() {
+        return descartadas.sum();
+    }
+
+    /**
+     * Escribe los registros pendientes y detiene el hilo escritor.
+     */
+    @PreDestroy
+    public void cerrar() throws InterruptedException {
+        escritor.shutdown();
+        escritor.awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    private void registrar(String sql, int parametros, long filas, long nanos) {
+        boolean lenta = nanos >= umbralNs;
+        if (!lenta && (muestreo <= 0 || ThreadLocalRandom.current().nextDouble() >= muestreo))
+            return;     // Caso común: sin asignaciones ni E/S en el hilo de la petición
+        Runnable escritura = () -> escribir(sql, parametros, filas, nanos, lenta);
+        try {
+            escritor.execute(escritura);
+        } catch (RejectedExecutionException e) {
+            if (lenta)
+                escritura.run();    // Las lentas no se pierden
+            else
+                descartadas.increment();
+        }
+    }
+
+    private void escribir(String sql, int parametros, long filas, long nanos, boolean lenta) {
+        String sentencia = sql.replaceAll("\\s+", " ").trim();
+        double ms = nanos / 1_000_000.0;
+        if (lenta)
+            log.warn("sql lenta=true ms={} parametros={} filas={} sentencia=\"{}\"", String.format("%.3f", ms), parametros, filas, sentencia);
+        else
+            log.info("sql lenta=false ms={} parametros={} filas={} sentencia=\"{}\"", String.format("%.3f", ms), parametros, filas, sentencia);
+    }
+
+    private static boolean esIdentidad(Method metodo) {
+        return metodo.getDeclaringClass() == Object.class && !metodo.getName().equals("toString");
+    }
+
+    private static Object identidad(Object proxy, Method metodo, Object[] args) {
+        // equals y hashCode por identidad del proxy, como los objetos JDBC del pool
+        return metodo.getName().equals("equals") ? (Object) (proxy == args[0]) : (Object) System.identityHashCode(proxy);
+    }
+
+    private static Object invocar(Object destino, Method metodo, Object[] args) throws Throwable {
+        try {
+            return metodo.invoke(destino, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();   // Propaga la SQLException original
+        }
+    }
+
+    /**
+     * DataSource que entrega conexiones instrumentadas. Al extender DelegatingDataSource,
+     * unwrap() sigue llegando al pool (métricas de Hikari, Flyway).
+     */
+    private class DataSourceRegistrado extends DelegatingDataSource {
+
+        DataSourceRegistrado(DataSource destino) {
+            super(destino);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            return conexion(super.getConnection());
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            return conexion(super.getConnection(username, password));
+        }
+
+        private Connection conexion(Connection destino) {
+            return (Connection) Proxy.newProxyInstance(RegistroSqlMuestreado.class.getClassLoader(),
+                    new Class<?>[] {Connection.class}, new ConexionRegistrada(destino));
+        }
+    }
+
+    /**
+     * Intercepta la creación de sentencias para instrumentarlas.
+     */
+    private class ConexionRegistrada implements InvocationHandler {
+
+        private final Connection destino;
+
+        ConexionRegistrada(Connection destino) {
+            this.destino = destino;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method metodo, Object[] args) throws Throwable {
+            if (esIdentidad(metodo))
+                return identidad(proxy, metodo, args);
+            Object resultado = invocar(destino, metodo, args);
+            if (resultado instanceof Statement sentencia) {
+                String sql = (args != null && args.length > 0 && args[0] instanceof String texto) ? texto : null;
+                Class<?> tipo = (sentencia instanceof CallableStatement) ? CallableStatement.class
+                        : (sentencia instanceof PreparedStatement) ? PreparedStatement.class : Statement.class;
+                return Proxy.newProxyInstance(RegistroSqlMuestreado.class.getClassLoader(),
+                        new Class<?>[] {tipo}, new SentenciaRegistrada(sentencia, sql));
+            }
+            return resultado;
+        }
+    }
+
+    /**
+     * Mide cada ejecución de una sentencia. Las consultas se registran al cerrar
+     * su ResultSet (o la sentencia), sumando el tiempo pasado dentro de next().
+     * Tras execute() el resultado se lee aparte: el ResultSet de getResultSet()
+     * se instrumenta igual y getUpdateCount() aporta las filas modificadas.
+     */
+    private class SentenciaRegistrada implements InvocationHandler {
+
+        private final Statement destino;
+        private final String sqlPreparado;
+        private int parametros;
+
+        private String sqlConsulta;    // Consulta con ResultSet abierto, pendiente de registrar
+        private long nanosConsulta;
+        private long filasConsulta;
+
+        SentenciaRegistrada(Statement destino, String sqlPreparado) {
+            this.destino = destino;
+            this.sqlPreparado = sqlPreparado;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method metodo, Object[] args) throws Throwable {
+            if (esIdentidad(metodo))
+                return identidad(proxy, metodo, args);
+            String nombre = metodo.getName();
+            if (nombre.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer indice) {
+                parametros = Math.max(parametros, indice);  // setString(1, ...), setLong(2, ...), ...
+                return invocar(destino, metodo, args);
+            }
+            if (nombre.equals("close"))
+                cerrarConsulta();
+            if (nombre.equals("getResultSet") && sqlConsulta != null) {
+                Object filas = invocar(destino, metodo, args);
+                return (filas instanceof ResultSet resultado) ? instrumentar(resultado) : filas;
+            }
+            if (nombre.equals("getUpdateCount") && sqlConsulta != null) {
+                Object afectadas = invocar(destino, metodo, args);
+                if (afectadas instanceof Integer n && n > 0)
+                    filasConsulta += n;
+                return afectadas;
+            }
+            if (!nombre.startsWith("execute"))
+                return invocar(destino, metodo, args);
+
+            cerrarConsulta();   // Una nueva ejecución cierra el ResultSet anterior
+            String sql = (args != null && args.length > 0 && args[0] instanceof String texto) ? texto : sqlPreparado;
+            long inicio = System.nanoTime();
+            Object resultado = invocar(destino, metodo, args);
+            long nanos = System.nanoTime() - inicio;
+            if (resultado instanceof ResultSet || resultado instanceof Boolean) {  // executeQuery() o execute()
+                sqlConsulta = sql;
+                nanosConsulta = nanos;
+                filasConsulta = 0;
+                return (resultado instanceof ResultSet filas) ? instrumentar(filas) : resultado;
+            }
+            long afectadas = 0;
+            if (resultado instanceof Integer n)
+                afectadas = n;
+            else if (resultado instanceof Long n)
+                afectadas = n;
+            else if (resultado instanceof int[] lote)
+                for (int n : lote)
+                    afectadas += Math.max(n, 0);
+            registrar(sql, parametros, afectadas, nanos);
+            parametros = 0;
+            return resultado;
+        }
+
+        private ResultSet instrumentar(ResultSet filas) {
+            return (ResultSet) Proxy.newProxyInstance(RegistroSqlMuestreado.class.getClassLoader(),
+                    new Class<?>[] {ResultSet.class}, new ResultadoRegistrado(filas, this));
+        }
+
+        private void cerrarConsulta() {
+            if (sqlConsulta == null)
+                return;
+            registrar(sqlConsulta, parametros, filasConsulta, nanosConsulta);
+            sqlConsulta = null;
+            parametros = 0;
+        }
+    }
+
+    /**
+     * Cuenta las filas leídas y el tiempo pasado en next(), que con cursores
+     * incluye las idas y vueltas a la base de datos.
+     */
+    private static class ResultadoRegistrado implements InvocationHandler {
+
+        private final ResultSet destino;
+        private final SentenciaRegistrada sentencia;
+
+        ResultadoRegistrado(ResultSet destino, SentenciaRegistrada sentencia) {
+            this.destino = destino;
+            this.sentencia = sentencia;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method metodo, Object[] args) throws Throwable {
+            switch (metodo.getName()) {
+                case "next": {
+                    long inicio = System.nanoTime();
+                    Object hay = invocar(destino, metodo, args);
+                    sentencia.nanosConsulta += System.nanoTime() - inicio;
+                    if (Boolean.TRUE.equals(hay))
+                        sentencia.filasConsulta++;
+                    return hay;
+                }
+                case "close":
+                    sentencia.cerrarConsulta();
+                    return invocar(destino, metodo, args);
+                default:
+                    return invocar(destino, metodo, args);
+            }
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package dev.labintec.tramite.configuracion;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Registra el aspecto que mide los métodos anotados con @Timed.
+ * Las clases de servicio llevan @Timed a nivel de clase, por lo que cada
+ * método público obtiene su propio histograma de latencia (etiquetas class y method).
+ * Los tiempos de repositorio (spring.data.repository.invocations) y de espera
+ * del pool Hikari (hikaricp.connections.acquire) los registra Spring Boot.
+ * @author Quique
+ */
+@Configuration
+public class Metricas {
+
+    /**
+     * @param registro registro de métricas provisto por actuator.
+     * @return aspecto que envuelve los métodos @Timed en un Timer.
+     */
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry registro) {
+        return new TimedAspect(registro);
+    }
+}
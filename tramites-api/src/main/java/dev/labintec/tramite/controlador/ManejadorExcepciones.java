@@ -1,11 +1,19 @@
 package dev.labintec.tramite.controlador;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
 import jakarta.servlet.http.HttpServletRequest;
 import java.time.LocalDateTime;
-import java.util.HashMap;
-import java.util.Map;
+import dev.labintec.tramite.dto.ErrorDTO;
 import dev.labintec.tramite.excepcion.RecursoDuplicadoException;
 import dev.labintec.tramite.excepcion.RecursoNoEncontradoException;
+import dev.labintec.tramite.excepcion.RestriccionUnica;
+import dev.labintec.tramite.excepcion.ServicioNoDisponibleException;
+import dev.labintec.tramite.excepcion.SolicitudInvalidaException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -18,11 +26,33 @@ import org.springframework.web.bind.annotation.RestControllerAdvice;
  * Excepciones gestionadas:
  *  - RecursoNoEncontradoException → HTTP 404 Not Found
  *  - RecursoDuplicadoException    → HTTP 409 Conflict
+ *  - DataIntegrityViolationException → HTTP 409 Conflict si viola el índice único,
+ *    HTTP 400 Bad Request si viola otra restricción
+ *  - SolicitudInvalidaException   → HTTP 400 Bad Request
+ *  - ServicioNoDisponibleException → HTTP 503 Service Unavailable (con Retry-After)
+ * Los 404 y 409 se cuentan en el contador tramites.errores (etiquetas status y excepcion).
  * @author Quique
  */
 @RestControllerAdvice // Intercepta excepciones en todos los @RestController
 public class ManejadorExcepciones {
-    
+
+    @Autowired // Registro de métricas provisto por actuator
+    private MeterRegistry registro;
+
+    private Counter noEncontrados;
+    private Counter duplicados;
+    private Counter violacionesIntegridad;
+
+    /**
+     * Registra los contadores una sola vez, para que cada error solo haga un incremento.
+     */
+    @PostConstruct
+    public void registrarContadores() {
+        noEncontrados = contador(HttpStatus.NOT_FOUND, RecursoNoEncontradoException.class);
+        duplicados = contador(HttpStatus.CONFLICT, RecursoDuplicadoException.class);
+        violacionesIntegridad = contador(HttpStatus.CONFLICT, DataIntegrityViolationException.class);
+    }
+
     /**
      * Construye la respuesta para ausencia de recurso.
      * @param e excepción que indica que el recurso no existe.
@@ -30,13 +60,10 @@ public class ManejadorExcepciones {
      * @return ResponseEntity con cuerpo de error y estado 404.
      */
     @ExceptionHandler(RecursoNoEncontradoException.class)
-    public ResponseEntity<Map<String, Object>> maanejarRecursoNoEncontrado(RecursoNoEncontradoException e, HttpServletRequest request) {
-        Map<String, Object> error = new HashMap();
-        error.put("timestamp", LocalDateTime.now());            // Hora del incidente
-        error.put("status", HttpStatus.NOT_FOUND.value());      // Código HTTP 404
-        error.put("error", "Recurso no encontrado");            // Descripción breve
-        error.put("message", e.getMessage());                   // Detalle enviado por la excepción
-        error.put("path", request.getRequestURI());             // Ruta invocada por el cliente
+    public ResponseEntity<ErrorDTO> maanejarRecursoNoEncontrado(RecursoNoEncontradoException e, HttpServletRequest request) {
+        noEncontrados.increment();
+        ErrorDTO error = new ErrorDTO(LocalDateTime.now(), HttpStatus.NOT_FOUND.value(),
+                "Recurso no encontrado", e.getMessage(), request.getRequestURI());
         return new ResponseEntity<>(error, HttpStatus.NOT_FOUND);
     }
 
@@ -47,13 +74,67 @@ public class ManejadorExcepciones {
      * @return ResponseEntity con cuerpo de error y estado 409
      */
     @ExceptionHandler(RecursoDuplicadoException.class)
-    public ResponseEntity<Map<String, Object>> maanejarRecursoDuplicado(RecursoDuplicadoException e, HttpServletRequest request) {
-        Map<String, Object> error = new HashMap();
-        error.put("timestamp", LocalDateTime.now());            // Hora del incidente
-        error.put("status", HttpStatus.CONFLICT.value());       // Código HTTP 409
-        error.put("error", "Recurso duplicado");                // Descripción breve
-        error.put("message", e.getMessage());                   // Detalle enviado por la excepción
-        error.put("path", request.getRequestURI());             // Ruta invocada por el cliente
+    public ResponseEntity<ErrorDTO> maanejarRecursoDuplicado(RecursoDuplicadoException e, HttpServletRequest request) {
+        duplicados.increment();
+        ErrorDTO error = new ErrorDTO(LocalDateTime.now(), HttpStatus.CONFLICT.value(),
+                "Recurso duplicado", e.getMessage(), request.getRequestURI());
+        return new ResponseEntity<>(error, HttpStatus.CONFLICT);
+    }
+
+    /**
+     * Traduce una violación del índice único no capturada por el servicio (por
+     * ejemplo, en un lote) al mismo contrato 409. Cualquier otra restricción
+     * (NOT NULL, largo de columna) la incumplen los datos enviados: 400.
+     * @param e excepción de integridad lanzada por la capa de datos
+     * @param request objeto que aporta la URI de la petición
+     * @return ResponseEntity con cuerpo de error y estado 409 o 400
+     */
+    @ExceptionHandler(DataIntegrityViolationException.class)
+    public ResponseEntity<ErrorDTO> manejarViolacionIntegridad(DataIntegrityViolationException e, HttpServletRequest request) {
+        if (!RestriccionUnica.violada(e, RestriccionUnica.TYPE)) {
+            ErrorDTO error = new ErrorDTO(LocalDateTime.now(), HttpStatus.BAD_REQUEST.value(),
+                    "Solicitud inválida", "Los datos no cumplen una restricción de la base de datos.", request.getRequestURI());
+            return new ResponseEntity<>(error, HttpStatus.BAD_REQUEST);
+        }
+        violacionesIntegridad.increment();
+        ErrorDTO error = new ErrorDTO(LocalDateTime.now(), HttpStatus.CONFLICT.value(),
+                "Recurso duplicado", "El recurso ya existe.", request.getRequestURI());
         return new ResponseEntity<>(error, HttpStatus.CONFLICT);
     }
+
+    /**
+     * Construye la respuesta para parámetros de petición inválidos.
+     * @param e excepción que indica el parámetro rechazado
+     * @param request objeto que aporta la URI de la petición
+     * @return ResponseEntity con cuerpo de error y estado 400
+     */
+    @ExceptionHandler(SolicitudInvalidaException.class)
+    public ResponseEntity<ErrorDTO> manejarSolicitudInvalida(SolicitudInvalidaException e, HttpServletRequest request) {
+        ErrorDTO error = new ErrorDTO(LocalDateTime.now(), HttpStatus.BAD_REQUEST.value(),
+                "Solicitud inválida", e.getMessage(), request.getRequestURI());
+        return new ResponseEntity<>(error, HttpStatus.BAD_REQUEST);
+    }
+
+    /**
+     * Construye la respuesta cuando usuarios-api no está disponible.
+     * @param e excepción que indica el servicio que falló
+     * @param request objeto que aporta la URI de la petición
+     * @return ResponseEntity con cuerpo de error, cabecera Retry-After y estado 503
+     */
+    @ExceptionHandler(ServicioNoDisponibleException.class)
+    public ResponseEntity<ErrorDTO> manejarServicioNoDisponible(ServicioNoDisponibleException e, HttpServletRequest request) {
+        ErrorDTO error = new ErrorDTO(LocalDateTime.now(), HttpStatus.SERVICE_UNAVAILABLE.value(),
+                "Servicio no disponible", e.getMessage(), request.getRequestURI());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")                   // Segundos sugeridos antes de reintentar
+                .body(error);
+    }
+
+    private Counter contador(HttpStatus estado, Class<? extends Exception> excepcion) {
+        return Counter.builder("tramites.errores")
+                .description("Respuestas de error emitidas por ManejadorExcepciones")
+                .tag("status", String.valueOf(estado.value()))
+                .tag("excepcion", excepcion.getSimpleName())
+                .register(registro);
+    }
 }
\ No newline at end of file
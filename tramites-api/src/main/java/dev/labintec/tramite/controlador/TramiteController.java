@@ -1,24 +1,51 @@
 package dev.labintec.tramite.controlador;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.labintec.tramite.dto.BorradoMasivoDTO;
+import dev.labintec.tramite.dto.CambioStatusMasivoDTO;
+import dev.labintec.tramite.dto.CursorTramite;
+import dev.labintec.tramite.dto.EstadisticasTramitesDTO;
+import dev.labintec.tramite.dto.PaginaTramitesDTO;
+import dev.labintec.tramite.dto.ResultadoBorradoDTO;
+import dev.labintec.tramite.dto.ResultadoMasivoDTO;
+import dev.labintec.tramite.dto.TramiteConUsuarioDTO;
 import dev.labintec.tramite.dto.TramiteMapper;
 import dev.labintec.tramite.dto.TramiteRequestDTO;
 import dev.labintec.tramite.dto.TramiteResponseDTO;
+import dev.labintec.tramite.dto.TramitesUsuarioDTO;
 import dev.labintec.tramite.entidad.Tramite;
+import dev.labintec.tramite.excepcion.SolicitudInvalidaException;
+import dev.labintec.tramite.servicio.CatalogoTramites;
+import dev.labintec.tramite.servicio.EscrituraDiferida;
+import dev.labintec.tramite.servicio.EstadisticasTramites;
+import dev.labintec.tramite.servicio.EventosTramites;
+import dev.labintec.tramite.servicio.InstantaneaCatalogo;
 import dev.labintec.tramite.servicio.TramiteService;
 import jakarta.validation.Valid;
-import java.util.ArrayList;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
+import java.util.Set;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 /**
  * Controlador REST para la gestión de trámites.
@@ -27,33 +54,129 @@ import org.springframework.web.bind.annotation.RestController;
  * entre la API y la lógica de negocio.
  * 
  * Endpoints:
- *  - GET /api/v1/tramites                 → lista todos los trámites
+ *  - GET /api/v1/tramites                 → lista todos los trámites (ETag / 304)
+ *  - GET /api/v1/tramites/export          → exporta todos los trámites en NDJSON (streaming)
+ *  - GET /api/v1/tramites/stream?type=    → eventos de altas, cambios de estado y bajas (SSE, Last-Event-ID)
+ *  - GET /api/v1/tramites/stats           → cantidad total, de activos y de inactivos (en memoria)
  *  - GET /api/v1/tramites/{id}            → obtiene trámite por ID
- *  - GET /api/v1/tramites/type/{type}     → obtiene trámite por type
+ *  - GET /api/v1/tramites/type/{type}     → obtiene trámite por type (ETag / 304)
+ *  - GET /api/v1/tramites/usuario/{idUser} → lista los trámites de un usuario con su username
+ *  - GET /api/v1/tramites/con-usuario?limit=&after= → página de trámites con el username de cada dueño
  *  - POST /api/v1/tramites                → crea un nuevo trámite
- *  - PUT /api/v1/tramites/{id}            → actualiza un trámite existente
+ *  - PUT /api/v1/tramites/{id}            → actualiza un trámite existente (202 con escritura diferida)
+ *  - PUT /api/v1/tramites/status          → cambia el estado de muchos trámites a la vez
  *  - DELETE /api/v1/tramites/{id}         → elimina un trámite por ID
+ *  - DELETE /api/v1/tramites              → elimina muchos trámites por types o por estado
  * @author Quique
  */
 @RestController
 @RequestMapping("api/v1/tramites")
 public class TramiteController {
 
+    /**
+     * Cantidad de filas escritas entre cada vaciado del buffer de salida.
+     */
+    private static final int FILAS_POR_FLUSH = 500;
+
     @Autowired
     private TramiteService servicio;
 
+    @Value("${tramites.lote.tamano-maximo:5000}")
+    private int loteMaximo;
+
+    @Value("${tramites.paginacion.limite-defecto:50}")
+    private int limiteDefecto;
+
+    @Value("${tramites.paginacion.limite-maximo:500}")
+    private int limiteMaximo;
+
+    @Autowired
+    private ObjectMapper mapper;
+
+    @Autowired
+    private CatalogoTramites catalogo;
+
+    @Autowired
+    private EscrituraDiferida diferida;
+
+    @Autowired
+    private EventosTramites eventos;
+
+    @Autowired
+    private EstadisticasTramites estadisticas;
+
     /**
-     * Lista todos los trámites registrados.
-     * @return colección de TramiteResponseDTO.
+     * Lista todos los trámites registrados desde la instantánea en memoria.
+     * El JSON se serializa una vez por versión del catálogo y se responde
+     * 304 si el cliente ya tiene la versión vigente (If-None-Match).
+     * @param request petición que aporta las cabeceras condicionales.
+     * @return JSON con la colección de TramiteResponseDTO o 304 sin cuerpo.
      */
     @GetMapping
+    public ResponseEntity<byte[]> listarTramites(WebRequest request) {
+        InstantaneaCatalogo instantanea = catalogo.obtener();
+        if (request.checkNotModified(instantanea.getEtag()))
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(instantanea.getEtag()).build();
+        return ResponseEntity.ok()
+                .eTag(instantanea.getEtag())
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(instantanea.getListaJson());
+    }
+
+    /**
+     * Exporta todos los trámites como NDJSON (un objeto JSON por línea).
+     * Las filas se leen con un cursor, proyectadas a DTO, y se escriben al
+     * socket a medida que llegan, de modo que la memoria se mantiene constante y el primer
+     * byte sale antes de que termine la consulta.
+     * @return cuerpo en streaming con un TramiteResponseDTO por línea.
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportarTramites() {
+        StreamingResponseBody cuerpo = salida -> {
+            try (JsonGenerator generador = mapper.getFactory().createGenerator(salida)) {
+                int[] escritas = {0};
+                servicio.recorrerTodos(tramite -> {
+                    try {
+                        generador.writeObject(tramite);
+                        generador.writeRaw('\n');
+                        if (++escritas[0] == 1 || escritas[0] % FILAS_POR_FLUSH == 0)
+                            generador.flush(); // Envía el primer registro cuanto antes y luego por bloques
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(cuerpo);
+    }
+
+    /**
+     * Abre un flujo Server-Sent Events con las altas ("alta"), cambios de estado
+     * ("status") y bajas ("baja") de trámites, en lugar de consultar el listado
+     * periódicamente. Al reconectarse, el navegador envía Last-Event-ID y recibe
+     * lo que se perdió; si ya no está en el historial, o el id es de una ejecución
+     * anterior del servicio, recibe "reinicio" y debe releer GET /api/v1/tramites.
+     * @param types types de interés (parámetro type repetible); sin él, todos.
+     * @param ultimoId id del último evento recibido.
+     * @return emisor SSE con un TramiteResponseDTO por evento.
+     */
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream(@RequestParam(name = "type", required = false) Set<String> types,
+                             @RequestHeader(name = "Last-Event-ID", required = false) String ultimoId) {
+        return eventos.suscribir(types, ultimoId);
+    }
+
+    /**
+     * Informa cuántos trámites hay en total, activos e inactivos, desde
+     * contadores en memoria: no consulta la base de datos ni recorre el listado.
+     * @return EstadisticasTramitesDTO con las tres cantidades.
+     */
+    @GetMapping("/stats")
     @ResponseStatus(HttpStatus.OK)
-    public List<TramiteResponseDTO> listarTramites() {
-        List<Tramite> tramites = servicio.listarTodos();
-        List<TramiteResponseDTO> rdto = new ArrayList<>();
-        for (Tramite tramite : tramites)
-            rdto.add(TramiteMapper.toDTO(tramite));
-        return rdto;
+    public EstadisticasTramitesDTO estadisticas() {
+        return estadisticas.obtener();
     }
 
     /**
@@ -64,20 +187,65 @@ public class TramiteController {
     @GetMapping("/{id}")
     @ResponseStatus(HttpStatus.OK)
     public TramiteResponseDTO obtenerPorId(@PathVariable Long id) {
-        Tramite tramite = servicio.obtenerPorId(id);
-        return TramiteMapper.toDTO(tramite);
+        return servicio.obtenerPorId(id);
     }
 
     /**
-     * Recupera un trámite por su type único.
+     * Recupera un trámite por su type único desde la instantánea en memoria.
+     * Si el type no figura en la instantánea se consulta la base de datos,
+     * por si fue creado en otra instancia.
      * @param type cadena que identifica al trámite.
-     * @return TramiteResponseDTO asociado al type.
+     * @param request petición que aporta las cabeceras condicionales.
+     * @return JSON del TramiteResponseDTO asociado al type o 304 sin cuerpo.
      */
     @GetMapping("/type/{type}")
+    public ResponseEntity<?> obtenerPorType(@PathVariable String type, WebRequest request) {
+        InstantaneaCatalogo instantanea = catalogo.obtener();
+        byte[] json = instantanea.getJsonPorType().get(type);
+        if (json == null) {
+            return ResponseEntity.ok(servicio.obtenerPorType(type)); // Proyección o 404
+        }
+        if (request.checkNotModified(instantanea.getEtag()))
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(instantanea.getEtag()).build();
+        return ResponseEntity.ok()
+                .eTag(instantanea.getEtag())
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(json);
+    }
+
+    /**
+     * Lista los trámites de un usuario junto con su nombre de usuario,
+     * resuelto en usuarios-api a través de ClienteUsuarios.
+     * @param idUser identificador del usuario.
+     * @return TramitesUsuarioDTO con el username y los trámites.
+     */
+    @GetMapping("/usuario/{idUser}")
     @ResponseStatus(HttpStatus.OK)
-    public TramiteResponseDTO obtenerPorType(@PathVariable String type) {
-        Tramite tramite = servicio.obtenerPorType(type);
-        return TramiteMapper.toDTO(tramite);
+    public TramitesUsuarioDTO listarPorUsuario(@PathVariable Long idUser) {
+        return servicio.listarPorUsuario(idUser);
+    }
+
+    /**
+     * Lista trámites paginando por cursor sobre id_transaction, cada uno con
+     * el username de su dueño. Los usuarios de toda la página se resuelven
+     * con una sola llamada a usuarios-api.
+     * @param limit cantidad máxima de trámites por página.
+     * @param after cursor opaco devuelto en la página anterior.
+     * @return página con TramiteConUsuarioDTO y el cursor siguiente.
+     */
+    @GetMapping("/con-usuario")
+    @ResponseStatus(HttpStatus.OK)
+    public PaginaTramitesDTO listarConUsuario(@RequestParam(required = false) Integer limit,
+                                             @RequestParam(required = false) String after) {
+        int limite = (limit == null) ? limiteDefecto : limit;
+        if (limite < 1 || limite > limiteMaximo)
+            throw new SolicitudInvalidaException("Limit = " + limite + ", debe estar entre 1 y " + limiteMaximo + ".");
+        // Pide una fila extra para saber si existe una página siguiente
+        List<TramiteConUsuarioDTO> tramites = servicio.listarPaginaConUsuario(CursorTramite.decodificar(after), limite + 1);
+        if (tramites.size() <= limite)
+            return new PaginaTramitesDTO(tramites, null);
+        List<TramiteConUsuarioDTO> pagina = tramites.subList(0, limite);
+        return new PaginaTramitesDTO(pagina, CursorTramite.codificar(pagina.get(limite - 1).getIdTransaction()));
     }
 
     /**
@@ -95,15 +263,34 @@ public class TramiteController {
 
     /**
      * Actualiza un trámite existente identificado por type.
+     * Con la escritura diferida habilitada el cambio se acepta en memoria y se
+     * responde 202: se escribe en la base de datos en el próximo volcado.
      * @param type tipo único del trámite a modificar.
      * @param dto datos nuevos en TramiteRequestDTO.
-     * @return TramiteResponseDTO con los cambios aplicados.
+     * @return TramiteResponseDTO con los cambios aplicados (200) o aceptados (202).
      */
     @PutMapping("/{type}")
+    public ResponseEntity<TramiteResponseDTO> actualizarStatus(@PathVariable String type, @Valid @RequestBody TramiteRequestDTO dto) {
+        if (diferida.isHabilitada()) {
+            TramiteResponseDTO aceptado = servicio.aceptarStatus(type, dto.getStatus());
+            if (aceptado != null)
+                return ResponseEntity.accepted().body(aceptado);
+        }
+        Tramite actualizado = servicio.actualizarStatus(type, TramiteMapper.toTramite(dto)); // Sin buffer o buffer lleno
+        return ResponseEntity.ok(TramiteMapper.toDTO(actualizado));
+    }
+
+    /**
+     * Cambia el estado de muchos trámites con una sola sentencia UPDATE,
+     * seleccionándolos por lista de types o por su estado actual.
+     * @param dto criterio de selección y nuevo estado.
+     * @return ResultadoMasivoDTO con la cantidad de trámites modificados.
+     */
+    @PutMapping("/status")
     @ResponseStatus(HttpStatus.OK)
-    public TramiteResponseDTO actualizarStatus(@PathVariable String type, @Valid @RequestBody TramiteRequestDTO dto) {
-        Tramite actualizado = servicio.actualizarStatus(type, TramiteMapper.toTramite(dto));
-        return TramiteMapper.toDTO(actualizado);
+    public ResultadoMasivoDTO actualizarStatusMasivo(@Valid @RequestBody CambioStatusMasivoDTO dto) {
+        int filas = servicio.actualizarStatusMasivo(dto.getTypes(), dto.getStatusActual(), dto.getStatus());
+        return new ResultadoMasivoDTO(filas);
     }
 
     /**
@@ -115,4 +302,19 @@ public class TramiteController {
     public void eliminarTramite(@PathVariable String type) {
         servicio.eleminarTramite(type);
     }
+
+    /**
+     * Elimina muchos trámites con un borrado por conjuntos, seleccionándolos
+     * por lista de types o por su estado. Los types inexistentes no abortan
+     * la operación: se informan aparte.
+     * @param dto criterio de selección.
+     * @return ResultadoBorradoDTO con los types eliminados e inexistentes.
+     */
+    @DeleteMapping
+    @ResponseStatus(HttpStatus.OK)
+    public ResultadoBorradoDTO eliminarTramites(@Valid @RequestBody BorradoMasivoDTO dto) {
+        if (dto.getTypes() != null && dto.getTypes().size() > loteMaximo)
+            throw new SolicitudInvalidaException("El lote debe tener a lo sumo " + loteMaximo + " trámites.");
+        return servicio.eliminarMasivo(dto.getTypes(), dto.getStatus());
+    }
 }
\ No newline at end of file
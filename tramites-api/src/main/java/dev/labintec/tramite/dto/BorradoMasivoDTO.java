@@ -0,0 +1,29 @@
+package dev.labintec.tramite.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Datos recibidos para eliminar muchos trámites en una sola sentencia.
+ * Se indica la lista de types a borrar o, en su lugar, el estado que
+ * deben tener los trámites afectados.
+ * @author Quique
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BorradoMasivoDTO {
+
+    /**
+     * Tipos de trámite a eliminar; si se envía, se ignora el filtro por estado.
+     */
+    private List<@NotBlank String> types;
+
+    /**
+     * Filtro por estado: elimina todos los trámites con este estado.
+     */
+    private Boolean status;
+}
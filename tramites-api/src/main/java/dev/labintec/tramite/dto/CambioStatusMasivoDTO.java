@@ -0,0 +1,35 @@
+package dev.labintec.tramite.dto;
+
+import jakarta.validation.constraints.NotNull;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Datos recibidos para cambiar el estado de muchos trámites en una sola sentencia.
+ * Se indica la lista de types a modificar o, en su lugar, el estado actual
+ * que deben tener los trámites afectados.
+ * @author Quique
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CambioStatusMasivoDTO {
+
+    /**
+     * Tipos de trámite a modificar; si se envía, se ignora el filtro por estado.
+     */
+    private List<String> types;
+
+    /**
+     * Filtro por estado actual: modifica todos los trámites con este estado.
+     */
+    private Boolean statusActual;
+
+    /**
+     * Estado a asignar a los trámites seleccionados.
+     */
+    @NotNull(message = "El estado del trámite es obligatorio")
+    private Boolean status;
+}
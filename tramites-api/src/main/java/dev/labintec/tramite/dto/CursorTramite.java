@@ -0,0 +1,45 @@
+package dev.labintec.tramite.dto;
+
+import dev.labintec.tramite.excepcion.SolicitudInvalidaException;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Codifica y decodifica el cursor opaco usado en la paginación de trámites.
+ * El cursor transporta el último id_transaction entregado, en Base64 URL-safe,
+ * para que el cliente no dependa de su formato interno.
+ * @author Quique
+ */
+public class CursorTramite {
+
+    private static final String PREFIJO = "t:";
+
+    /**
+     * Genera el cursor que apunta a continuación del trámite indicado.
+     * @param idTransaction último identificador incluido en la página
+     * @return cursor opaco listo para devolver al cliente
+     */
+    public static String codificar(Long idTransaction) {
+        byte[] datos = (PREFIJO + idTransaction).getBytes(StandardCharsets.UTF_8);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(datos);
+    }
+
+    /**
+     * Recupera el identificador contenido en un cursor.
+     * @param cursor valor recibido en el parámetro "after"
+     * @return último id_transaction entregado, o 0 si no se envió cursor
+     * @throws SolicitudInvalidaException si el cursor está mal formado
+     */
+    public static long decodificar(String cursor) {
+        if (cursor == null || cursor.isBlank())
+            return 0L;
+        try {
+            String texto = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (!texto.startsWith(PREFIJO))
+                throw new SolicitudInvalidaException("Cursor = " + cursor + ", no es válido.");
+            return Long.parseLong(texto.substring(PREFIJO.length()));
+        } catch (IllegalArgumentException e) { // Incluye NumberFormatException
+            throw new SolicitudInvalidaException("Cursor = " + cursor + ", no es válido.");
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package dev.labintec.tramite.dto;
+
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import java.time.LocalDateTime;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Cuerpo de las respuestas de error de la API.
+ * Reemplaza al Map genérico con los mismos campos, en orden fijo,
+ * para que la serialización sea directa y sin tablas hash intermedias.
+ * @author Quique
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonPropertyOrder({"timestamp", "status", "error", "message", "path"})
+public class ErrorDTO {
+
+    /**
+     * Hora del incidente.
+     */
+    private LocalDateTime timestamp;
+
+    /**
+     * Código HTTP de la respuesta.
+     */
+    private int status;
+
+    /**
+     * Descripción breve del error.
+     */
+    private String error;
+
+    /**
+     * Detalle enviado por la excepción.
+     */
+    private String message;
+
+    /**
+     * Ruta invocada por el cliente.
+     */
+    private String path;
+}
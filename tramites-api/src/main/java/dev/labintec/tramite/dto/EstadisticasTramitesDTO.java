@@ -0,0 +1,30 @@
+package dev.labintec.tramite.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Cantidad de trámites por estado devuelta en la respuesta de la API.
+ * @author Quique
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EstadisticasTramitesDTO {
+
+    /**
+     * Cantidad total de trámites.
+     */
+    private Long total;
+
+    /**
+     * Trámites con status = true.
+     */
+    private Long activos;
+
+    /**
+     * Trámites con status = false o sin estado.
+     */
+    private Long inactivos;
+}
@@ -0,0 +1,28 @@
+package dev.labintec.tramite.dto;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Página de trámites con su usuario dueño, paginada por cursor.
+ * Contiene los trámites de la página y el cursor opaco para pedir la siguiente.
+ * @author Quique
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaginaTramitesDTO {
+
+    /**
+     * Trámites de la página, ordenados por identificador ascendente.
+     */
+    private List<TramiteConUsuarioDTO> items;
+
+    /**
+     * Cursor a enviar en el parámetro "after" para obtener la siguiente página,
+     * o null si no quedan más trámites.
+     */
+    private String nextCursor;
+}
@@ -0,0 +1,27 @@
+package dev.labintec.tramite.dto;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Resultado de un borrado masivo de trámites.
+ * Informa qué types fueron eliminados y cuáles no existían.
+ * @author Quique
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResultadoBorradoDTO {
+
+    /**
+     * Types eliminados.
+     */
+    private List<String> eliminados;
+
+    /**
+     * Types pedidos que no existían (vacío al filtrar por estado).
+     */
+    private List<String> inexistentes;
+}
@@ -0,0 +1,20 @@
+package dev.labintec.tramite.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Resultado de una operación masiva sobre trámites.
+ * @author Quique
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResultadoMasivoDTO {
+
+    /**
+     * Cantidad de filas afectadas por la sentencia.
+     */
+    private int actualizados;
+}
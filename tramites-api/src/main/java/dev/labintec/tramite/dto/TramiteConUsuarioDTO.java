@@ -0,0 +1,40 @@
+package dev.labintec.tramite.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Trámite acompañado del nombre de su usuario dueño.
+ * @author Quique
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TramiteConUsuarioDTO {
+
+    /**
+     * Identificador asignado en la base de datos.
+     */
+    private Long idTransaction;
+
+    /**
+     * Tipo único que identifica al trámite.
+     */
+    private String type;
+
+    /**
+     * Estado del trámite.
+     */
+    private Boolean status;
+
+    /**
+     * Identificador del usuario dueño, o null si no tiene.
+     */
+    private Long idUser;
+
+    /**
+     * Nombre del usuario dueño, o null si no tiene o ya no existe en usuarios-api.
+     */
+    private String username;
+}
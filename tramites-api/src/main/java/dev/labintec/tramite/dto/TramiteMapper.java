@@ -21,6 +21,7 @@ public class TramiteMapper {
         dto.setIdTransaction(tramite.getIdTransaction());
         dto.setType(tramite.getType());
         dto.setStatus(tramite.getStatus());
+        dto.setIdUser(tramite.getIdUser());
         return dto;
     }
 
@@ -35,6 +36,7 @@ public class TramiteMapper {
         Tramite tramite = new Tramite();
         tramite.setType(dto.getType());
         tramite.setStatus(dto.getStatus());
+        tramite.setIdUser(dto.getIdUser());
         return tramite;
     }
 }
\ No newline at end of file
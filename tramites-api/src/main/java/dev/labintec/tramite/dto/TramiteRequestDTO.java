@@ -8,7 +8,7 @@ import lombok.NoArgsConstructor;
 
 /**
  * Datos recibidos en las peticiones de creación o actualización de trámite.
- * Incluye el tipo y el estado de trámite.
+ * Incluye el tipo y el estado de trámite, y opcionalmente el usuario dueño.
  * @author Quique
  */
 @Data
@@ -27,4 +27,9 @@ public class TramiteRequestDTO {
      */
     @NotNull(message = "El estado del trámite es obligatorio")
     private Boolean status;
+
+    /**
+     * Identificador del usuario dueño en usuarios-api (opcional).
+     */
+    private Long idUser;
 }
\ No newline at end of file
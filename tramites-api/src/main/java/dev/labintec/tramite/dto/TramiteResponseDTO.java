@@ -7,7 +7,7 @@ import lombok.NoArgsConstructor;
 
 /**
  * Datos de tramite devueltos en la respuesta de la API.
- * Contiene el identificador único, el tipo y el estado asociado.
+ * Contiene el identificador único, el tipo, el estado y el usuario dueño.
  * @author Quique
  */
 @Data
@@ -31,4 +31,9 @@ public class TramiteResponseDTO {
      */
     @NotBlank(message = "El estado del trámite es obligatorio")
     private Boolean status;
+
+    /**
+     * Identificador del usuario dueño en usuarios-api, o null si no tiene.
+     */
+    private Long idUser;
 }
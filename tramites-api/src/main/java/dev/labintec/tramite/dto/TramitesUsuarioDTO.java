@@ -0,0 +1,31 @@
+package dev.labintec.tramite.dto;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Vista de los trámites de un usuario junto con su nombre de usuario.
+ * @author Quique
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TramitesUsuarioDTO {
+
+    /**
+     * Identificador del usuario en usuarios-api.
+     */
+    private Long idUser;
+
+    /**
+     * Nombre único del usuario, resuelto en usuarios-api.
+     */
+    private String username;
+
+    /**
+     * Trámites del usuario, ordenados por id_transaction.
+     */
+    private List<TramiteResponseDTO> tramites;
+}
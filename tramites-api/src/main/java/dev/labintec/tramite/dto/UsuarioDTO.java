@@ -0,0 +1,26 @@
+package dev.labintec.tramite.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Datos de usuario recibidos de usuarios-api.
+ * Solo se conservan el identificador y el nombre de usuario.
+ * @author Quique
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UsuarioDTO {
+
+    /**
+     * Identificador del usuario en usuarios-api.
+     */
+    private Long idUser;
+
+    /**
+     * Nombre único del usuario.
+     */
+    private String username;
+}
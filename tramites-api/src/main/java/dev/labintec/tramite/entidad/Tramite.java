@@ -5,7 +5,9 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -14,11 +16,13 @@ import lombok.RequiredArgsConstructor;
 
 /**
  * Entidad JPA que corresponde a la tabla "transaction" en la base de datos.
- * Define el identificador, el tipo de trámite y su estado
+ * Define el identificador, el tipo de trámite, su estado y el usuario dueño
  * @author Quique
  */
 @Entity                    // JPA: marca la clase como entidad para persistencia
-@Table(name = "transaction") // JPA: especifica el nombre de la tabla en la base de datos
+@Table(name = "transaction", // JPA: especifica el nombre de la tabla en la base de datos
+       uniqueConstraints = @UniqueConstraint(name = "uk_transaction_type", columnNames = "type"), // JPA: índice único sobre "type"
+       indexes = @Index(name = "ix_transaction_id_user", columnList = "id_user")) // JPA: índice sobre el usuario dueño
 @Data                      // Lombok: genera getters, setters, equals, hashCode y toString
 @NoArgsConstructor         // Lombok: crea un constructor público sin argumentos
 @AllArgsConstructor        // Lombok: crea un constructor con argumentos para todos los campos
@@ -45,4 +49,10 @@ public class Tramite {
     @NonNull                                        // Lombok: incluye este campo en el constructor requerido
     @Column(name = "status")                        // JPA: mapea a columna "status"
     private Boolean status;
+
+    /**
+     * Identificador del usuario dueño en usuarios-api (opcional).
+     */
+    @Column(name = "id_user")                       // JPA: mapea a columna "id_user"
+    private Long idUser;
 }
\ No newline at end of file
@@ -0,0 +1,22 @@
+package dev.labintec.tramite.excepcion;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Excepción para indicar que un servicio del que depende la petición no respondió.
+ * Esta excepción devuelve HTTP 503 (Service Unavailable) gracias a la anotación.
+ * @author Quique
+ */
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE) // Código 503 automáticamente cuando se lanza esta excepción.
+public class ServicioNoDisponibleException extends RuntimeException {
+
+    /**
+     * Crea la excepción con un mensaje y la causa del fallo.
+     * @param message texto que explica la causa del rechazo.
+     * @param cause error original de la llamada, o null si fue por tiempo.
+     */
+    public ServicioNoDisponibleException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
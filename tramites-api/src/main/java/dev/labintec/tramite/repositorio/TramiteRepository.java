@@ -1,15 +1,193 @@
 package dev.labintec.tramite.repositorio;
 
+import dev.labintec.tramite.dto.EstadisticasTramitesDTO;
+import dev.labintec.tramite.dto.TramiteResponseDTO;
 import dev.labintec.tramite.entidad.Tramite;
+import jakarta.persistence.QueryHint;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 /**
  * Repositorio para la entidad Traminte.
  * Esta interfaz extiende de JpaRepository, lo que le proporciona métodos CRUD
  * básicos, además de la posibilidad de definir consultas personalizadas.
+ * Las lecturas de la API usan proyecciones que seleccionan directamente
+ * TramiteResponseDTO, en transacciones de solo lectura y sin entidades gestionadas.
  * @author Quique
  */
 public interface TramiteRepository extends JpaRepository<Tramite, Long> {
     Optional<Tramite> findByType(String type);
+
+    /**
+     * Cuenta los trámites por estado con una única consulta de agregación.
+     * Los trámites sin estado se cuentan como inactivos.
+     * @return total, activos e inactivos
+     */
+    @Transactional(readOnly = true)
+    @Query("SELECT new dev.labintec.tramite.dto.EstadisticasTramitesDTO(COUNT(t), "
+            + "COALESCE(SUM(CASE WHEN t.status = true THEN 1L ELSE 0L END), 0L), "
+            + "COALESCE(SUM(CASE WHEN t.status = true THEN 0L ELSE 1L END), 0L)) FROM Tramite t")
+    EstadisticasTramitesDTO contarPorStatus();
+
+    /**
+     * Proyección de un trámite por su identificador.
+     * @param idTransaction clave primaria
+     * @return DTO del trámite, o vacío si no existe
+     */
+    @Transactional(readOnly = true)
+    @Query("SELECT new dev.labintec.tramite.dto.TramiteResponseDTO(t.idTransaction, t.type, t.status, t.idUser) FROM Tramite t WHERE t.idTransaction = :idTransaction")
+    Optional<TramiteResponseDTO> buscarDTOPorId(@Param("idTransaction") Long idTransaction);
+
+    /**
+     * Proyección de un trámite por su type.
+     * @param type tipo único
+     * @return DTO del trámite, o vacío si no existe
+     */
+    @Transactional(readOnly = true)
+    @Query("SELECT new dev.labintec.tramite.dto.TramiteResponseDTO(t.idTransaction, t.type, t.status, t.idUser) FROM Tramite t WHERE t.type = :type")
+    Optional<TramiteResponseDTO> buscarDTOPorType(@Param("type") String type);
+
+    /**
+     * Proyección de los trámites cuyos types figuran en la colección.
+     * @param types tipos buscados
+     * @return DTO de los trámites existentes, con el estado escrito en la base de datos
+     */
+    @Transactional(readOnly = true)
+    @Query("SELECT new dev.labintec.tramite.dto.TramiteResponseDTO(t.idTransaction, t.type, t.status, t.idUser) FROM Tramite t WHERE t.type IN :types")
+    List<TramiteResponseDTO> listarDTOPorTypes(@Param("types") Collection<String> types);
+
+    /**
+     * Proyección de todos los trámites, ordenados por id_transaction.
+     * @return DTO de todos los trámites
+     */
+    @Transactional(readOnly = true)
+    @Query("SELECT new dev.labintec.tramite.dto.TramiteResponseDTO(t.idTransaction, t.type, t.status, t.idUser) FROM Tramite t ORDER BY t.idTransaction")
+    List<TramiteResponseDTO> listarDTO();
+
+    /**
+     * Proyección de los trámites de un usuario, ordenados por id_transaction.
+     * Usa el índice ix_transaction_id_user.
+     * @param idUser identificador del usuario dueño
+     * @return DTO de los trámites del usuario
+     */
+    @Transactional(readOnly = true)
+    @Query("SELECT new dev.labintec.tramite.dto.TramiteResponseDTO(t.idTransaction, t.type, t.status, t.idUser) FROM Tramite t WHERE t.idUser = :idUser ORDER BY t.idTransaction")
+    List<TramiteResponseDTO> listarDTOPorUsuario(@Param("idUser") Long idUser);
+
+    /**
+     * Recupera la siguiente página de trámites a partir de un id_transaction (keyset).
+     * @param idTransaction último identificador ya entregado al cliente
+     * @param limite cantidad máxima de filas a devolver
+     * @return DTO de los trámites con id_transaction mayor al indicado, en orden ascendente
+     */
+    @Transactional(readOnly = true)
+    @Query("SELECT new dev.labintec.tramite.dto.TramiteResponseDTO(t.idTransaction, t.type, t.status, t.idUser) FROM Tramite t WHERE t.idTransaction > :idTransaction ORDER BY t.idTransaction")
+    List<TramiteResponseDTO> listarPaginaDTO(@Param("idTransaction") Long idTransaction, Limit limite);
+
+    /**
+     * Recorre todos los trámites con un cursor de solo avance.
+     * El driver trae las filas en bloques de tamaño fijo (useCursorFetch=true
+     * en la URL de conexión), por lo que la memoria no depende del tamaño de la tabla.
+     * Al ser una proyección, las filas no quedan en el contexto de persistencia.
+     * Debe consumirse dentro de una transacción y cerrarse al terminar.
+     * @return stream perezoso de DTO ordenados por id_transaction
+     */
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    @Query("SELECT new dev.labintec.tramite.dto.TramiteResponseDTO(t.idTransaction, t.type, t.status, t.idUser) FROM Tramite t ORDER BY t.idTransaction")
+    Stream<TramiteResponseDTO> streamTodos();
+
+    /**
+     * Cambia el estado de un trámite con un único UPDATE, sin cargar la entidad.
+     * @param type tipo único del trámite
+     * @param status nuevo estado
+     * @return cantidad de filas afectadas (0 si el type no existe)
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE Tramite t SET t.status = :status WHERE t.type = :type")
+    int actualizarStatus(@Param("type") String type, @Param("status") Boolean status);
+
+    /**
+     * Cambia el estado de todos los trámites cuyos types figuran en la colección.
+     * @param types tipos a modificar
+     * @param status nuevo estado
+     * @return cantidad de filas afectadas
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE Tramite t SET t.status = :status WHERE t.type IN :types")
+    int actualizarStatusPorTypes(@Param("types") Collection<String> types, @Param("status") Boolean status);
+
+    /**
+     * Cambia el estado de todos los trámites que tienen un estado dado.
+     * @param statusActual estado que deben tener los trámites afectados
+     * @param status nuevo estado
+     * @return cantidad de filas afectadas
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE Tramite t SET t.status = :status WHERE t.status = :statusActual")
+    int actualizarStatusPorStatus(@Param("statusActual") Boolean statusActual, @Param("status") Boolean status);
+
+    /**
+     * Devuelve cuáles de los types indicados existen y bloquea esas filas
+     * (SELECT ... FOR UPDATE) hasta el final de la transacción.
+     * @param types tipos a verificar
+     * @return subconjunto de types presentes en la tabla transaction
+     */
+    @Query(value = "SELECT type FROM `transaction` WHERE type IN (:types) FOR UPDATE", nativeQuery = true)
+    List<String> bloquearTypesExistentes(@Param("types") Collection<String> types);
+
+    /**
+     * Devuelve los types de los trámites con un estado dado y bloquea esas filas
+     * (SELECT ... FOR UPDATE) hasta el final de la transacción.
+     * @param status estado de los trámites buscados
+     * @return types de los trámites con ese estado
+     */
+    @Query(value = "SELECT type FROM `transaction` WHERE status = :status FOR UPDATE", nativeQuery = true)
+    List<String> bloquearTypesPorStatus(@Param("status") Boolean status);
+
+    /**
+     * Elimina un trámite con un único DELETE, sin cargar la entidad.
+     * @param type tipo único del trámite
+     * @return cantidad de filas afectadas (0 si el type no existe)
+     */
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM Tramite t WHERE t.type = :type")
+    int eliminarPorType(@Param("type") String type);
+
+    /**
+     * Elimina con un único DELETE todos los trámites cuyos types figuran en la colección.
+     * @param types tipos a eliminar
+     * @return cantidad de filas afectadas
+     */
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM Tramite t WHERE t.type IN :types")
+    int eliminarPorTypes(@Param("types") Collection<String> types);
+
+    /**
+     * Elimina con un único DELETE todos los trámites que tienen un estado dado.
+     * @param status estado de los trámites a eliminar
+     * @return cantidad de filas afectadas
+     */
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM Tramite t WHERE t.status = :status")
+    int eliminarPorStatus(@Param("status") Boolean status);
 }
\ No newline at end of file
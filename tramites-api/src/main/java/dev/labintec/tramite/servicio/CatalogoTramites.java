@@ -0,0 +1,132 @@
+package dev.labintec.tramite.servicio;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.labintec.tramite.dto.TramiteResponseDTO;
+import dev.labintec.tramite.repositorio.TramiteRepository;
+import java.util.List;
+import java.util.Set;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Mantiene en memoria una instantánea inmutable y versionada del catálogo de trámites.
+ * Las lecturas obtienen la instantánea vigente sin bloqueos (referencia volatile);
+ * cada escritura de TramiteService publica una nueva con versión mayor, aplicando
+ * el cambio sobre la instantánea anterior sin volver a consultar la base de datos
+ * y serializando solo el trámite afectado.
+ * Un refresco periódico incorpora cambios hechos por otras instancias, sin pisar
+ * los cambios de estado de esta instancia que aún esperan su escritura diferida.
+ * @author Quique
+ */
+@Component
+public class CatalogoTramites {
+
+    @Autowired
+    private TramiteRepository repositorio;
+
+    @Autowired
+    private ObjectMapper mapper;
+
+    @Autowired // Cambios de estado aceptados y aún no volcados a la base de datos
+    private EscrituraDiferida diferida;
+
+    private volatile InstantaneaCatalogo actual;
+
+    /**
+     * Devuelve la instantánea vigente, cargándola la primera vez.
+     * @return instantánea inmutable del catálogo.
+     */
+    public InstantaneaCatalogo obtener() {
+        InstantaneaCatalogo instantanea = actual;
+        return (instantanea != null) ? instantanea : recargar();
+    }
+
+    /**
+     * Busca un trámite en la instantánea vigente, sin consultar la base de datos.
+     * @param type tipo único del trámite.
+     * @return el trámite publicado, o null si no figura en la instantánea.
+     */
+    public TramiteResponseDTO buscarPublicado(String type) {
+        return obtener().buscar(type);
+    }
+
+    /**
+     * Relee el catálogo de la base de datos y publica una nueva versión.
+     * Se invoca tras cada escritura en TramiteService.
+     * @return la nueva instantánea publicada.
+     */
+    public synchronized InstantaneaCatalogo recargar() {
+        List<TramiteResponseDTO> tramites = leerCatalogo();
+        long version = (actual == null) ? 1 : actual.getVersion() + 1;
+        actual = InstantaneaCatalogo.de(version, tramites, mapper);
+        return actual;
+    }
+
+    /**
+     * Publica una nueva versión que incluye el trámite creado.
+     * Si un refresco ya lo había incorporado, se reemplaza en lugar de repetirse.
+     * @param dto trámite recién persistido.
+     */
+    public synchronized void publicarAlta(TramiteResponseDTO dto) {
+        if (actual == null) {
+            recargar();
+            return;
+        }
+        actual = actual.con(dto, mapper);
+    }
+
+    /**
+     * Publica una nueva versión con el estado de un trámite modificado.
+     * La instantánea se indexa por el type tal como está en la base de datos.
+     * El estado anterior se toma dentro del mismo bloque sincronizado, de modo
+     * que dos cambios concurrentes del mismo trámite no ven el mismo anterior.
+     * @param type type canónico del trámite actualizado.
+     * @param status nuevo estado.
+     * @return el trámite tal como figuraba antes del cambio, o null si no figuraba
+     *         en la instantánea (creado en otra instancia: se relee el catálogo).
+     */
+    public synchronized TramiteResponseDTO publicarStatus(String type, Boolean status) {
+        if (actual == null) {
+            recargar();
+            return null;
+        }
+        TramiteResponseDTO anterior = actual.buscar(type);
+        if (anterior == null)    // Creado en otra instancia: se relee el catálogo
+            recargar();
+        else
+            actual = actual.con(new TramiteResponseDTO(anterior.getIdTransaction(), type, status, anterior.getIdUser()), mapper);
+        return anterior;
+    }
+
+    /**
+     * Publica una única nueva versión sin los trámites eliminados.
+     * @param types types canónicos de los trámites borrados.
+     * @return los trámites quitados, tal como figuraban en la instantánea; los
+     *         types que no figuraban no aparecen.
+     */
+    public synchronized List<TramiteResponseDTO> publicarBajas(Set<String> types) {
+        if (actual == null) {
+            recargar();
+            return List.of();
+        }
+        List<TramiteResponseDTO> quitados = actual.buscarTodos(types);
+        actual = actual.sin(types);
+        return quitados;
+    }
+
+    /**
+     * Relee el catálogo periódicamente y publica una nueva versión solo si cambió.
+     */
+    @Scheduled(fixedDelayString = "${tramites.catalogo.refresco:30s}", initialDelayString = "${tramites.catalogo.refresco:30s}")
+    public synchronized void refrescar() {
+        List<TramiteResponseDTO> tramites = leerCatalogo();
+        if (actual == null || !actual.getTramites().equals(tramites))
+            actual = InstantaneaCatalogo.de((actual == null) ? 1 : actual.getVersion() + 1, tramites, mapper);
+    }
+
+    private List<TramiteResponseDTO> leerCatalogo() {
+        // SELECT id_transaction, type, status FROM transaction ORDER BY id_transaction, más los estados pendientes
+        return diferida.aplicar(repositorio.listarDTO());
+    }
+}
@@ -0,0 +1,210 @@
+package dev.labintec.tramite.servicio;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import dev.labintec.tramite.dto.UsuarioDTO;
+import dev.labintec.tramite.excepcion.ServicioNoDisponibleException;
+import jakarta.annotation.PreDestroy;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+
+/**
+ * Cliente de usuarios-api que agrupa las búsquedas de usuarios por id.
+ * Las búsquedas concurrentes que llegan dentro de una misma ventana se
+ * resuelven con una única llamada GET /api/v1/usuarios/batch?ids=...; un id
+ * que ya está en vuelo no se vuelve a pedir, y los usuarios obtenidos se
+ * conservan en una caché local de vida corta. Las llamadas salen de un único
+ * hilo despachador, por lo que mientras una está en curso las siguientes
+ * búsquedas se acumulan en el próximo lote.
+ * @author Quique
+ */
+@Component
+public class ClienteUsuarios {
+
+    private static final Logger log = LoggerFactory.getLogger(ClienteUsuarios.class);
+
+    private final RestClient cliente;
+    private final Cache<Long, UsuarioDTO> cache;
+    private final ScheduledThreadPoolExecutor despachador;
+    private final long ventanaNs;
+    private final int loteMaximo;
+    private final long esperaMaximaNs;
+
+    private final Map<Long, CompletableFuture<UsuarioDTO>> enVuelo = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<Long> pendientes = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger cantidadPendiente = new AtomicInteger();
+    private final AtomicBoolean programado = new AtomicBoolean();
+
+    /**
+     * Construye el cliente HTTP, la caché y el hilo despachador con los parámetros configurados.
+     * @param url dirección base de usuarios-api.
+     * @param ventana tiempo que se esperan otras búsquedas antes de enviar un lote incompleto.
+     * @param loteMaximo cantidad máxima de ids por llamada; un lote lleno se envía sin esperar.
+     * @param ttl tiempo que un usuario obtenido permanece en la caché local.
+     * @param tamanoMaximo cantidad máxima de usuarios en la caché local.
+     * @param esperaMaxima tiempo máximo que una búsqueda espera la respuesta de usuarios-api.
+     */
+    public ClienteUsuarios(@Value("${tramites.usuarios.url:http://localhost:8080}") String url,
+                           @Value("${tramites.usuarios.ventana:2ms}") Duration ventana,
+                           @Value("${tramites.usuarios.lote-maximo:200}") int loteMaximo,
+                           @Value("${tramites.usuarios.cache.ttl:30s}") Duration ttl,
+                           @Value("${tramites.usuarios.cache.tamano-maximo:10000}") long tamanoMaximo,
+                           @Value("${tramites.usuarios.espera-maxima:2s}") Duration esperaMaxima) {
+        JdkClientHttpRequestFactory fabrica = new JdkClientHttpRequestFactory(
+                HttpClient.newBuilder().connectTimeout(esperaMaxima).build());
+        fabrica.setReadTimeout(esperaMaxima);
+        this.cliente = RestClient.builder().baseUrl(url).requestFactory(fabrica).build();
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(tamanoMaximo)
+                .expireAfterWrite(ttl)
+                .build();
+        this.despachador = new ScheduledThreadPoolExecutor(1, new CustomizableThreadFactory("cliente-usuarios-"));
+        this.ventanaNs = ventana.toNanos();
+        this.loteMaximo = loteMaximo;
+        this.esperaMaximaNs = esperaMaxima.toNanos();
+    }
+
+    /**
+     * Busca un usuario por su identificador.
+     * @param idUser identificador del usuario en usuarios-api.
+     * @return el usuario, o null si no existe.
+     * @throws ServicioNoDisponibleException si usuarios-api falla o no responde a tiempo.
+     */
+    public UsuarioDTO buscar(Long idUser) {
+        return buscarTodos(List.of(idUser)).get(idUser);
+    }
+
+    /**
+     * Busca varios usuarios por sus identificadores.
+     * Los presentes en la caché no generan llamadas; el resto se suma al
+     * próximo lote junto con las búsquedas concurrentes de otras peticiones.
+     * @param ids identificadores de los usuarios; se ignoran los null.
+     * @return usuarios encontrados por id; los inexistentes no figuran.
+     * @throws ServicioNoDisponibleException si usuarios-api falla o no responde a tiempo.
+     */
+    public Map<Long, UsuarioDTO> buscarTodos(Collection<Long> ids) {
+        Map<Long, UsuarioDTO> encontrados = new HashMap<>(ids.size() * 2);
+        Map<Long, CompletableFuture<UsuarioDTO>> esperando = new HashMap<>();
+        for (Long id : ids) {
+            if (id == null || encontrados.containsKey(id) || esperando.containsKey(id))
+                continue;
+            UsuarioDTO cacheado = cache.getIfPresent(id);
+            if (cacheado != null) {
+                encontrados.put(id, cacheado);
+                continue;
+            }
+            CompletableFuture<UsuarioDTO> nueva = new CompletableFuture<>();
+            CompletableFuture<UsuarioDTO> existente = enVuelo.putIfAbsent(id, nueva);
+            if (existente != null)  // Reutiliza la búsqueda ya en vuelo
+                esperando.put(id, existente);
+            else {
+                pendientes.add(id); // Se encola solo después de publicarla en enVuelo
+                cantidadPendiente.incrementAndGet();
+                esperando.put(id, nueva);
+            }
+        }
+        if (esperando.isEmpty())
+            return encontrados;
+
+        programarEnvio();
+        long limite = System.nanoTime() + esperaMaximaNs;
+        try {
+            for (Map.Entry<Long, CompletableFuture<UsuarioDTO>> entrada : esperando.entrySet()) {
+                UsuarioDTO usuario = entrada.getValue().get(Math.max(0, limite - System.nanoTime()), TimeUnit.NANOSECONDS);
+                if (usuario != null)
+                    encontrados.put(entrada.getKey(), usuario);
+            }
+        } catch (TimeoutException e) {
+            throw new ServicioNoDisponibleException("usuarios-api no respondió a tiempo.", null);
+        } catch (ExecutionException e) {
+            throw new ServicioNoDisponibleException("usuarios-api no está disponible.", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServicioNoDisponibleException("Búsqueda de usuarios interrumpida.", e);
+        }
+        return encontrados;
+    }
+
+    /**
+     * Detiene el hilo despachador al cerrar el contexto.
+     */
+    @PreDestroy
+    public void cerrar() {
+        despachador.shutdownNow();
+    }
+
+    private void programarEnvio() {
+        if (programado.compareAndSet(false, true))   // A lo sumo un envío programado a la vez
+            despachador.schedule(this::enviar, (cantidadPendiente.get() >= loteMaximo) ? 0 : ventanaNs, TimeUnit.NANOSECONDS);
+    }
+
+    private void enviar() {
+        programado.set(false);  // Lo que se encole desde aquí programa un nuevo envío o entra en este
+        List<Long> lote;
+        while (!(lote = drenar()).isEmpty())
+            consultar(lote);
+    }
+
+    private List<Long> drenar() {
+        List<Long> lote = new ArrayList<>(Math.min(cantidadPendiente.get(), loteMaximo));
+        Long id;
+        while (lote.size() < loteMaximo && (id = pendientes.poll()) != null) {
+            cantidadPendiente.decrementAndGet();
+            lote.add(id);
+        }
+        return lote;
+    }
+
+    private void consultar(List<Long> lote) {
+        try {
+            List<UsuarioDTO> usuarios = cliente.get()
+                    .uri(uri -> uri.path("/api/v1/usuarios/batch").queryParam("ids", unir(lote)).build())
+                    .retrieve()
+                    .body(new ParameterizedTypeReference<List<UsuarioDTO>>() {});
+            Map<Long, UsuarioDTO> porId = new HashMap<>(lote.size() * 2);
+            if (usuarios != null)
+                for (UsuarioDTO usuario : usuarios) {
+                    porId.put(usuario.getIdUser(), usuario);
+                    cache.put(usuario.getIdUser(), usuario);    // Antes de liberar el id en vuelo
+                }
+            for (Long id : lote)
+                enVuelo.remove(id).complete(porId.get(id)); // null si el usuario no existe
+        } catch (RuntimeException e) {
+            log.warn("Falló la búsqueda de {} usuarios en usuarios-api: {}", lote.size(), e.getMessage());
+            for (Long id : lote)
+                enVuelo.remove(id).completeExceptionally(e);
+        }
+    }
+
+    private static String unir(List<Long> ids) {
+        StringBuilder texto = new StringBuilder(ids.size() * 8);
+        for (Long id : ids) {
+            if (texto.length() > 0)
+                texto.append(',');
+            texto.append(id);
+        }
+        return texto.toString();
+    }
+}
@@ -0,0 +1,206 @@
+package dev.labintec.tramite.servicio;
+
+import dev.labintec.tramite.dto.TramiteResponseDTO;
+import dev.labintec.tramite.repositorio.TramiteRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Buffer de escritura diferida para los cambios de estado de trámites.
+ * Cada cambio aceptado reemplaza al pendiente del mismo type (solo importa el
+ * último), y un volcado periódico escribe todos los pendientes en una única
+ * transacción, con a lo sumo dos UPDATE ... WHERE type IN (...) por bloque
+ * (uno por cada estado).
+ *
+ * Contrato de durabilidad:
+ *  - un cambio aceptado (HTTP 202) vive solo en la memoria de esta instancia hasta
+ *    el siguiente volcado, a lo sumo "intervalo" después; si el proceso muere sin
+ *    apagarse ordenadamente, los cambios pendientes se pierden.
+ *  - al apagarse ordenadamente se vuelca todo lo pendiente antes de cerrar el pool.
+ *  - si un volcado falla, los cambios siguen pendientes y se reintentan en el próximo.
+ *  - las lecturas servidas por esta instancia ven sus propios cambios pendientes;
+ *    las demás instancias los ven después del volcado y de su propio refresco.
+ *  - un cambio pendiente sobre un trámite borrado antes del volcado se descarta
+ *    (TramiteService llama a descartar tras confirmar el borrado).
+ * @author Quique
+ */
+@Component
+public class EscrituraDiferida {
+
+    private static final Logger log = LoggerFactory.getLogger(EscrituraDiferida.class);
+
+    /**
+     * Cantidad de valores por cláusula IN en cada UPDATE del volcado.
+     */
+    private static final int TAMANO_BLOQUE = 500;
+
+    private final boolean habilitada;
+    private final int pendientesMaximos;
+    private final Map<String, Boolean> pendientes = new ConcurrentHashMap<>();
+
+    @Autowired
+    private TramiteRepository repositorio;
+
+    @Autowired
+    private TransactionTemplate transaccion;
+
+    @Autowired // Registro de métricas provisto por actuator
+    private MeterRegistry registro;
+
+    private Counter volcados;
+
+    /**
+     * @param habilitada si es false los cambios de estado se escriben de inmediato.
+     * @param pendientesMaximos cantidad máxima de types distintos pendientes; con el
+     *        buffer lleno los cambios de types nuevos se escriben de inmediato.
+     */
+    public EscrituraDiferida(@Value("${tramites.escritura-diferida.habilitada:false}") boolean habilitada,
+                             @Value("${tramites.escritura-diferida.pendientes-maximos:10000}") int pendientesMaximos) {
+        this.habilitada = habilitada;
+        this.pendientesMaximos = pendientesMaximos;
+    }
+
+    /**
+     * Registra el indicador de pendientes y el contador de cambios volcados.
+     */
+    @PostConstruct
+    public void registrarMetricas() {
+        volcados = Counter.builder("tramites.escritura.diferida.volcados").register(registro);
+        Gauge.builder("tramites.escritura.diferida.pendientes", pendientes, Map::size).register(registro);
+    }
+
+    /**
+     * @return true si los cambios de estado se aceptan en el buffer.
+     */
+    public boolean isHabilitada() {
+        return habilitada;
+    }
+
+    /**
+     * Acepta un cambio de estado, reemplazando al pendiente del mismo type.
+     * @param type tipo único del trámite.
+     * @param status nuevo estado.
+     * @return false si el buffer está lleno y el cambio debe escribirse de inmediato.
+     */
+    public boolean aceptar(String type, Boolean status) {
+        if (pendientes.size() >= pendientesMaximos && !pendientes.containsKey(type))
+            return false;
+        pendientes.put(type, status);
+        return true;
+    }
+
+    /**
+     * Quita el cambio pendiente de un trámite eliminado.
+     * @param type type canónico del trámite borrado.
+     */
+    public void descartar(String type) {
+        pendientes.remove(type);
+    }
+
+    /**
+     * Quita los cambios pendientes de trámites eliminados, para que el volcado no
+     * escriba sobre filas borradas ni las lecturas les apliquen un estado.
+     * @param types types canónicos de los trámites borrados.
+     */
+    public void descartar(Collection<String> types) {
+        pendientes.keySet().removeAll(types);
+    }
+
+    /**
+     * @return copia de los cambios pendientes, por type canónico.
+     */
+    public Map<String, Boolean> pendientes() {
+        return Map.copyOf(pendientes);
+    }
+
+    /**
+     * Aplica el cambio pendiente, si lo hay, sobre un trámite leído de la base de datos.
+     * @param dto trámite leído.
+     * @return el mismo trámite, o una copia con el estado pendiente.
+     */
+    public TramiteResponseDTO aplicar(TramiteResponseDTO dto) {
+        Boolean status = pendientes.get(dto.getType());
+        if (status == null || status.equals(dto.getStatus()))
+            return dto;
+        return new TramiteResponseDTO(dto.getIdTransaction(), dto.getType(), status, dto.getIdUser());
+    }
+
+    /**
+     * Aplica los cambios pendientes sobre una lista de trámites leída de la base de datos.
+     * @param tramites trámites leídos.
+     * @return la misma lista si no hay pendientes; si no, una copia con los estados pendientes.
+     */
+    public List<TramiteResponseDTO> aplicar(List<TramiteResponseDTO> tramites) {
+        if (pendientes.isEmpty())
+            return tramites;
+        List<TramiteResponseDTO> resultado = new ArrayList<>(tramites.size());
+        for (TramiteResponseDTO dto : tramites)
+            resultado.add(aplicar(dto));
+        return resultado;
+    }
+
+    /**
+     * Escribe todos los cambios pendientes en una única transacción.
+     * Un cambio aceptado mientras se vuelca queda pendiente para el siguiente volcado.
+     * @return cantidad de trámites modificados.
+     */
+    public synchronized int volcar() {
+        if (pendientes.isEmpty())
+            return 0;
+        Map<String, Boolean> lote = new HashMap<>(pendientes);
+        List<String> activos = new ArrayList<>();
+        List<String> inactivos = new ArrayList<>();
+        lote.forEach((type, status) -> (Boolean.TRUE.equals(status) ? activos : inactivos).add(type));
+        Integer filas = transaccion.execute(estado -> actualizar(activos, true) + actualizar(inactivos, false));
+        lote.forEach(pendientes::remove);   // remove(type, status): no pierde lo aceptado durante el volcado
+        volcados.increment(lote.size());
+        return (filas == null) ? 0 : filas;
+    }
+
+    /**
+     * Vuelca periódicamente; si falla, los cambios quedan para el próximo intento.
+     */
+    @Scheduled(fixedDelayString = "${tramites.escritura-diferida.intervalo:200ms}")
+    public void volcarPeriodicamente() {
+        try {
+            volcar();
+        } catch (DataAccessException e) {
+            log.error("No se pudieron volcar {} cambios de estado pendientes", pendientes.size(), e);
+        }
+    }
+
+    /**
+     * Vuelca lo pendiente al apagarse, antes de que se cierre el pool de conexiones.
+     */
+    @PreDestroy
+    public void cerrar() {
+        int cantidad = pendientes.size();
+        if (cantidad > 0)
+            log.info("Volcando {} cambios de estado pendientes antes de cerrar", cantidad);
+        volcar();
+    }
+
+    private int actualizar(List<String> types, boolean status) {
+        int filas = 0;
+        for (int i = 0; i < types.size(); i += TAMANO_BLOQUE)
+            filas += repositorio.actualizarStatusPorTypes(types.subList(i, Math.min(i + TAMANO_BLOQUE, types.size())), status);
+        return filas;
+    }
+}
@@ -0,0 +1,126 @@
+package dev.labintec.tramite.servicio;
+
+import dev.labintec.tramite.dto.EstadisticasTramitesDTO;
+import dev.labintec.tramite.dto.TramiteResponseDTO;
+import dev.labintec.tramite.repositorio.TramiteRepository;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Contadores de trámites por estado mantenidos en memoria.
+ * Se inician con una consulta de agregación y luego los ajusta TramiteService
+ * en cada alta, cambio de estado y baja, con LongAdder (sin contención entre
+ * escritores). Una reconciliación periódica contra la base de datos corrige
+ * cualquier desvío: cambios hechos por otras instancias o transiciones de
+ * estado que no se pudieron determinar con exactitud. La reconciliación
+ * superpone los cambios de estado aceptados por la escritura diferida que
+ * aún no llegaron a la base, igual que las lecturas del catálogo.
+ * @author Quique
+ */
+@Component
+public class EstadisticasTramites {
+
+    private static final Logger log = LoggerFactory.getLogger(EstadisticasTramites.class);
+
+    /**
+     * Cantidad de valores por cláusula IN al leer los types con cambios pendientes.
+     */
+    private static final int TAMANO_BLOQUE = 500;
+
+    @Autowired
+    private TramiteRepository repositorio;
+
+    @Autowired // Cambios de estado aceptados y aún no volcados a la base de datos
+    private EscrituraDiferida diferida;
+
+    private final LongAdder total = new LongAdder();
+    private final LongAdder activos = new LongAdder();
+
+    /**
+     * Inicia los contadores con la consulta de agregación al terminar el arranque,
+     * antes de que la instancia se declare lista para recibir tráfico.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void iniciar() {
+        reconciliar();
+    }
+
+    /**
+     * Devuelve los contadores vigentes, sin consultar la base de datos.
+     * @return total, activos e inactivos.
+     */
+    public EstadisticasTramitesDTO obtener() {
+        long activosActual = activos.sum();
+        long totalActual = total.sum();
+        return new EstadisticasTramitesDTO(totalActual, activosActual, totalActual - activosActual);
+    }
+
+    /**
+     * Cuenta un trámite creado.
+     * @param status estado del trámite creado.
+     */
+    public void alta(Boolean status) {
+        total.increment();
+        if (Boolean.TRUE.equals(status))
+            activos.increment();
+    }
+
+    /**
+     * Descuenta un trámite eliminado.
+     * @param status estado que tenía el trámite eliminado.
+     */
+    public void baja(Boolean status) {
+        total.decrement();
+        if (Boolean.TRUE.equals(status))
+            activos.decrement();
+    }
+
+    /**
+     * Ajusta los contadores por un cambio de estado.
+     * @param anterior estado previo del trámite.
+     * @param nuevo estado asignado.
+     */
+    public void cambio(Boolean anterior, Boolean nuevo) {
+        boolean eraActivo = Boolean.TRUE.equals(anterior);
+        boolean esActivo = Boolean.TRUE.equals(nuevo);
+        if (esActivo && !eraActivo)
+            activos.increment();
+        else if (eraActivo && !esActivo)
+            activos.decrement();
+    }
+
+    /**
+     * Cuenta los trámites en la base de datos, superpone los cambios de estado
+     * pendientes de volcado y corrige los contadores en la diferencia.
+     * Los ajustes concurrentes hechos durante la consulta se conservan en lo posible;
+     * lo que quede desviado se corrige en la siguiente reconciliación.
+     */
+    @Scheduled(fixedDelayString = "${tramites.estadisticas.reconciliacion:1m}", initialDelayString = "${tramites.estadisticas.reconciliacion:1m}")
+    public synchronized void reconciliar() {
+        Map<String, Boolean> pendientes = diferida.pendientes();
+        EstadisticasTramitesDTO contados = repositorio.contarPorStatus(); // SELECT COUNT(*), SUM(CASE ...) FROM transaction
+        long activosContados = contados.getActivos();
+        List<String> types = new ArrayList<>(pendientes.keySet());
+        for (int i = 0; i < types.size(); i += TAMANO_BLOQUE)
+            for (TramiteResponseDTO escrito : repositorio.listarDTOPorTypes(types.subList(i, Math.min(i + TAMANO_BLOQUE, types.size())))) {
+                boolean eraActivo = Boolean.TRUE.equals(escrito.getStatus());
+                boolean esActivo = Boolean.TRUE.equals(pendientes.get(escrito.getType()));
+                activosContados += (esActivo ? 1 : 0) - (eraActivo ? 1 : 0);
+            }
+        long desvioTotal = contados.getTotal() - total.sum();
+        long desvioActivos = activosContados - activos.sum();
+        total.add(desvioTotal);
+        activos.add(desvioActivos);
+        if (desvioTotal != 0 || desvioActivos != 0)
+            log.debug("Estadísticas de trámites corregidas: total {} activos {}", desvioTotal, desvioActivos);
+    }
+}
@@ -0,0 +1,372 @@
+package dev.labintec.tramite.servicio;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.labintec.tramite.dto.TramiteResponseDTO;
+import dev.labintec.tramite.excepcion.ServicioNoDisponibleException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Difunde por Server-Sent Events las altas, cambios de estado y bajas de trámites
+ * publicados por TramiteService en esta instancia.
+ *
+ * Cada evento recibe un id creciente, se serializa una sola vez y se guarda en un
+ * historial circular acotado; un cliente que se reconecta con Last-Event-ID recibe
+ * los eventos que se perdió si siguen en el historial, o un evento "reinicio" si no
+ * (debe releer GET /api/v1/tramites). El id enviado lleva delante la época de esta
+ * ejecución ("época-n"), elegida al azar al arrancar: un id de otra ejecución o de
+ * otra instancia, que podría coincidir en número, también provoca un "reinicio". Quien escribe solo encola el evento en la cola
+ * acotada de cada suscriptor, sin E/S; el envío lo hace un pool propio. Un suscriptor
+ * cuya cola se llena se desconecta y puede retomar desde su último id.
+ *
+ * Un cliente que deja de leer bloquea send() en la escritura al socket hasta que vence
+ * el plazo de escritura del contenedor. Un vigilante periódico descarta al suscriptor
+ * cuyo envío supera el plazo de escritura propio y suma un hilo al pool mientras el
+ * envío siga bloqueado, para que unos pocos clientes trabados no retengan todos los
+ * hilos; el emisor se completa en cuanto la escritura retorna. No se lo completa desde
+ * el vigilante porque los métodos de SseEmitter comparten el monitor de send().
+ * @author Quique
+ */
+@Component
+public class EventosTramites {
+
+    /**
+     * Marca de latido en las colas: se envía como comentario SSE.
+     */
+    private static final Evento LATIDO = new Evento(0, null, null, null);
+
+    private final String epoca = Long.toString(ThreadLocalRandom.current().nextLong() & Long.MAX_VALUE, 36) + "-";
+    private final Evento[] historial;
+    private long ultimoId;  // Protegido por this, igual que el historial
+    private final Set<Suscriptor> suscriptores = ConcurrentHashMap.newKeySet();
+
+    private final int colaPorSuscriptor;
+    private final int suscriptoresMaximos;
+    private final long duracionMaximaMs;
+    private final long plazoEscrituraNs;
+    private final ThreadPoolExecutor envios;
+
+    @Autowired
+    private ObjectMapper mapper;
+
+    @Autowired // Registro de métricas provisto por actuator
+    private MeterRegistry registro;
+
+    private Counter desconectados;
+    private Counter vencidos;
+
+    /**
+     * @param tamanoHistorial cantidad de eventos que se conservan para reconexiones.
+     * @param colaPorSuscriptor eventos pendientes de envío tolerados por suscriptor.
+     * @param suscriptoresMaximos conexiones abiertas como máximo.
+     * @param duracionMaxima tiempo tras el cual la conexión se cierra y el cliente se reconecta.
+     * @param hilosEnvio hilos que escriben los eventos a los suscriptores.
+     * @param plazoEscritura tiempo máximo de un envío antes de descartar al suscriptor.
+     */
+    public EventosTramites(@Value("${tramites.eventos.historial:1024}") int tamanoHistorial,
+                           @Value("${tramites.eventos.cola-por-suscriptor:256}") int colaPorSuscriptor,
+                           @Value("${tramites.eventos.suscriptores-maximos:1000}") int suscriptoresMaximos,
+                           @Value("${tramites.eventos.duracion-maxima:30m}") Duration duracionMaxima,
+                           @Value("${tramites.eventos.hilos-envio:4}") int hilosEnvio,
+                           @Value("${tramites.eventos.plazo-escritura:10s}") Duration plazoEscritura) {
+        this.historial = new Evento[tamanoHistorial];
+        this.colaPorSuscriptor = colaPorSuscriptor;
+        this.suscriptoresMaximos = suscriptoresMaximos;
+        this.duracionMaximaMs = duracionMaxima.toMillis();
+        this.plazoEscrituraNs = plazoEscritura.toNanos();
+        this.envios = new ThreadPoolExecutor(hilosEnvio, hilosEnvio, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), new CustomizableThreadFactory("eventos-sse-"));
+    }
+
+    /**
+     * Registra el indicador de suscriptores y los contadores de desconexiones por
+     * atraso (cola llena) y por plazo de escritura vencido.
+     */
+    @PostConstruct
+    public void registrarMetricas() {
+        desconectados = Counter.builder("tramites.eventos.desconectados").tag("motivo", "atraso").register(registro);
+        vencidos = Counter.builder("tramites.eventos.desconectados").tag("motivo", "plazo").register(registro);
+        Gauge.builder("tramites.eventos.suscriptores", suscriptores, Set::size).register(registro);
+    }
+
+    /**
+     * Abre una suscripción a los eventos de trámites.
+     * @param types types de interés, o null/vacío para recibir todos.
+     * @param ultimoVisto id del último evento recibido (Last-Event-ID), o null si es una conexión nueva.
+     * @return emisor SSE a devolver desde el controlador.
+     * @throws ServicioNoDisponibleException si se alcanzó el máximo de suscriptores.
+     */
+    public SseEmitter suscribir(Set<String> types, String ultimoVisto) {
+        if (suscriptores.size() >= suscriptoresMaximos)
+            throw new ServicioNoDisponibleException("Demasiados suscriptores a los eventos de trámites.", null);
+        SseEmitter emisor = crearEmisor(duracionMaximaMs);
+        Suscriptor suscriptor;
+        synchronized (this) {   // Reenvío e inscripción atómicos: ningún evento se pierde ni se repite
+            List<Evento> perdidos = new ArrayList<>();
+            if (ultimoVisto != null) {
+                long visto = numeroDeEstaEpoca(ultimoVisto);
+                long primero = Math.max(1, ultimoId - historial.length + 1);
+                if (visto < 0 || visto + 1 < primero || visto > ultimoId)  // De otra ejecución o fuera del historial
+                    perdidos.add(new Evento(ultimoId, "reinicio", null, "{}"));
+                else
+                    for (long id = visto + 1; id <= ultimoId; id++)
+                        perdidos.add(historial[(int) (id % historial.length)]);
+            }
+            suscriptor = new Suscriptor(emisor, (types == null || types.isEmpty()) ? null : Set.copyOf(types),
+                    new ArrayBlockingQueue<>(colaPorSuscriptor + perdidos.size()));
+            for (Evento evento : perdidos)
+                suscriptor.encolar(evento);
+            suscriptores.add(suscriptor);
+        }
+        emisor.onTimeout(emisor::complete);  // Cumplida la duración máxima el cliente se reconecta
+        emisor.onCompletion(() -> suscriptores.remove(suscriptor));
+        emisor.onError(error -> suscriptores.remove(suscriptor));
+        suscriptor.programar();
+        return emisor;
+    }
+
+    /**
+     * Publica el alta de un trámite.
+     * @param dto trámite creado.
+     */
+    public void publicarAlta(TramiteResponseDTO dto) {
+        publicar("alta", dto);
+    }
+
+    /**
+     * Publica el cambio de estado de un trámite.
+     * @param dto trámite con su nuevo estado.
+     */
+    public void publicarStatus(TramiteResponseDTO dto) {
+        publicar("status", dto);
+    }
+
+    /**
+     * Publica la baja de un trámite.
+     * @param type tipo único del trámite eliminado.
+     */
+    public void publicarBaja(String type) {
+        publicar("baja", new TramiteResponseDTO(null, type, null, null));
+    }
+
+    /**
+     * Envía un latido a cada suscriptor para detectar conexiones caídas y
+     * mantener abiertos los proxies intermedios.
+     */
+    @Scheduled(fixedDelayString = "${tramites.eventos.latido:15s}")
+    public void latir() {
+        for (Suscriptor suscriptor : suscriptores)
+            suscriptor.encolar(LATIDO);
+    }
+
+    /**
+     * Descarta a los suscriptores cuyo envío en curso superó el plazo de escritura
+     * y compensa con un hilo extra cada envío que sigue bloqueado.
+     */
+    @Scheduled(fixedDelayString = "${tramites.eventos.vigilancia:1s}")
+    public void vigilar() {
+        long ahora = System.nanoTime();
+        for (Suscriptor suscriptor : suscriptores) {
+            long desde = suscriptor.enviandoDesde;
+            if (desde != 0 && ahora - desde > plazoEscrituraNs && suscriptor.vencer()) {
+                suscriptores.remove(suscriptor);
+                vencidos.increment();
+            }
+        }
+    }
+
+    /**
+     * Cierra las conexiones abiertas y detiene el pool de envío.
+     */
+    @PreDestroy
+    public void cerrar() {
+        for (Suscriptor suscriptor : suscriptores)
+            suscriptor.emisor.complete();
+        envios.shutdownNow();
+    }
+
+    /**
+     * @param duracionMs tiempo tras el cual la conexión se cierra.
+     * @return emisor SSE de una nueva suscripción.
+     */
+    SseEmitter crearEmisor(long duracionMs) {
+        return new SseEmitter(duracionMs);
+    }
+
+    /**
+     * Suma (delta = 1) o resta (delta = -1) un hilo al pool de envío.
+     */
+    private void ajustarHilos(int delta) {
+        synchronized (envios) {     // Máximo y núcleo se suben y bajan en el orden que exige el pool
+            int hilos = envios.getCorePoolSize() + delta;
+            if (delta > 0) {
+                envios.setMaximumPoolSize(hilos);
+                envios.setCorePoolSize(hilos);
+            } else {
+                envios.setCorePoolSize(hilos);
+                envios.setMaximumPoolSize(hilos);
+            }
+        }
+    }
+
+    /**
+     * @return número de un id enviado por esta ejecución, o -1 si es de otra época o no es válido.
+     */
+    private long numeroDeEstaEpoca(String id) {
+        if (!id.startsWith(epoca))
+            return -1;
+        try {
+            return Long.parseLong(id.substring(epoca.length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private void publicar(String nombre, TramiteResponseDTO dto) {
+        String json;
+        try {
+            json = mapper.writeValueAsString(dto);  // Una sola vez para todos los suscriptores
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("No se pudo serializar el evento de trámite", e);
+        }
+        synchronized (this) {
+            Evento evento = new Evento(++ultimoId, nombre, dto.getType(), json);
+            historial[(int) (evento.id % historial.length)] = evento;
+            for (Suscriptor suscriptor : suscriptores)
+                suscriptor.encolar(evento);     // offer(): nunca bloquea a quien escribe
+        }
+    }
+
+    /**
+     * Evento ya serializado, tal como se guarda en el historial.
+     */
+    private static class Evento {
+
+        private final long id;
+        private final String nombre;
+        private final String type;
+        private final String json;
+
+        Evento(long id, String nombre, String type, String json) {
+            this.id = id;
+            this.nombre = nombre;
+            this.type = type;
+            this.json = json;
+        }
+    }
+
+    /**
+     * Conexión abierta con su filtro y su cola de eventos pendientes de envío.
+     * A lo sumo una tarea de envío por suscriptor está programada a la vez.
+     */
+    private class Suscriptor {
+
+        private final SseEmitter emisor;
+        private final Set<String> types;
+        private final BlockingQueue<Evento> cola;
+        private final AtomicBoolean programado = new AtomicBoolean();
+        private volatile boolean atrasado;
+        private volatile boolean vencido;       // Protegido por this junto con enviandoDesde
+        private volatile long enviandoDesde;    // System.nanoTime() del send() en curso, o 0
+
+        Suscriptor(SseEmitter emisor, Set<String> types, BlockingQueue<Evento> cola) {
+            this.emisor = emisor;
+            this.types = types;
+            this.cola = cola;
+        }
+
+        void encolar(Evento evento) {
+            if (atrasado || (evento.type != null && types != null && !types.contains(evento.type)))
+                return;
+            if (!cola.offer(evento)) {  // No consume lo que se le envía: se lo desconecta
+                atrasado = true;
+                suscriptores.remove(this);
+            }
+            programar();
+        }
+
+        void programar() {
+            if (programado.compareAndSet(false, true))
+                envios.execute(this::enviar);
+        }
+
+        /**
+         * Marca como vencido el envío en curso y suma un hilo que lo reemplaza
+         * hasta que la escritura retorne.
+         * @return false si ya estaba vencido o el envío terminó mientras tanto.
+         */
+        boolean vencer() {
+            synchronized (this) {   // Solo un envío todavía en curso devuelve después el hilo extra
+                if (vencido || enviandoDesde == 0)
+                    return false;
+                vencido = true;
+                atrasado = true;
+                ajustarHilos(1);    // Antes de que el envío pueda retornar y restarlo
+            }
+            return true;
+        }
+
+        private void enviar() {
+            try {
+                while (true) {
+                    if (atrasado) {
+                        if (!vencido)
+                            desconectados.increment();
+                        emisor.complete();  // El cliente se reconecta con Last-Event-ID
+                        return;
+                    }
+                    Evento evento = cola.poll();
+                    if (evento == null) {
+                        programado.set(false);
+                        // Un evento encolado entre poll() y set(false) no programó otra tarea
+                        if ((cola.isEmpty() && !atrasado) || !programado.compareAndSet(false, true))
+                            return;
+                        continue;
+                    }
+                    enviandoDesde = System.nanoTime();
+                    try {
+                        if (evento == LATIDO)
+                            emisor.send(SseEmitter.event().comment("latido"));
+                        else
+                            emisor.send(SseEmitter.event().id(epoca + evento.id).name(evento.nombre)
+                                    .data(evento.json, MediaType.APPLICATION_JSON));
+                    } finally {
+                        synchronized (this) {
+                            enviandoDesde = 0;
+                        }
+                    }
+                }
+            } catch (IOException | IllegalStateException e) {    // Conexión cerrada por el cliente
+                suscriptores.remove(this);
+                emisor.completeWithError(e);
+            } finally {
+                if (vencido)
+                    ajustarHilos(-1);   // La escritura retornó: se devuelve el hilo extra
+            }
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package dev.labintec.tramite.servicio;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.labintec.tramite.dto.TramiteResponseDTO;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import lombok.AccessLevel;
+import lombok.Getter;
+import org.springframework.util.DigestUtils;
+
+/**
+ * Copia inmutable del catálogo de trámites en una versión dada.
+ * Guarda los DTO y su JSON ya serializado para responder sin consultar
+ * la base de datos ni volver a codificar.
+ *
+ * Cada versión se deriva de la anterior serializando solo el trámite que cambió:
+ * el JSON de los demás se reutiliza y el del listado se arma concatenando el de
+ * cada trámite, sin volver a pasar por Jackson.
+ * @author Quique
+ */
+@Getter
+public class InstantaneaCatalogo {
+
+    /**
+     * Versión creciente de la instantánea; cambia con cada escritura.
+     */
+    private final long version;
+
+    /**
+     * Trámites del catálogo ordenados por id_transaction.
+     */
+    private final List<TramiteResponseDTO> tramites;
+
+    /**
+     * JSON del listado completo, serializado una sola vez por versión.
+     */
+    private final byte[] listaJson;
+
+    /**
+     * JSON de cada trámite indexado por su type.
+     */
+    private final Map<String, byte[]> jsonPorType;
+
+    /**
+     * Cada trámite indexado por su type canónico, para buscarlo sin recorrer el listado.
+     */
+    @Getter(AccessLevel.NONE)
+    private final Map<String, TramiteResponseDTO> porType;
+
+    /**
+     * ETag fuerte derivado del contenido (MD5 del JSON del listado, como ShallowEtagHeaderFilter),
+     * no de la versión: la versión es local al proceso y se reinicia con él, de modo que
+     * otra instancia o un reinicio podrían repetirla con un contenido distinto.
+     */
+    private final String etag;
+
+    private InstantaneaCatalogo(long version, List<TramiteResponseDTO> tramites,
+                                Map<String, TramiteResponseDTO> porType, Map<String, byte[]> jsonPorType) {
+        this.version = version;
+        this.tramites = Collections.unmodifiableList(tramites);
+        this.porType = Collections.unmodifiableMap(porType);
+        this.jsonPorType = Collections.unmodifiableMap(jsonPorType);
+        this.listaJson = concatenar(tramites, jsonPorType);
+        this.etag = "\"" + DigestUtils.md5DigestAsHex(listaJson) + "\"";
+    }
+
+    /**
+     * Arma una instantánea serializando todos los trámites.
+     * @param version versión creciente dentro de este proceso.
+     * @param tramites trámites ordenados por id_transaction.
+     * @param mapper serializador JSON de la aplicación.
+     * @return instantánea con el catálogo completo.
+     */
+    public static InstantaneaCatalogo de(long version, List<TramiteResponseDTO> tramites, ObjectMapper mapper) {
+        Map<String, TramiteResponseDTO> porType = new HashMap<>(tramites.size() * 2);
+        Map<String, byte[]> jsonPorType = new HashMap<>(tramites.size() * 2);
+        for (TramiteResponseDTO dto : tramites) {
+            porType.put(dto.getType(), dto);
+            jsonPorType.put(dto.getType(), serializar(dto, mapper));
+        }
+        return new InstantaneaCatalogo(version, new ArrayList<>(tramites), porType, jsonPorType);
+    }
+
+    /**
+     * Busca un trámite por su type canónico.
+     * @param type tipo único del trámite, tal como está en la base de datos.
+     * @return el trámite, o null si no figura.
+     */
+    public TramiteResponseDTO buscar(String type) {
+        return porType.get(type);
+    }
+
+    /**
+     * Deriva la versión siguiente con un trámite agregado o, si su type ya
+     * figuraba, reemplazado en su lugar.
+     * @param dto trámite con su type canónico.
+     * @param mapper serializador JSON de la aplicación.
+     * @return la nueva instantánea.
+     */
+    public InstantaneaCatalogo con(TramiteResponseDTO dto, ObjectMapper mapper) {
+        TramiteResponseDTO anterior = porType.get(dto.getType());
+        List<TramiteResponseDTO> nuevos = new ArrayList<>(tramites.size() + 1);
+        for (TramiteResponseDTO tramite : tramites)
+            nuevos.add((tramite == anterior) ? dto : tramite);
+        if (anterior == null)
+            nuevos.add(dto);
+        Map<String, TramiteResponseDTO> nuevosPorType = new HashMap<>(porType);
+        nuevosPorType.put(dto.getType(), dto);
+        Map<String, byte[]> nuevoJson = new HashMap<>(jsonPorType);
+        nuevoJson.put(dto.getType(), serializar(dto, mapper));  // Solo se codifica el trámite que cambió
+        return new InstantaneaCatalogo(version + 1, nuevos, nuevosPorType, nuevoJson);
+    }
+
+    /**
+     * Deriva la versión siguiente sin los trámites indicados.
+     * @param types types canónicos a quitar; los que no figuran se ignoran.
+     * @return la nueva instantánea.
+     */
+    public InstantaneaCatalogo sin(Set<String> types) {
+        List<TramiteResponseDTO> nuevos = new ArrayList<>(tramites.size());
+        for (TramiteResponseDTO tramite : tramites)
+            if (!types.contains(tramite.getType()))
+                nuevos.add(tramite);
+        Map<String, TramiteResponseDTO> nuevosPorType = new HashMap<>(porType);
+        Map<String, byte[]> nuevoJson = new HashMap<>(jsonPorType);
+        nuevosPorType.keySet().removeAll(types);
+        nuevoJson.keySet().removeAll(types);
+        return new InstantaneaCatalogo(version + 1, nuevos, nuevosPorType, nuevoJson);
+    }
+
+    /**
+     * @param types types canónicos buscados.
+     * @return los trámites que figuran con esos types.
+     */
+    public List<TramiteResponseDTO> buscarTodos(Collection<String> types) {
+        List<TramiteResponseDTO> encontrados = new ArrayList<>(types.size());
+        for (String type : types) {
+            TramiteResponseDTO dto = porType.get(type);
+            if (dto != null)
+                encontrados.add(dto);
+        }
+        return encontrados;
+    }
+
+    private static byte[] serializar(TramiteResponseDTO dto, ObjectMapper mapper) {
+        try {
+            return mapper.writeValueAsBytes(dto);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("No se pudo serializar el catálogo de trámites", e);
+        }
+    }
+
+    /**
+     * Arma el arreglo JSON del listado con el JSON ya serializado de cada trámite;
+     * coincide byte a byte con serializar la lista entera sin sangría.
+     */
+    private static byte[] concatenar(List<TramiteResponseDTO> tramites, Map<String, byte[]> jsonPorType) {
+        int largo = 2 + Math.max(0, tramites.size() - 1);   // Corchetes y comas
+        for (TramiteResponseDTO dto : tramites)
+            largo += jsonPorType.get(dto.getType()).length;
+        byte[] lista = new byte[largo];
+        int posicion = 0;
+        lista[posicion++] = '[';
+        for (TramiteResponseDTO dto : tramites) {
+            if (posicion > 1)
+                lista[posicion++] = ',';
+            byte[] json = jsonPorType.get(dto.getType());
+            System.arraycopy(json, 0, lista, posicion, json.length);
+            posicion += json.length;
+        }
+        lista[posicion] = ']';
+        return lista;
+    }
+}
@@ -1,95 +1,372 @@
 package dev.labintec.tramite.servicio;
 
+import dev.labintec.tramite.dto.ResultadoBorradoDTO;
+import dev.labintec.tramite.dto.TramiteConUsuarioDTO;
+import dev.labintec.tramite.dto.TramiteMapper;
+import dev.labintec.tramite.dto.TramiteResponseDTO;
+import dev.labintec.tramite.dto.TramitesUsuarioDTO;
+import dev.labintec.tramite.dto.UsuarioDTO;
 import dev.labintec.tramite.entidad.Tramite;
 import dev.labintec.tramite.excepcion.RecursoDuplicadoException;
 import dev.labintec.tramite.excepcion.RecursoNoEncontradoException;
+import dev.labintec.tramite.excepcion.RestriccionUnica;
+import dev.labintec.tramite.excepcion.SolicitudInvalidaException;
 import dev.labintec.tramite.repositorio.TramiteRepository;
+import io.micrometer.core.annotation.Timed;
+import java.text.CollationKey;
+import java.text.Collator;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 /**
  *
  * @author Quique
  */
 @Service
+@Timed(value = "tramites.servicio", histogram = true) // Histograma de latencia por método
 public class TramiteService {
     @Autowired
     private TramiteRepository repositorio;
 
+    @Autowired // Instantánea en memoria que se republica tras cada escritura
+    private CatalogoTramites catalogo;
+
+    @Autowired // Búsquedas agrupadas y cacheadas de usuarios en usuarios-api
+    private ClienteUsuarios usuarios;
+
+    @Autowired // Cambios de estado aceptados y aún no volcados (lectura de las propias escrituras)
+    private EscrituraDiferida diferida;
+
+    @Autowired // Difusión por SSE de altas, cambios de estado y bajas
+    private EventosTramites eventos;
+
+    @Autowired // Contadores por estado que se ajustan en cada escritura
+    private EstadisticasTramites estadisticas;
+
+    @Autowired // Escritura y relectura del type canónico en una misma transacción
+    private TransactionTemplate transaccion;
+
+    /**
+     * Cantidad de valores por cláusula IN en los borrados masivos.
+     */
+    private static final int TAMANO_BLOQUE = 500;
+
     /**
      * Recupera todos los trámites registrados en la base de datos.
      * @return lista de todos los trámites.
      */
-    public List<Tramite> listarTodos() {
-        return repositorio.findAll(); // Ejecuta SELECT * FROM transaction
+    public List<TramiteResponseDTO> listarTodos() {
+        return diferida.aplicar(repositorio.listarDTO()); // Ejecuta SELECT id_transaction, type, status FROM transaction
+    }
+
+    /**
+     * Recorre todos los trámites fila a fila y entrega cada uno al consumidor.
+     * Las filas se proyectan a DTO, por lo que el contexto de persistencia
+     * no crece con la tabla.
+     * @param consumidor acción a aplicar sobre cada trámite leído.
+     */
+    @Transactional(readOnly = true)
+    public void recorrerTodos(Consumer<TramiteResponseDTO> consumidor) {
+        try (Stream<TramiteResponseDTO> tramites = repositorio.streamTodos()) {
+            tramites.forEach(tramite -> consumidor.accept(diferida.aplicar(tramite)));
+        }
     }
 
     /**
      * Obtiene un trámite según su identificador.
      * @param id clave primaria del trámite.
-     * @return el Tramite correspondiente al ID.
+     * @return el trámite correspondiente al ID.
      * @throws RecursoNoEncontradoException si no existe un trámite con ese ID.
      */
-    public Tramite obtenerPorId(Long id) {
-        Optional<Tramite> opcional = repositorio.findById(id);
+    public TramiteResponseDTO obtenerPorId(Long id) {
+        Optional<TramiteResponseDTO> opcional = repositorio.buscarDTOPorId(id);
         if (!opcional.isPresent())
             throw new RecursoNoEncontradoException("Trámite con id = " + id + ", no existe.");
-        return opcional.get();
+        return diferida.aplicar(opcional.get());
     }
 
     /**
      * Obtiene un trámite por su type de trámite único.
      * @param type nombre único del trámite.
-     * @return el Trámite asociado al nombre.
+     * @return el trámite asociado al nombre.
      * @throws RecursoNoEncontradoException si no hay coincidencias.
      */
-    public Tramite obtenerPorType(String type) {
-        Optional<Tramite> opcional = repositorio.findByType(type);
+    public TramiteResponseDTO obtenerPorType(String type) {
+        Optional<TramiteResponseDTO> opcional = repositorio.buscarDTOPorType(type);
         if (!opcional.isPresent())
             throw new RecursoNoEncontradoException("Trámite de tipo = " + type + ", no existe.");
-        return opcional.get();
+        return diferida.aplicar(opcional.get());
+    }
+
+    /**
+     * Lista los trámites de un usuario junto con su nombre de usuario.
+     * @param idUser identificador del usuario en usuarios-api.
+     * @return vista con el username y los trámites del usuario.
+     * @throws RecursoNoEncontradoException si el usuario no existe en usuarios-api.
+     */
+    public TramitesUsuarioDTO listarPorUsuario(Long idUser) {
+        UsuarioDTO usuario = usuarios.buscar(idUser);
+        if (usuario == null)
+            throw new RecursoNoEncontradoException("Usuario con id = " + idUser + ", no existe.");
+        return new TramitesUsuarioDTO(idUser, usuario.getUsername(), diferida.aplicar(repositorio.listarDTOPorUsuario(idUser)));
+    }
+
+    /**
+     * Recupera una página de trámites con el nombre de su usuario dueño.
+     * Todos los usuarios de la página se resuelven con una única búsqueda
+     * agrupada en usuarios-api (o ninguna, si ya estaban en caché).
+     * @param despuesDe último id_transaction entregado (0 para la primera página).
+     * @param limite cantidad máxima de trámites a devolver.
+     * @return lista ordenada por id_transaction con a lo sumo "limite" trámites.
+     */
+    public List<TramiteConUsuarioDTO> listarPaginaConUsuario(long despuesDe, int limite) {
+        List<TramiteResponseDTO> tramites = diferida.aplicar(repositorio.listarPaginaDTO(despuesDe, Limit.of(limite)));
+        List<Long> ids = new ArrayList<>(tramites.size());
+        for (TramiteResponseDTO tramite : tramites)
+            ids.add(tramite.getIdUser());
+        Map<Long, UsuarioDTO> porId = usuarios.buscarTodos(ids);
+        List<TramiteConUsuarioDTO> pagina = new ArrayList<>(tramites.size());
+        for (TramiteResponseDTO tramite : tramites) {
+            UsuarioDTO usuario = (tramite.getIdUser() == null) ? null : porId.get(tramite.getIdUser());
+            pagina.add(new TramiteConUsuarioDTO(tramite.getIdTransaction(), tramite.getType(), tramite.getStatus(),
+                    tramite.getIdUser(), (usuario == null) ? null : usuario.getUsername()));
+        }
+        return pagina;
     }
 
     /**
      * Registra un nuevo trámite en la base de datos.
-     * Verifica previamente que no exista otro trámite del mismo type.
+     * Ejecuta directamente el INSERT y delega la unicidad en el índice
+     * único uk_transaction_type, sin consulta previa.
      * @param tramite objeto con los datos del nuevo trámite.
      * @return el Tramite persistido con su ID generado.
      * @throws RecursoDuplicadoException si ya existe un type idéntico.
      */
     public Tramite crearTramite(Tramite tramite) {
-        Optional<Tramite> opcional = repositorio.findByType(tramite.getType());
-        if (opcional.isPresent())
+        Tramite guardado;
+        try {
+            guardado = repositorio.save(tramite); // Ejecuta INSERT en la tabla transaction
+        } catch (DataIntegrityViolationException e) {
+            if (!RestriccionUnica.violada(e, RestriccionUnica.TYPE))   // Otra restricción: la traduce el manejador
+                throw e;
             throw new RecursoDuplicadoException("Trámite de tipo = " + tramite.getType() + ", ya existe.");
-        return repositorio.save(tramite); // Ejecuta INSERT en la tabla transaction
+        }
+        TramiteResponseDTO dto = TramiteMapper.toDTO(guardado);
+        catalogo.publicarAlta(dto);
+        estadisticas.alta(dto.getStatus());
+        eventos.publicarAlta(dto);
+        return guardado;
     }
 
     /**
      * Actualiza únicamente el estado de un trámite existente.
-     * Busca el trámite por su status, asigna el nuevo status
-     * y persiste los cambios.
+     * Ejecuta un único UPDATE sin cargar la entidad; si no afecta filas
+     * el trámite no existe. En la misma transacción relee la fila, bloqueada
+     * por el UPDATE, para obtener su type canónico: la colación de la columna
+     * (utf8mb4_0900_ai_ci) no distingue mayúsculas ni acentos, por lo que puede
+     * diferir del type pedido, y la instantánea del catálogo se indexa por el canónico.
      * @param type clave única que identifica al trámite a modificar.
      * @param TramiteActualizado objeto que aporta el nuevo estado.
      * @return el Tramite con el estado actualizado.
      * @throws RecursoNoEncontradoException si no existe un trámite de ese type
      */
     public Tramite actualizarStatus(String type, Tramite TramiteActualizado) {
-        Optional<Tramite> opcional = repositorio.findByType(type);
-        if (!opcional.isPresent())
+        TramiteResponseDTO actualizado = transaccion.execute(estado -> {
+            if (repositorio.actualizarStatus(type, TramiteActualizado.getStatus()) == 0) // Ejecuta UPDATE en la tabla transaction
+                return null;
+            return repositorio.buscarDTOPorType(type).orElse(null);
+        });
+        if (actualizado == null)
             throw new RecursoNoEncontradoException("Trámite de tipo = " + type + ", no existe.");
-        Tramite tramite = opcional.get();
-        // Aplica los cambios permitidos
-        //tramite.setType(TramiteActualizado.getType());
-        tramite.setStatus(TramiteActualizado.getStatus());
-        return repositorio.save(tramite); // Ejecuta UPDATE en la tabla transaction
+        TramiteResponseDTO anterior = catalogo.publicarStatus(actualizado.getType(), actualizado.getStatus());
+        if (anterior != null)   // Si no figuraba, la reconciliación corrige los contadores
+            estadisticas.cambio(anterior.getStatus(), actualizado.getStatus());
+        eventos.publicarStatus(actualizado);
+        return new Tramite(actualizado.getIdTransaction(), actualizado.getType(), actualizado.getStatus(), actualizado.getIdUser());
     }
 
+    /**
+     * Acepta un cambio de estado en el buffer de escritura diferida, sin escribir
+     * en la base de datos: el cambio se vuelca junto con los demás pendientes y
+     * solo el último estado de cada type llega a escribirse. La instantánea del
+     * catálogo se publica de inmediato, por lo que esta instancia ya lo ve.
+     * El cambio queda pendiente bajo el type canónico (el de la instantánea o, si
+     * no figura en ella, el leído de la base de datos), igual que en actualizarStatus.
+     * @param type clave única que identifica al trámite a modificar.
+     * @param status nuevo estado.
+     * @return el trámite con el estado aceptado, o null si el buffer está lleno
+     *         y el cambio debe escribirse con actualizarStatus.
+     * @throws RecursoNoEncontradoException si no existe un trámite de ese type
+     */
+    public TramiteResponseDTO aceptarStatus(String type, Boolean status) {
+        TramiteResponseDTO publicado = catalogo.buscarPublicado(type);
+        if (publicado == null)  // Creado en otra instancia o pedido con otras mayúsculas o acentos: type canónico
+            publicado = repositorio.buscarDTOPorType(type)
+                    .orElseThrow(() -> new RecursoNoEncontradoException("Trámite de tipo = " + type + ", no existe."));
+        if (!diferida.aceptar(publicado.getType(), status))
+            return null;
+        TramiteResponseDTO dto = new TramiteResponseDTO(publicado.getIdTransaction(), publicado.getType(), status, publicado.getIdUser());
+        TramiteResponseDTO anterior = catalogo.publicarStatus(dto.getType(), status); // Relee el catálogo si el type no figura
+        if (anterior != null)
+            estadisticas.cambio(anterior.getStatus(), status);
+        eventos.publicarStatus(dto);
+        return dto;
+    }
+
+    /**
+     * Cambia el estado de muchos trámites en una sola sentencia UPDATE.
+     * Si se indica una lista de types se filtra por ella; si no, se
+     * modifican todos los trámites que tengan el estado actual indicado.
+     * @param types tipos a modificar, o null para filtrar por estado.
+     * @param statusActual estado actual de los trámites a modificar.
+     * @param status nuevo estado a asignar.
+     * @return cantidad de trámites modificados.
+     * @throws SolicitudInvalidaException si no se indica ningún criterio.
+     */
+    public int actualizarStatusMasivo(List<String> types, Boolean statusActual, Boolean status) {
+        diferida.volcar();  // Los cambios aceptados antes no deben pisar a este
+        InstantaneaCatalogo antes = catalogo.obtener();
+        int filas;
+        if (types != null && !types.isEmpty())
+            filas = repositorio.actualizarStatusPorTypes(types, status);
+        else if (statusActual != null)
+            filas = repositorio.actualizarStatusPorStatus(statusActual, status);
+        else
+            throw new SolicitudInvalidaException("Debe indicar types o statusActual.");
+        if (filas > 0)
+            publicarCambiosStatus(antes, catalogo.recargar());
+        return filas;
+    }
+
+    /**
+     * Elimina un trámite definido por su type.
+     * En una transacción bloquea la fila (SELECT ... FOR UPDATE), que aporta el
+     * type canónico con el que se indexa la instantánea, y la borra con un DELETE.
+     * @param type tipo único del trámite a borrar.
+     * @throws RecursoNoEncontradoException si no se encuentra el registro.
+     */
     public void eleminarTramite(String type) {
-        Optional<Tramite> opcional = repositorio.findByType(type);
-        if (!opcional.isPresent())
+        List<String> borrados = transaccion.execute(estado -> {
+            List<String> existentes = repositorio.bloquearTypesExistentes(List.of(type));
+            if (!existentes.isEmpty())
+                repositorio.eliminarPorType(type); // Ejecuta DELETE en la tabla transaction
+            return existentes;
+        });
+        if (borrados == null || borrados.isEmpty())
             throw new RecursoNoEncontradoException("Trámite de tipo = " + type + ", no existe.");
-        repositorio.delete(opcional.get()); // Ejecuta DELETE en la tabla transaction
+        diferida.descartar(borrados);
+        contarBajas(catalogo.publicarBajas(Set.copyOf(borrados)), borrados.size(), null);
+        for (String borrado : borrados)
+            eventos.publicarBaja(borrado);
+    }
+
+    /**
+     * Elimina muchos trámites en una sola transacción, sin cargar entidades.
+     * Si se indica una lista de types se borran por bloques con DELETE ... IN;
+     * si no, se borran con un único DELETE todos los trámites con el estado
+     * indicado. En ambos casos los types afectados se leen antes con un
+     * SELECT ... FOR UPDATE para informar exactamente qué se eliminó.
+     * @param types tipos a eliminar, o null para filtrar por estado.
+     * @param status estado de los trámites a eliminar.
+     * @return types eliminados e inexistentes.
+     * @throws SolicitudInvalidaException si no se indica ningún criterio.
+     */
+    @Transactional
+    public ResultadoBorradoDTO eliminarMasivo(List<String> types, Boolean status) {
+        ResultadoBorradoDTO resultado = new ResultadoBorradoDTO(new ArrayList<>(), new ArrayList<>());
+        Set<String> bajas = new HashSet<>();    // Types canónicos, tal como están en la base de datos
+        if (types != null && !types.isEmpty()) {
+            List<String> unicos = new ArrayList<>(new LinkedHashSet<>(types));
+            Collator colacion = colacion();
+            Set<CollationKey> claves = new HashSet<>();
+            for (int i = 0; i < unicos.size(); i += TAMANO_BLOQUE) {
+                List<String> existentes = repositorio.bloquearTypesExistentes(unicos.subList(i, Math.min(i + TAMANO_BLOQUE, unicos.size())));
+                if (!existentes.isEmpty())
+                    repositorio.eliminarPorTypes(existentes); // Ejecuta DELETE ... WHERE type IN (...)
+                bajas.addAll(existentes);
+                for (String existente : existentes)
+                    claves.add(colacion.getCollationKey(existente));
+            }
+            for (String type : unicos) {    // Los types pedidos pueden diferir de los canónicos en mayúsculas o acentos
+                if (claves.contains(colacion.getCollationKey(type)))
+                    resultado.getEliminados().add(type);
+                else
+                    resultado.getInexistentes().add(type);
+            }
+        } else if (status != null) {
+            resultado.getEliminados().addAll(repositorio.bloquearTypesPorStatus(status));
+            bajas.addAll(resultado.getEliminados());
+            if (!bajas.isEmpty())
+                repositorio.eliminarPorStatus(status); // Ejecuta DELETE ... WHERE status = ?
+        } else
+            throw new SolicitudInvalidaException("Debe indicar types o status.");
+        if (!bajas.isEmpty()) {
+            // La instantánea se publica solo si el borrado llega a confirmarse
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    diferida.descartar(bajas);
+                    contarBajas(catalogo.publicarBajas(bajas), bajas.size(), status);
+                    for (String type : bajas)
+                        eventos.publicarBaja(type);
+                }
+            });
+        }
+        return resultado;
+    }
+
+    /**
+     * Descuenta los trámites borrados con el estado que tenían en la instantánea,
+     * tomado al quitarlos; los que no figuraban se descuentan con el estado supuesto.
+     */
+    private void contarBajas(List<TramiteResponseDTO> quitados, int borrados, Boolean statusSupuesto) {
+        for (TramiteResponseDTO quitado : quitados)
+            estadisticas.baja(quitado.getStatus());
+        for (int i = quitados.size(); i < borrados; i++)
+            estadisticas.baja(statusSupuesto);
+    }
+
+    /**
+     * Publica un evento y ajusta los contadores por cada trámite cuyo estado
+     * difiere entre dos versiones del catálogo.
+     */
+    private void publicarCambiosStatus(InstantaneaCatalogo antes, InstantaneaCatalogo despues) {
+        Map<String, Boolean> previos = new HashMap<>(antes.getTramites().size() * 2);
+        for (TramiteResponseDTO dto : antes.getTramites())
+            previos.put(dto.getType(), dto.getStatus());
+        for (TramiteResponseDTO dto : despues.getTramites())
+            if (previos.containsKey(dto.getType()) && !Objects.equals(previos.get(dto.getType()), dto.getStatus())) {
+                estadisticas.cambio(previos.get(dto.getType()), dto.getStatus());
+                eventos.publicarStatus(dto);
+            }
+    }
+
+    /**
+     * Comparador equivalente a la colación utf8mb4_0900_ai_ci de la columna type:
+     * intensidad primaria, sin distinguir mayúsculas ni acentos. Cada llamada
+     * devuelve una instancia propia (Collator no es seguro entre hilos).
+     */
+    private static Collator colacion() {
+        Collator colacion = Collator.getInstance(Locale.ROOT);
+        colacion.setStrength(Collator.PRIMARY);
+        return colacion;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,12 @@
+-- Esquema de la tabla transaction para la base embebida (H2 en modo MySQL) del perfil
+-- "embebida", usado por las pruebas de carga de tramites-api y tramites-reactivo.
+-- Equivale al resultado de las migraciones V1..V3 de db/migration.
+CREATE TABLE IF NOT EXISTS `transaction` (
+    id_transaction BIGINT       NOT NULL AUTO_INCREMENT,
+    type           VARCHAR(255),
+    status         BOOLEAN,
+    id_user        BIGINT,
+    PRIMARY KEY (id_transaction),
+    CONSTRAINT uk_transaction_type UNIQUE (type)
+);
+CREATE INDEX IF NOT EXISTS ix_transaction_id_user ON `transaction` (id_user);
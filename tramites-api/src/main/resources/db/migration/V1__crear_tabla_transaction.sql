@@ -0,0 +1,7 @@
+-- Tabla de trámites. IF NOT EXISTS permite adoptar bases creadas antes por ddl-auto=update.
+CREATE TABLE IF NOT EXISTS `transaction` (
+    id_transaction BIGINT       NOT NULL AUTO_INCREMENT,
+    type           VARCHAR(255),
+    status         BIT(1),
+    PRIMARY KEY (id_transaction)
+) ENGINE = InnoDB;
@@ -0,0 +1,9 @@
+-- Índice único sobre type: findByType pasa de recorrer la tabla a una búsqueda por índice
+-- y garantiza la unicidad en la que se apoya crearTramite. Solo se crea si no existe
+-- (ddl-auto=update pudo haberlo agregado en bases anteriores).
+SET @existe := (SELECT COUNT(*) FROM information_schema.statistics
+                WHERE table_schema = DATABASE() AND table_name = 'transaction' AND index_name = 'uk_transaction_type');
+SET @ddl := IF(@existe = 0, 'ALTER TABLE `transaction` ADD CONSTRAINT uk_transaction_type UNIQUE (type)', 'DO 0');
+PREPARE sentencia FROM @ddl;
+EXECUTE sentencia;
+DEALLOCATE PREPARE sentencia;
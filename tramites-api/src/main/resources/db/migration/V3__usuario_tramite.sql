@@ -0,0 +1,4 @@
+-- Usuario dueño de cada trámite (id_user de usuarios-api; sin clave foránea porque
+-- la tabla user pertenece a otro servicio). El índice sirve a la vista por usuario.
+ALTER TABLE `transaction` ADD COLUMN id_user BIGINT NULL;
+CREATE INDEX ix_transaction_id_user ON `transaction` (id_user);
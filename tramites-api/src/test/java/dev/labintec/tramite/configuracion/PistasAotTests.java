@@ -0,0 +1,39 @@
+package dev.labintec.tramite.configuracion;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import dev.labintec.tramite.controlador.ManejadorExcepciones;
+import dev.labintec.tramite.dto.EstadisticasTramitesDTO;
+import dev.labintec.tramite.entidad.Tramite;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+
+/**
+ * Verifica que las pistas AOT cubren la entidad, los DTO de las consultas JPQL,
+ * el manejador de excepciones y los proxies JDBC de RegistroSql.
+ * @author Quique
+ */
+class PistasAotTests {
+
+    @Test
+    void registraReflexionYProxies() throws Exception {
+        RuntimeHints hints = new RuntimeHints();
+        new PistasAot().registerHints(hints, getClass().getClassLoader());
+
+        assertTrue(RuntimeHintsPredicates.reflection().onType(Tramite.class)
+                .withMemberCategories(MemberCategory.DECLARED_FIELDS, MemberCategory.INVOKE_DECLARED_CONSTRUCTORS).test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection()
+                .onConstructor(EstadisticasTramitesDTO.class.getConstructor(Long.class, Long.class, Long.class)).test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection().onType(ManejadorExcepciones.class)
+                .withMemberCategory(MemberCategory.INVOKE_PUBLIC_METHODS).test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection()
+                .onMethod(PreparedStatement.class.getMethod("executeQuery")).test(hints));
+        assertTrue(RuntimeHintsPredicates.proxies().forInterfaces(Connection.class).test(hints));
+        assertTrue(RuntimeHintsPredicates.proxies().forInterfaces(ResultSet.class).test(hints));
+    }
+}
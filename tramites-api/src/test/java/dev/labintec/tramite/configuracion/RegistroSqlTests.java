@@ -0,0 +1,99 @@
+package dev.labintec.tramite.configuracion;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.Duration;
+import java.util.List;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Verifica que RegistroSql cuenta parámetros y filas tanto con executeQuery()
+ * como con execute() seguido de getResultSet() o getUpdateCount().
+ * @author Quique
+ */
+class RegistroSqlTests {
+
+    private final ListAppender<ILoggingEvent> registros = new ListAppender<>();
+    private final Logger logger = (Logger) LoggerFactory.getLogger(RegistroSql.class);
+    private RegistroSql registro;
+
+    @BeforeEach
+    void iniciar() {
+        registros.start();
+        logger.addAppender(registros);
+        registro = new RegistroSql(true, 0, Duration.ZERO, 16);    // Umbral cero: todas se registran
+    }
+
+    @AfterEach
+    void terminar() {
+        logger.detachAppender(registros);
+    }
+
+    private Connection conectar(String sql, PreparedStatement sentencia) throws Exception {
+        Connection conexion = mock(Connection.class);
+        when(conexion.prepareStatement(sql)).thenReturn(sentencia);
+        DataSource dataSource = mock(DataSource.class);
+        when(dataSource.getConnection()).thenReturn(conexion);
+        return ((DataSource) registro.postProcessAfterInitialization(dataSource, "dataSource")).getConnection();
+    }
+
+    private List<String> escritos() throws Exception {
+        registro.cerrar();  // Espera al hilo escritor
+        return registros.list.stream().map(ILoggingEvent::getFormattedMessage).toList();
+    }
+
+    @Test
+    void executeSeguidoDeGetResultSetCuentaLasFilas() throws Exception {
+        String sql = "SELECT type FROM transaction WHERE status = ?";
+        PreparedStatement sentencia = mock(PreparedStatement.class);
+        ResultSet filas = mock(ResultSet.class);
+        when(sentencia.execute()).thenReturn(true);
+        when(sentencia.getResultSet()).thenReturn(filas);
+        when(filas.next()).thenReturn(true, true, true, false);
+
+        PreparedStatement instrumentada = conectar(sql, sentencia).prepareStatement(sql);
+        instrumentada.setBoolean(1, true);
+        if (instrumentada.execute()) {
+            ResultSet leidas = instrumentada.getResultSet();
+            while (leidas.next())
+                ;
+            leidas.close();
+        }
+
+        List<String> escritos = escritos();
+        assertEquals(1, escritos.size());
+        assertTrue(escritos.get(0).contains("parametros=1 filas=3"), escritos.get(0));
+    }
+
+    @Test
+    void executeSinResultSetTomaLasFilasModificadas() throws Exception {
+        String sql = "UPDATE transaction SET status = ? WHERE type = ?";
+        PreparedStatement sentencia = mock(PreparedStatement.class);
+        when(sentencia.execute()).thenReturn(false);
+        when(sentencia.getUpdateCount()).thenReturn(2);
+
+        PreparedStatement instrumentada = conectar(sql, sentencia).prepareStatement(sql);
+        instrumentada.setBoolean(1, false);
+        instrumentada.setString(2, "ALTA");
+        if (!instrumentada.execute())
+            instrumentada.getUpdateCount();
+        instrumentada.close();
+
+        List<String> escritos = escritos();
+        assertEquals(1, escritos.size());
+        assertTrue(escritos.get(0).contains("parametros=2 filas=2"), escritos.get(0));
+    }
+}
@@ -0,0 +1,39 @@
+package dev.labintec.tramite.repositorio;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+/**
+ * Verifica, sobre un MySQL real con las migraciones aplicadas, que la búsqueda
+ * por type usa el índice único en lugar de recorrer la tabla.
+ * Se omite si no hay Docker disponible.
+ * @author Quique
+ */
+@SpringBootTest
+@Testcontainers(disabledWithoutDocker = true)
+class TramiteRepositoryIndiceTests {
+
+    @Container
+    @ServiceConnection
+    static MySQLContainer<?> mysql = new MySQLContainer<>("mysql:8.4");
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @Test
+    void findByTypeUsaIndiceUnico() {
+        jdbc.update("INSERT INTO `transaction` (type, status) VALUES ('alta', 1), ('baja', 0), ('cambio', 1)");
+        Map<String, Object> plan = jdbc.queryForMap("EXPLAIN SELECT * FROM `transaction` WHERE type = ?", "baja");
+        assertEquals("uk_transaction_type", plan.get("key"));
+        assertEquals("const", plan.get("type"));
+    }
+}
@@ -0,0 +1,131 @@
+package dev.labintec.tramite.servicio;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.sun.net.httpserver.HttpServer;
+import dev.labintec.tramite.dto.UsuarioDTO;
+import dev.labintec.tramite.excepcion.ServicioNoDisponibleException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Verifica, contra un servidor local que simula usuarios-api, que
+ * ClienteUsuarios agrupa las búsquedas en llamadas por lote y usa su caché.
+ * El simulador conoce los usuarios con id entre 1 y 1000.
+ * @author Quique
+ */
+class ClienteUsuariosTests {
+
+    private HttpServer simulador;
+    private final AtomicInteger llamadas = new AtomicInteger();
+    private ClienteUsuarios cliente;
+
+    @BeforeEach
+    void iniciar() throws IOException {
+        simulador = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        simulador.createContext("/api/v1/usuarios/batch", intercambio -> {
+            llamadas.incrementAndGet();
+            String ids = intercambio.getRequestURI().getQuery().substring("ids=".length());
+            StringBuilder json = new StringBuilder("[");
+            for (String id : ids.split(",")) {
+                long valor = Long.parseLong(id);
+                if (valor < 1 || valor > 1000)
+                    continue;
+                if (json.length() > 1)
+                    json.append(',');
+                json.append("{\"idUser\":").append(valor).append(",\"username\":\"usuario-").append(valor).append("\"}");
+            }
+            byte[] cuerpo = json.append(']').toString().getBytes(StandardCharsets.UTF_8);
+            intercambio.getResponseHeaders().add("Content-Type", "application/json");
+            intercambio.sendResponseHeaders(200, cuerpo.length);
+            try (OutputStream salida = intercambio.getResponseBody()) {
+                salida.write(cuerpo);
+            }
+        });
+        simulador.start();
+        cliente = crearCliente("http://127.0.0.1:" + simulador.getAddress().getPort());
+    }
+
+    @AfterEach
+    void detener() {
+        cliente.cerrar();
+        simulador.stop(0);
+    }
+
+    @Test
+    void paginaDeCienTramitesEsUnaSolaLlamada() {
+        List<Long> ids = new ArrayList<>();
+        for (long id = 1; id <= 100; id++)
+            ids.add(id);
+        Map<Long, UsuarioDTO> usuarios = cliente.buscarTodos(ids);
+        assertEquals(100, usuarios.size());
+        assertEquals("usuario-42", usuarios.get(42L).getUsername());
+        assertEquals(1, llamadas.get());
+    }
+
+    @Test
+    void busquedasConcurrentesSeAgrupan() throws Exception {
+        int hilos = 32;
+        ExecutorService pool = Executors.newFixedThreadPool(hilos);
+        CountDownLatch largada = new CountDownLatch(1);
+        List<Future<UsuarioDTO>> resultados = new ArrayList<>();
+        for (int i = 0; i < hilos; i++) {
+            long id = 1 + (i % 8);   // Varias peticiones piden el mismo usuario
+            resultados.add(pool.submit(() -> {
+                largada.await();
+                return cliente.buscar(id);
+            }));
+        }
+        largada.countDown();
+        for (int i = 0; i < hilos; i++)
+            assertEquals(1 + (i % 8), resultados.get(i).get().getIdUser());
+        pool.shutdown();
+        assertTrue(llamadas.get() < 4, "Se esperaban pocas llamadas agrupadas, hubo " + llamadas.get());
+    }
+
+    @Test
+    void usuarioEnCacheNoGeneraLlamadas() {
+        cliente.buscar(7L);
+        cliente.buscar(7L);
+        cliente.buscarTodos(List.of(7L, 7L));
+        assertEquals(1, llamadas.get());
+    }
+
+    @Test
+    void usuarioInexistenteDevuelveNull() {
+        assertNull(cliente.buscar(5000L));
+        Map<Long, UsuarioDTO> usuarios = cliente.buscarTodos(List.of(1L, 5000L));
+        assertEquals(1, usuarios.size());
+    }
+
+    @Test
+    void servicioCaidoLanzaServicioNoDisponible() {
+        ClienteUsuarios caido = crearCliente("http://127.0.0.1:1");
+        try {
+            assertThrows(ServicioNoDisponibleException.class, () -> caido.buscar(1L));
+        } finally {
+            caido.cerrar();
+        }
+    }
+
+    private static ClienteUsuarios crearCliente(String url) {
+        return new ClienteUsuarios(url, Duration.ofMillis(20), 200, Duration.ofSeconds(30), 1000, Duration.ofSeconds(2));
+    }
+}
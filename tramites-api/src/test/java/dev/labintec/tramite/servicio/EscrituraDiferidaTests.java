@@ -0,0 +1,128 @@
+package dev.labintec.tramite.servicio;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import dev.labintec.tramite.dto.TramiteResponseDTO;
+import dev.labintec.tramite.repositorio.TramiteRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Verifica que EscrituraDiferida agrupa los cambios de estado por type, vuelca
+ * solo el último en una transacción y no pierde lo aceptado durante un volcado.
+ * @author Quique
+ */
+class EscrituraDiferidaTests {
+
+    private TramiteRepository repositorio;
+    private PlatformTransactionManager transacciones;
+    private EscrituraDiferida diferida;
+
+    @BeforeEach
+    void iniciar() {
+        repositorio = mock(TramiteRepository.class);
+        transacciones = mock(PlatformTransactionManager.class);
+        when(transacciones.getTransaction(any())).thenReturn(mock(TransactionStatus.class));
+        diferida = new EscrituraDiferida(true, 3);
+        ReflectionTestUtils.setField(diferida, "repositorio", repositorio);
+        ReflectionTestUtils.setField(diferida, "transaccion", new TransactionTemplate(transacciones));
+        ReflectionTestUtils.setField(diferida, "registro", new SimpleMeterRegistry());
+        diferida.registrarMetricas();
+    }
+
+    @Test
+    void soloElUltimoEstadoPorTypeLlegaALaBase() {
+        for (int i = 0; i < 100; i++)
+            diferida.aceptar("beca", i % 2 == 0);
+        diferida.aceptar("pase", true);
+        when(repositorio.actualizarStatusPorTypes(anyCollection(), anyBoolean())).thenAnswer(i -> ((Collection<?>) i.getArgument(0)).size());
+
+        assertEquals(2, diferida.volcar());
+        verify(repositorio).actualizarStatusPorTypes(List.of("beca"), false);   // El último de los 100
+        verify(repositorio).actualizarStatusPorTypes(List.of("pase"), true);
+        verify(transacciones, times(1)).commit(any());
+        assertEquals(0, diferida.volcar());     // Nada pendiente: ni transacción ni UPDATE
+        verify(transacciones, times(1)).getTransaction(any());
+    }
+
+    @Test
+    void cambioAceptadoDuranteElVolcadoQuedaPendiente() {
+        diferida.aceptar("beca", true);
+        when(repositorio.actualizarStatusPorTypes(anyCollection(), anyBoolean())).thenAnswer(i -> {
+            diferida.aceptar("beca", false);    // Llega mientras se escribe el anterior
+            return 1;
+        });
+        diferida.volcar();
+        TramiteResponseDTO leido = new TramiteResponseDTO(1L, "beca", true, null);
+        assertFalse(diferida.aplicar(leido).getStatus());
+    }
+
+    @Test
+    void volcadoFallidoConservaLosPendientes() {
+        diferida.aceptar("beca", true);
+        when(repositorio.actualizarStatusPorTypes(anyCollection(), anyBoolean())).thenThrow(new QueryTimeoutException("caída"));
+        assertThrows(QueryTimeoutException.class, diferida::volcar);
+        diferida.volcarPeriodicamente();    // Registra el error y no lanza
+        assertTrue(diferida.aplicar(new TramiteResponseDTO(1L, "beca", false, null)).getStatus());
+    }
+
+    @Test
+    void lecturasVenLosCambiosPendientes() {
+        TramiteResponseDTO beca = new TramiteResponseDTO(1L, "beca", false, 7L);
+        TramiteResponseDTO pase = new TramiteResponseDTO(2L, "pase", false, null);
+        List<TramiteResponseDTO> leidos = List.of(beca, pase);
+        assertSame(leidos, diferida.aplicar(leidos));
+        diferida.aceptar("beca", true);
+        List<TramiteResponseDTO> vistos = diferida.aplicar(leidos);
+        assertEquals(new TramiteResponseDTO(1L, "beca", true, 7L), vistos.get(0));
+        assertSame(pase, vistos.get(1));
+        diferida.descartar("beca");
+        assertSame(beca, diferida.aplicar(beca));
+    }
+
+    @Test
+    void pendientesDeTramitesBorradosSeDescartan() {
+        diferida.aceptar("beca", true);
+        diferida.aceptar("pase", false);
+        diferida.aceptar("tesis", true);
+        diferida.descartar(List.of("beca", "tesis", "inexistente"));
+        when(repositorio.actualizarStatusPorTypes(anyCollection(), anyBoolean())).thenReturn(1);
+
+        assertEquals(1, diferida.volcar());
+        verify(repositorio).actualizarStatusPorTypes(List.of("pase"), false);
+        verify(repositorio, never()).actualizarStatusPorTypes(anyCollection(), eq(true));   // Ningún UPDATE sobre filas borradas
+        TramiteResponseDTO beca = new TramiteResponseDTO(1L, "beca", false, null);
+        assertSame(beca, diferida.aplicar(beca));
+    }
+
+    @Test
+    void bufferLlenoRechazaTypesNuevos() {
+        for (String type : Set.of("a", "b", "c"))
+            assertTrue(diferida.aceptar(type, true));
+        assertFalse(diferida.aceptar("d", true));
+        assertTrue(diferida.aceptar("a", false));   // Reemplazar un pendiente no ocupa lugar
+        verify(repositorio, never()).actualizarStatusPorTypes(anyCollection(), anyBoolean());
+    }
+}
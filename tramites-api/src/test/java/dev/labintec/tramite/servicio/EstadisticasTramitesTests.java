@@ -0,0 +1,69 @@
+package dev.labintec.tramite.servicio;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import dev.labintec.tramite.dto.EstadisticasTramitesDTO;
+import dev.labintec.tramite.dto.TramiteResponseDTO;
+import dev.labintec.tramite.repositorio.TramiteRepository;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * Verifica que los contadores de trámites se ajustan con cada escritura y
+ * que la reconciliación corrige el desvío contra la base de datos.
+ * @author Quique
+ */
+class EstadisticasTramitesTests {
+
+    private TramiteRepository repositorio;
+    private EstadisticasTramites estadisticas;
+    private EscrituraDiferida diferida;
+
+    @BeforeEach
+    void iniciar() {
+        repositorio = mock(TramiteRepository.class);
+        when(repositorio.contarPorStatus()).thenReturn(new EstadisticasTramitesDTO(10L, 4L, 6L));
+        estadisticas = new EstadisticasTramites();
+        diferida = new EscrituraDiferida(true, 100);
+        ReflectionTestUtils.setField(estadisticas, "repositorio", repositorio);
+        ReflectionTestUtils.setField(estadisticas, "diferida", diferida);
+        estadisticas.iniciar();
+    }
+
+    @Test
+    void escriturasAjustanLosContadores() {
+        assertEquals(new EstadisticasTramitesDTO(10L, 4L, 6L), estadisticas.obtener());
+        estadisticas.alta(true);
+        estadisticas.alta(null);                // Sin estado: inactivo
+        estadisticas.cambio(false, true);
+        estadisticas.cambio(true, true);        // Sin transición
+        estadisticas.baja(false);
+        assertEquals(new EstadisticasTramitesDTO(11L, 6L, 5L), estadisticas.obtener());
+    }
+
+    @Test
+    void reconciliacionCorrigeElDesvio() {
+        estadisticas.cambio(false, true);       // Por ejemplo, un cambio que otra instancia revirtió
+        estadisticas.alta(false);
+        when(repositorio.contarPorStatus()).thenReturn(new EstadisticasTramitesDTO(12L, 3L, 9L));
+        estadisticas.reconciliar();
+        assertEquals(new EstadisticasTramitesDTO(12L, 3L, 9L), estadisticas.obtener());
+    }
+
+    @Test
+    void reconciliacionConservaLosCambiosPendientes() {
+        diferida.aceptar("beca", true);     // Escrito inactivo, pendiente activo
+        diferida.aceptar("pase", false);    // Escrito inactivo, sin transición
+        diferida.aceptar("borrado", true);  // Ya no existe en la base
+        when(repositorio.listarDTOPorTypes(anyList())).thenReturn(List.of(
+                new TramiteResponseDTO(1L, "beca", false, null), new TramiteResponseDTO(2L, "pase", false, null)));
+        estadisticas.cambio(false, true);   // El cambio de beca ya contado al aceptarlo
+        estadisticas.reconciliar();
+        assertEquals(new EstadisticasTramitesDTO(10L, 5L, 5L), estadisticas.obtener());
+    }
+}
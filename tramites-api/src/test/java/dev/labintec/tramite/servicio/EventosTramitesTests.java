@@ -0,0 +1,91 @@
+package dev.labintec.tramite.servicio;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.labintec.tramite.dto.TramiteResponseDTO;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Verifica que un suscriptor que nunca lee no retiene el único hilo de envío:
+ * vencido el plazo de escritura se lo descarta y los demás siguen recibiendo.
+ * @author Quique
+ */
+class EventosTramitesTests {
+
+    private final MeterRegistry registro = new SimpleMeterRegistry();
+    private final CountDownLatch liberar = new CountDownLatch(1);
+    private final BlockingQueue<SseEmitter> emisores = new LinkedBlockingQueue<>();
+    private EventosTramites eventos;
+
+    @BeforeEach
+    void iniciar() {
+        eventos = new EventosTramites(16, 8, 10, Duration.ofMinutes(1), 1, Duration.ofMillis(100)) {
+            @Override
+            SseEmitter crearEmisor(long duracionMs) {
+                return emisores.remove();
+            }
+        };
+        ReflectionTestUtils.setField(eventos, "mapper", new ObjectMapper());
+        ReflectionTestUtils.setField(eventos, "registro", registro);
+        eventos.registrarMetricas();
+    }
+
+    @AfterEach
+    void terminar() {
+        liberar.countDown();
+        eventos.cerrar();
+    }
+
+    @Test
+    void suscriptorQueNoLeeNoRetieneElHiloDeEnvio() throws Exception {
+        CountDownLatch bloqueado = new CountDownLatch(1);
+        emisores.add(new SseEmitter() {
+            @Override
+            public void send(SseEventBuilder evento) {
+                bloqueado.countDown();
+                while (true) {  // Como un socket sin leer: ni la interrupción lo destraba
+                    try {
+                        if (liberar.await(10, TimeUnit.SECONDS))
+                            return;
+                    } catch (InterruptedException e) {
+                        // Sigue bloqueado
+                    }
+                }
+            }
+        });
+        eventos.suscribir(null, null);
+        eventos.publicarAlta(new TramiteResponseDTO(1L, "alta", true, 1L));
+        assertTrue(bloqueado.await(5, TimeUnit.SECONDS));
+
+        BlockingQueue<SseEmitter.SseEventBuilder> recibidos = new LinkedBlockingQueue<>();
+        emisores.add(new SseEmitter() {
+            @Override
+            public void send(SseEventBuilder evento) throws IOException {
+                recibidos.add(evento);
+            }
+        });
+        eventos.suscribir(null, null);
+        eventos.publicarAlta(new TramiteResponseDTO(2L, "baja", true, 1L));
+
+        Thread.sleep(200);  // Supera el plazo de escritura
+        eventos.vigilar();
+
+        assertTrue(recibidos.poll(5, TimeUnit.SECONDS) != null, "El segundo suscriptor no recibió el evento");
+        assertEquals(1.0, registro.get("tramites.eventos.desconectados").tag("motivo", "plazo").counter().count());
+        assertEquals(1.0, registro.get("tramites.eventos.suscriptores").gauge().value());
+    }
+}
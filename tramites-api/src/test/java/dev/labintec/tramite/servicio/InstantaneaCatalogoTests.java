@@ -0,0 +1,50 @@
+package dev.labintec.tramite.servicio;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.labintec.tramite.dto.TramiteResponseDTO;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Verifica que las versiones derivadas de la instantánea, que solo serializan el
+ * trámite que cambió, producen el mismo JSON que serializar el catálogo entero.
+ * @author Quique
+ */
+class InstantaneaCatalogoTests {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    private final TramiteResponseDTO alta = new TramiteResponseDTO(1L, "alta", true, 1L);
+    private final TramiteResponseDTO baja = new TramiteResponseDTO(2L, "baja", false, 1L);
+    private final TramiteResponseDTO cambio = new TramiteResponseDTO(3L, "cambio", true, 2L);
+
+    @Test
+    void derivadasCoincidenConSerializarTodo() throws Exception {
+        InstantaneaCatalogo inicial = InstantaneaCatalogo.de(1, List.of(alta, baja), mapper);
+        assertArrayEquals(mapper.writeValueAsBytes(List.of(alta, baja)), inicial.getListaJson());
+
+        TramiteResponseDTO bajaInactiva = new TramiteResponseDTO(2L, "baja", true, 1L);
+        InstantaneaCatalogo derivada = inicial.con(cambio, mapper).con(bajaInactiva, mapper).sin(Set.of("alta"));
+        List<TramiteResponseDTO> esperados = List.of(bajaInactiva, cambio);
+        assertEquals(4, derivada.getVersion());
+        assertEquals(esperados, derivada.getTramites());
+        assertArrayEquals(mapper.writeValueAsBytes(esperados), derivada.getListaJson());
+        assertEquals(InstantaneaCatalogo.de(9, esperados, mapper).getEtag(), derivada.getEtag());
+        assertArrayEquals(mapper.writeValueAsBytes(bajaInactiva), derivada.getJsonPorType().get("baja"));
+        assertEquals(cambio, derivada.buscar("cambio"));
+        assertNull(derivada.buscar("alta"));
+        assertNull(derivada.getJsonPorType().get("alta"));
+    }
+
+    @Test
+    void catalogoVacio() throws Exception {
+        InstantaneaCatalogo vacia = InstantaneaCatalogo.de(1, List.of(alta), mapper).sin(Set.of("alta"));
+        assertArrayEquals(mapper.writeValueAsBytes(List.of()), vacia.getListaJson());
+        assertEquals(List.of(), vacia.getTramites());
+    }
+}
@@ -0,0 +1,15 @@
+package dev.labintec.tramite.reactivo;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+@SpringBootApplication
+@EnableScheduling
+public class TramitesReactivoApplication {
+
+	public static void main(String[] args) {
+		SpringApplication.run(TramitesReactivoApplication.class, args);
+	}
+
+}
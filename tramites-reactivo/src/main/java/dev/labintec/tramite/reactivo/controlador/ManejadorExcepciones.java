@@ -0,0 +1,107 @@
+package dev.labintec.tramite.reactivo.controlador;
+
+import java.time.LocalDateTime;
+import dev.labintec.tramite.dto.ErrorDTO;
+import dev.labintec.tramite.excepcion.RecursoDuplicadoException;
+import dev.labintec.tramite.excepcion.RecursoNoEncontradoException;
+import dev.labintec.tramite.excepcion.RestriccionUnica;
+import dev.labintec.tramite.excepcion.ServicioNoDisponibleException;
+import dev.labintec.tramite.excepcion.SolicitudInvalidaException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+/**
+ * Manejo de errores de la variante reactiva, con el mismo contrato que
+ * tramites-api: cuerpo ErrorDTO con marca temporal, código HTTP,
+ * descripción, detalle y ruta.
+ * Excepciones gestionadas:
+ *  - RecursoNoEncontradoException → HTTP 404 Not Found
+ *  - RecursoDuplicadoException    → HTTP 409 Conflict
+ *  - DataIntegrityViolationException → HTTP 409 Conflict si viola el índice único,
+ *    HTTP 400 Bad Request si viola otra restricción
+ *  - SolicitudInvalidaException   → HTTP 400 Bad Request
+ *  - ServicioNoDisponibleException → HTTP 503 Service Unavailable (con Retry-After)
+ * @author Quique
+ */
+@RestControllerAdvice // Intercepta excepciones en todos los @RestController
+public class ManejadorExcepciones {
+
+    /**
+     * Construye la respuesta para ausencia de recurso.
+     * @param e excepción que indica que el recurso no existe.
+     * @param request objeto que aporta la ruta de la petición.
+     * @return ResponseEntity con cuerpo de error y estado 404.
+     */
+    @ExceptionHandler(RecursoNoEncontradoException.class)
+    public ResponseEntity<ErrorDTO> manejarRecursoNoEncontrado(RecursoNoEncontradoException e, ServerHttpRequest request) {
+        ErrorDTO error = new ErrorDTO(LocalDateTime.now(), HttpStatus.NOT_FOUND.value(),
+                "Recurso no encontrado", e.getMessage(), request.getPath().value());
+        return new ResponseEntity<>(error, HttpStatus.NOT_FOUND);
+    }
+
+    /**
+     * Construye la respuesta para recurso duplicado.
+     * @param e excepción que indica conflicto de recursos
+     * @param request objeto que aporta la ruta de la petición
+     * @return ResponseEntity con cuerpo de error y estado 409
+     */
+    @ExceptionHandler(RecursoDuplicadoException.class)
+    public ResponseEntity<ErrorDTO> manejarRecursoDuplicado(RecursoDuplicadoException e, ServerHttpRequest request) {
+        ErrorDTO error = new ErrorDTO(LocalDateTime.now(), HttpStatus.CONFLICT.value(),
+                "Recurso duplicado", e.getMessage(), request.getPath().value());
+        return new ResponseEntity<>(error, HttpStatus.CONFLICT);
+    }
+
+    /**
+     * Traduce una violación del índice único no capturada por el servicio (por
+     * ejemplo, en un lote) al mismo contrato 409. Cualquier otra restricción
+     * (NOT NULL, largo de columna) la incumplen los datos enviados: 400.
+     * @param e excepción de integridad lanzada por la capa de datos
+     * @param request objeto que aporta la ruta de la petición
+     * @return ResponseEntity con cuerpo de error y estado 409 o 400
+     */
+    @ExceptionHandler(DataIntegrityViolationException.class)
+    public ResponseEntity<ErrorDTO> manejarViolacionIntegridad(DataIntegrityViolationException e, ServerHttpRequest request) {
+        if (!RestriccionUnica.violada(e, RestriccionUnica.TYPE)) {
+            ErrorDTO error = new ErrorDTO(LocalDateTime.now(), HttpStatus.BAD_REQUEST.value(),
+                    "Solicitud inválida", "Los datos no cumplen una restricción de la base de datos.", request.getPath().value());
+            return new ResponseEntity<>(error, HttpStatus.BAD_REQUEST);
+        }
+        ErrorDTO error = new ErrorDTO(LocalDateTime.now(), HttpStatus.CONFLICT.value(),
+                "Recurso duplicado", "El recurso ya existe.", request.getPath().value());
+        return new ResponseEntity<>(error, HttpStatus.CONFLICT);
+    }
+
+    /**
+     * Construye la respuesta para parámetros de petición inválidos.
+     * @param e excepción que indica el parámetro rechazado
+     * @param request objeto que aporta la ruta de la petición
+     * @return ResponseEntity con cuerpo de error y estado 400
+     */
+    @ExceptionHandler(SolicitudInvalidaException.class)
+    public ResponseEntity<ErrorDTO> manejarSolicitudInvalida(SolicitudInvalidaException e, ServerHttpRequest request) {
+        ErrorDTO error = new ErrorDTO(LocalDateTime.now(), HttpStatus.BAD_REQUEST.value(),
+                "Solicitud inválida", e.getMessage(), request.getPath().value());
+        return new ResponseEntity<>(error, HttpStatus.BAD_REQUEST);
+    }
+
+    /**
+     * Construye la respuesta cuando usuarios-api no está disponible.
+     * @param e excepción que indica el servicio que falló
+     * @param request objeto que aporta la ruta de la petición
+     * @return ResponseEntity con cuerpo de error, cabecera Retry-After y estado 503
+     */
+    @ExceptionHandler(ServicioNoDisponibleException.class)
+    public ResponseEntity<ErrorDTO> manejarServicioNoDisponible(ServicioNoDisponibleException e, ServerHttpRequest request) {
+        ErrorDTO error = new ErrorDTO(LocalDateTime.now(), HttpStatus.SERVICE_UNAVAILABLE.value(),
+                "Servicio no disponible", e.getMessage(), request.getPath().value());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")                   // Segundos sugeridos antes de reintentar
+                .body(error);
+    }
+}
@@ -0,0 +1,228 @@
+package dev.labintec.tramite.reactivo.controlador;
+
+import dev.labintec.tramite.dto.BorradoMasivoDTO;
+import dev.labintec.tramite.dto.CambioStatusMasivoDTO;
+import dev.labintec.tramite.dto.CursorTramite;
+import dev.labintec.tramite.dto.PaginaTramitesDTO;
+import dev.labintec.tramite.dto.ResultadoBorradoDTO;
+import dev.labintec.tramite.dto.ResultadoMasivoDTO;
+import dev.labintec.tramite.dto.TramiteConUsuarioDTO;
+import dev.labintec.tramite.dto.TramiteRequestDTO;
+import dev.labintec.tramite.dto.TramiteResponseDTO;
+import dev.labintec.tramite.dto.TramitesUsuarioDTO;
+import dev.labintec.tramite.excepcion.SolicitudInvalidaException;
+import dev.labintec.tramite.reactivo.servicio.CatalogoTramites;
+import dev.labintec.tramite.reactivo.servicio.TramiteService;
+import jakarta.validation.Valid;
+import java.util.List;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Controlador REST reactivo para la gestión de trámites.
+ * Expone los mismos endpoints, DTO y códigos de estado que el
+ * TramiteController de tramites-api, sobre WebFlux y R2DBC.
+ *
+ * Endpoints:
+ *  - GET /api/v1/tramites                 → lista todos los trámites (ETag / 304)
+ *  - GET /api/v1/tramites/export          → exporta todos los trámites en NDJSON (streaming)
+ *  - GET /api/v1/tramites/{id}            → obtiene trámite por ID
+ *  - GET /api/v1/tramites/type/{type}     → obtiene trámite por type (ETag / 304)
+ *  - GET /api/v1/tramites/usuario/{idUser} → lista los trámites de un usuario con su username
+ *  - GET /api/v1/tramites/con-usuario?limit=&after= → página de trámites con el username de cada dueño
+ *  - POST /api/v1/tramites                → crea un nuevo trámite
+ *  - PUT /api/v1/tramites/{type}          → actualiza el estado de un trámite
+ *  - PUT /api/v1/tramites/status          → cambia el estado de muchos trámites a la vez
+ *  - DELETE /api/v1/tramites/{type}       → elimina un trámite por type
+ *  - DELETE /api/v1/tramites              → elimina muchos trámites por types o por estado
+ * @author Quique
+ */
+@RestController
+@RequestMapping("api/v1/tramites")
+public class TramiteController {
+
+    @Autowired
+    private TramiteService servicio;
+
+    @Value("${tramites.lote.tamano-maximo:5000}")
+    private int loteMaximo;
+
+    @Value("${tramites.paginacion.limite-defecto:50}")
+    private int limiteDefecto;
+
+    @Value("${tramites.paginacion.limite-maximo:500}")
+    private int limiteMaximo;
+
+    @Autowired
+    private CatalogoTramites catalogo;
+
+    /**
+     * Lista todos los trámites registrados desde la instantánea en memoria.
+     * @param exchange intercambio que aporta las cabeceras condicionales.
+     * @return JSON con la colección de TramiteResponseDTO o 304 sin cuerpo.
+     */
+    @GetMapping
+    public Mono<ResponseEntity<byte[]>> listarTramites(ServerWebExchange exchange) {
+        return catalogo.obtener().map(instantanea -> {
+            if (exchange.checkNotModified(instantanea.getEtag()))
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(instantanea.getEtag()).build();
+            return ResponseEntity.ok()
+                    .eTag(instantanea.getEtag())
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(instantanea.getListaJson());
+        });
+    }
+
+    /**
+     * Exporta todos los trámites como NDJSON (un objeto JSON por línea).
+     * Las filas se escriben a medida que llegan de la base de datos y la
+     * contrapresión del socket regula la lectura, con memoria constante.
+     * @return flujo con un TramiteResponseDTO por línea.
+     */
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<TramiteResponseDTO> exportarTramites() {
+        return servicio.recorrerTodos();
+    }
+
+    /**
+     * Recupera un trámite por su identificador.
+     * @param id clave primaria del trámite.
+     * @return TramiteResponseDTO asociado al ID.
+     */
+    @GetMapping("/{id}")
+    @ResponseStatus(HttpStatus.OK)
+    public Mono<TramiteResponseDTO> obtenerPorId(@PathVariable Long id) {
+        return servicio.obtenerPorId(id);
+    }
+
+    /**
+     * Recupera un trámite por su type único desde la instantánea en memoria.
+     * Si el type no figura en la instantánea se consulta la base de datos.
+     * @param type cadena que identifica al trámite.
+     * @param exchange intercambio que aporta las cabeceras condicionales.
+     * @return JSON del TramiteResponseDTO asociado al type o 304 sin cuerpo.
+     */
+    @GetMapping("/type/{type}")
+    public Mono<ResponseEntity<?>> obtenerPorType(@PathVariable String type, ServerWebExchange exchange) {
+        return catalogo.obtener().flatMap(instantanea -> {
+            byte[] json = instantanea.getJsonPorType().get(type);
+            if (json == null)
+                return servicio.obtenerPorType(type).map(ResponseEntity::ok); // Proyección o 404
+            if (exchange.checkNotModified(instantanea.getEtag()))
+                return Mono.just(ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(instantanea.getEtag()).build());
+            return Mono.just(ResponseEntity.ok()
+                    .eTag(instantanea.getEtag())
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(json));
+        });
+    }
+
+    /**
+     * Lista los trámites de un usuario junto con su nombre de usuario.
+     * @param idUser identificador del usuario.
+     * @return TramitesUsuarioDTO con el username y los trámites.
+     */
+    @GetMapping("/usuario/{idUser}")
+    @ResponseStatus(HttpStatus.OK)
+    public Mono<TramitesUsuarioDTO> listarPorUsuario(@PathVariable Long idUser) {
+        return servicio.listarPorUsuario(idUser);
+    }
+
+    /**
+     * Lista trámites paginando por cursor sobre id_transaction, cada uno con
+     * el username de su dueño.
+     * @param limit cantidad máxima de trámites por página.
+     * @param after cursor opaco devuelto en la página anterior.
+     * @return página con TramiteConUsuarioDTO y el cursor siguiente.
+     */
+    @GetMapping("/con-usuario")
+    @ResponseStatus(HttpStatus.OK)
+    public Mono<PaginaTramitesDTO> listarConUsuario(@RequestParam(required = false) Integer limit,
+                                                   @RequestParam(required = false) String after) {
+        int limite = (limit == null) ? limiteDefecto : limit;
+        if (limite < 1 || limite > limiteMaximo)
+            throw new SolicitudInvalidaException("Limit = " + limite + ", debe estar entre 1 y " + limiteMaximo + ".");
+        // Pide una fila extra para saber si existe una página siguiente
+        return servicio.listarPaginaConUsuario(CursorTramite.decodificar(after), limite + 1).map(tramites -> {
+            if (tramites.size() <= limite)
+                return new PaginaTramitesDTO(tramites, null);
+            List<TramiteConUsuarioDTO> pagina = tramites.subList(0, limite);
+            return new PaginaTramitesDTO(pagina, CursorTramite.codificar(pagina.get(limite - 1).getIdTransaction()));
+        });
+    }
+
+    /**
+     * Crea un trámite nuevo a partir de datos validados.
+     * @param dto datos de creación en TramiteRequestDTO.
+     * @return TramiteResponseDTO con el tramite persistido.
+     */
+    @PostMapping
+    @ResponseStatus(HttpStatus.CREATED)
+    public Mono<TramiteResponseDTO> crearTramite(@Valid @RequestBody TramiteRequestDTO dto) {
+        return servicio.crearTramite(dto);
+    }
+
+    /**
+     * Actualiza el estado de un trámite existente identificado por type.
+     * @param type tipo único del trámite a modificar.
+     * @param dto datos nuevos en TramiteRequestDTO.
+     * @return TramiteResponseDTO con los cambios aplicados.
+     */
+    @PutMapping("/{type}")
+    @ResponseStatus(HttpStatus.OK)
+    public Mono<TramiteResponseDTO> actualizarStatus(@PathVariable String type, @Valid @RequestBody TramiteRequestDTO dto) {
+        return servicio.actualizarStatus(type, dto.getStatus());
+    }
+
+    /**
+     * Cambia el estado de muchos trámites con una sola sentencia UPDATE.
+     * @param dto criterio de selección y nuevo estado.
+     * @return ResultadoMasivoDTO con la cantidad de trámites modificados.
+     */
+    @PutMapping("/status")
+    @ResponseStatus(HttpStatus.OK)
+    public Mono<ResultadoMasivoDTO> actualizarStatusMasivo(@Valid @RequestBody CambioStatusMasivoDTO dto) {
+        return servicio.actualizarStatusMasivo(dto.getTypes(), dto.getStatusActual(), dto.getStatus())
+                .map(ResultadoMasivoDTO::new);
+    }
+
+    /**
+     * Elimina un trámite existente por su nombre único.
+     * @param type tipo único del trámite a borrar
+     * @return vacío al terminar
+     */
+    @DeleteMapping("/{type}")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public Mono<Void> eliminarTramite(@PathVariable String type) {
+        return servicio.eleminarTramite(type);
+    }
+
+    /**
+     * Elimina muchos trámites con un borrado por conjuntos.
+     * @param dto criterio de selección.
+     * @return ResultadoBorradoDTO con los types eliminados e inexistentes.
+     */
+    @DeleteMapping
+    @ResponseStatus(HttpStatus.OK)
+    public Mono<ResultadoBorradoDTO> eliminarTramites(@Valid @RequestBody BorradoMasivoDTO dto) {
+        if (dto.getTypes() != null && dto.getTypes().size() > loteMaximo)
+            throw new SolicitudInvalidaException("El lote debe tener a lo sumo " + loteMaximo + " trámites.");
+        return servicio.eliminarMasivo(dto.getTypes(), dto.getStatus());
+    }
+}
@@ -0,0 +1,206 @@
+package dev.labintec.tramite.reactivo.repositorio;
+
+import dev.labintec.tramite.dto.TramiteResponseDTO;
+import io.r2dbc.spi.Readable;
+import java.util.Collection;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Acceso reactivo a la tabla "transaction" mediante R2DBC.
+ * Ejecuta las mismas sentencias que el repositorio JPA de tramites-api:
+ * lecturas proyectadas directamente a TramiteResponseDTO, escrituras con
+ * un único UPDATE o DELETE y lecturas bloqueantes (FOR UPDATE) para los
+ * borrados masivos. Ninguna operación bloquea un hilo.
+ * @author Quique
+ */
+@Repository
+public class TramiteRepository {
+
+    private static final String SELECT_DTO = "SELECT id_transaction, type, status, id_user FROM `transaction`";
+
+    @Autowired // Cliente R2DBC sobre el pool de conexiones reactivo
+    private DatabaseClient db;
+
+    /**
+     * Proyección de todos los trámites, ordenados por id_transaction.
+     * @return DTO de todos los trámites, emitidos a medida que llegan las filas
+     */
+    public Flux<TramiteResponseDTO> listar() {
+        return db.sql(SELECT_DTO + " ORDER BY id_transaction").map(TramiteRepository::leer).all();
+    }
+
+    /**
+     * Proyección de un trámite por su identificador.
+     * @param idTransaction clave primaria
+     * @return DTO del trámite, o vacío si no existe
+     */
+    public Mono<TramiteResponseDTO> buscarPorId(Long idTransaction) {
+        return db.sql(SELECT_DTO + " WHERE id_transaction = :idTransaction")
+                .bind("idTransaction", idTransaction)
+                .map(TramiteRepository::leer)
+                .one();
+    }
+
+    /**
+     * Proyección de un trámite por su type.
+     * @param type tipo único
+     * @return DTO del trámite, o vacío si no existe
+     */
+    public Mono<TramiteResponseDTO> buscarPorType(String type) {
+        return db.sql(SELECT_DTO + " WHERE type = :type")
+                .bind("type", type)
+                .map(TramiteRepository::leer)
+                .one();
+    }
+
+    /**
+     * Proyección de los trámites de un usuario, ordenados por id_transaction.
+     * @param idUser identificador del usuario dueño
+     * @return DTO de los trámites del usuario
+     */
+    public Flux<TramiteResponseDTO> listarPorUsuario(Long idUser) {
+        return db.sql(SELECT_DTO + " WHERE id_user = :idUser ORDER BY id_transaction")
+                .bind("idUser", idUser)
+                .map(TramiteRepository::leer)
+                .all();
+    }
+
+    /**
+     * Recupera la siguiente página de trámites a partir de un id_transaction (keyset).
+     * @param idTransaction último identificador ya entregado al cliente
+     * @param limite cantidad máxima de filas a devolver
+     * @return DTO de los trámites con id_transaction mayor al indicado, en orden ascendente
+     */
+    public Flux<TramiteResponseDTO> listarPagina(long idTransaction, int limite) {
+        return db.sql(SELECT_DTO + " WHERE id_transaction > :idTransaction ORDER BY id_transaction LIMIT :limite")
+                .bind("idTransaction", idTransaction)
+                .bind("limite", limite)
+                .map(TramiteRepository::leer)
+                .all();
+    }
+
+    /**
+     * Inserta un trámite y devuelve el identificador generado.
+     * La unicidad de type la garantiza el índice uk_transaction_type.
+     * @param type tipo único del trámite
+     * @param status estado inicial
+     * @param idUser usuario dueño, o null
+     * @return id_transaction asignado por la base de datos
+     */
+    public Mono<Long> insertar(String type, Boolean status, Long idUser) {
+        DatabaseClient.GenericExecuteSpec sentencia = db.sql("INSERT INTO `transaction` (type, status, id_user) VALUES (:type, :status, :idUser)")
+                .bind("type", type)
+                .bind("status", status);
+        sentencia = (idUser == null) ? sentencia.bindNull("idUser", Long.class) : sentencia.bind("idUser", idUser);
+        return sentencia.filter(s -> s.returnGeneratedValues("id_transaction"))
+                .map(fila -> fila.get(0, Long.class))
+                .one();
+    }
+
+    /**
+     * Cambia el estado de un trámite con un único UPDATE.
+     * @param type tipo único del trámite
+     * @param status nuevo estado
+     * @return cantidad de filas afectadas (0 si el type no existe)
+     */
+    public Mono<Long> actualizarStatus(String type, Boolean status) {
+        return db.sql("UPDATE `transaction` SET status = :status WHERE type = :type")
+                .bind("status", status)
+                .bind("type", type)
+                .fetch().rowsUpdated();
+    }
+
+    /**
+     * Cambia el estado de todos los trámites cuyos types figuran en la colección.
+     * @param types tipos a modificar
+     * @param status nuevo estado
+     * @return cantidad de filas afectadas
+     */
+    public Mono<Long> actualizarStatusPorTypes(Collection<String> types, Boolean status) {
+        return db.sql("UPDATE `transaction` SET status = :status WHERE type IN (:types)")
+                .bind("status", status)
+                .bind("types", types)
+                .fetch().rowsUpdated();
+    }
+
+    /**
+     * Cambia el estado de todos los trámites que tienen un estado dado.
+     * @param statusActual estado que deben tener los trámites afectados
+     * @param status nuevo estado
+     * @return cantidad de filas afectadas
+     */
+    public Mono<Long> actualizarStatusPorStatus(Boolean statusActual, Boolean status) {
+        return db.sql("UPDATE `transaction` SET status = :status WHERE status = :statusActual")
+                .bind("status", status)
+                .bind("statusActual", statusActual)
+                .fetch().rowsUpdated();
+    }
+
+    /**
+     * Devuelve cuáles de los types indicados existen y bloquea esas filas
+     * (SELECT ... FOR UPDATE) hasta el final de la transacción.
+     * @param types tipos a verificar
+     * @return subconjunto de types presentes en la tabla transaction
+     */
+    public Flux<String> bloquearTypesExistentes(Collection<String> types) {
+        return db.sql("SELECT type FROM `transaction` WHERE type IN (:types) FOR UPDATE")
+                .bind("types", types)
+                .map(fila -> fila.get("type", String.class))
+                .all();
+    }
+
+    /**
+     * Devuelve los types de los trámites con un estado dado y bloquea esas filas
+     * (SELECT ... FOR UPDATE) hasta el final de la transacción.
+     * @param status estado de los trámites buscados
+     * @return types de los trámites con ese estado
+     */
+    public Flux<String> bloquearTypesPorStatus(Boolean status) {
+        return db.sql("SELECT type FROM `transaction` WHERE status = :status FOR UPDATE")
+                .bind("status", status)
+                .map(fila -> fila.get("type", String.class))
+                .all();
+    }
+
+    /**
+     * Elimina un trámite con un único DELETE.
+     * @param type tipo único del trámite
+     * @return cantidad de filas afectadas (0 si el type no existe)
+     */
+    public Mono<Long> eliminarPorType(String type) {
+        return db.sql("DELETE FROM `transaction` WHERE type = :type")
+                .bind("type", type)
+                .fetch().rowsUpdated();
+    }
+
+    /**
+     * Elimina con un único DELETE todos los trámites cuyos types figuran en la colección.
+     * @param types tipos a eliminar
+     * @return cantidad de filas afectadas
+     */
+    public Mono<Long> eliminarPorTypes(Collection<String> types) {
+        return db.sql("DELETE FROM `transaction` WHERE type IN (:types)")
+                .bind("types", types)
+                .fetch().rowsUpdated();
+    }
+
+    /**
+     * Elimina con un único DELETE todos los trámites que tienen un estado dado.
+     * @param status estado de los trámites a eliminar
+     * @return cantidad de filas afectadas
+     */
+    public Mono<Long> eliminarPorStatus(Boolean status) {
+        return db.sql("DELETE FROM `transaction` WHERE status = :status")
+                .bind("status", status)
+                .fetch().rowsUpdated();
+    }
+
+    private static TramiteResponseDTO leer(Readable fila) {
+        return new TramiteResponseDTO(fila.get("id_transaction", Long.class), fila.get("type", String.class),
+                fila.get("status", Boolean.class), fila.get("id_user", Long.class));
+    }
+}
@@ -0,0 +1,114 @@
+package dev.labintec.tramite.reactivo.servicio;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.labintec.tramite.dto.TramiteResponseDTO;
+import dev.labintec.tramite.reactivo.repositorio.TramiteRepository;
+import dev.labintec.tramite.servicio.InstantaneaCatalogo;
+import java.util.List;
+import java.util.Set;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+/**
+ * Versión reactiva de la instantánea en memoria del catálogo de trámites.
+ * Mantiene la misma InstantaneaCatalogo inmutable y versionada que tramites-api;
+ * las lecturas de la base de datos son reactivas y solo la publicación de la
+ * nueva versión (trabajo en memoria, sin E/S) se hace bajo el monitor.
+ * @author Quique
+ */
+@Component
+public class CatalogoTramites {
+
+    private static final Logger log = LoggerFactory.getLogger(CatalogoTramites.class);
+
+    @Autowired
+    private TramiteRepository repositorio;
+
+    @Autowired
+    private ObjectMapper mapper;
+
+    private volatile InstantaneaCatalogo actual;
+
+    /**
+     * Devuelve la instantánea vigente, cargándola la primera vez.
+     * @return instantánea inmutable del catálogo.
+     */
+    public Mono<InstantaneaCatalogo> obtener() {
+        InstantaneaCatalogo instantanea = actual;
+        return (instantanea != null) ? Mono.just(instantanea) : recargar();
+    }
+
+    /**
+     * Relee el catálogo de la base de datos y publica una nueva versión.
+     * @return la nueva instantánea publicada.
+     */
+    public Mono<InstantaneaCatalogo> recargar() {
+        return repositorio.listar().collectList().map(this::publicar);
+    }
+
+    /**
+     * Publica una nueva versión que incluye el trámite creado.
+     * Si todavía no hay instantánea no hace nada: la primera lectura la cargará completa.
+     * @param dto trámite recién persistido.
+     */
+    public synchronized void publicarAlta(TramiteResponseDTO dto) {
+        if (actual == null)
+            return;
+        actual = actual.con(dto, mapper);
+    }
+
+    /**
+     * Publica una nueva versión con el estado de un trámite modificado.
+     * @param dto trámite releído de la base de datos, con su type canónico.
+     * @return el mismo trámite, una vez publicada la nueva versión.
+     */
+    public Mono<TramiteResponseDTO> publicarStatus(TramiteResponseDTO dto) {
+        if (reemplazar(dto))
+            return Mono.just(dto);
+        // Sin instantánea o creado en otra instancia: se relee el catálogo
+        return recargar().thenReturn(dto);
+    }
+
+    /**
+     * Publica una única nueva versión sin los trámites eliminados.
+     * @param types tipos únicos de los trámites borrados.
+     */
+    public synchronized void publicarBajas(Set<String> types) {
+        if (actual == null)
+            return;
+        actual = actual.sin(types);
+    }
+
+    /**
+     * Relee el catálogo periódicamente y publica una nueva versión solo si cambió.
+     */
+    @Scheduled(fixedDelayString = "${tramites.catalogo.refresco:30s}", initialDelayString = "${tramites.catalogo.refresco:30s}")
+    public void refrescar() {
+        repositorio.listar().collectList()
+                .doOnNext(this::publicarSiCambio)
+                .doOnError(e -> log.warn("No se pudo refrescar el catálogo de trámites: {}", e.getMessage()))
+                .onErrorComplete()
+                .block();   // Corre en el hilo del planificador, no en uno de E/S
+    }
+
+    private synchronized InstantaneaCatalogo publicar(List<TramiteResponseDTO> tramites) {
+        actual = InstantaneaCatalogo.de((actual == null) ? 1 : actual.getVersion() + 1, tramites, mapper);
+        return actual;
+    }
+
+    private synchronized void publicarSiCambio(List<TramiteResponseDTO> tramites) {
+        if (actual == null || !actual.getTramites().equals(tramites))
+            publicar(tramites);
+    }
+
+    private synchronized boolean reemplazar(TramiteResponseDTO modificado) {
+        if (actual == null || actual.buscar(modificado.getType()) == null)    // Ambos types son los canónicos de la base
+            return false;
+        actual = actual.con(modificado, mapper);
+        return true;
+    }
+}
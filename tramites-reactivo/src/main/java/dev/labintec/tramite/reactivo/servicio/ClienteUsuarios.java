@@ -0,0 +1,130 @@
+package dev.labintec.tramite.reactivo.servicio;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import dev.labintec.tramite.dto.UsuarioDTO;
+import dev.labintec.tramite.excepcion.ServicioNoDisponibleException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeoutException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Cliente reactivo de usuarios-api que resuelve usuarios por id en lotes.
+ * Los ids que faltan en la caché local se piden con una única llamada
+ * GET /api/v1/usuarios/batch?ids=... por cada bloque de a lo sumo "loteMaximo";
+ * la caché asíncrona comparte la llamada en vuelo entre peticiones concurrentes
+ * que buscan el mismo id, sin ocupar hilos mientras se espera la respuesta.
+ * @author Quique
+ */
+@Component
+public class ClienteUsuarios {
+
+    private static final Logger log = LoggerFactory.getLogger(ClienteUsuarios.class);
+
+    private final WebClient cliente;
+    private final AsyncCache<Long, UsuarioDTO> cache;
+    private final int loteMaximo;
+    private final Duration esperaMaxima;
+
+    /**
+     * Construye el cliente HTTP y la caché con los parámetros configurados.
+     * @param constructor constructor de WebClient provisto por Spring Boot.
+     * @param url dirección base de usuarios-api.
+     * @param loteMaximo cantidad máxima de ids por llamada.
+     * @param ttl tiempo que un usuario obtenido permanece en la caché local.
+     * @param tamanoMaximo cantidad máxima de usuarios en la caché local.
+     * @param esperaMaxima tiempo máximo que una búsqueda espera la respuesta de usuarios-api.
+     */
+    public ClienteUsuarios(WebClient.Builder constructor,
+                           @Value("${tramites.usuarios.url:http://localhost:8080}") String url,
+                           @Value("${tramites.usuarios.lote-maximo:200}") int loteMaximo,
+                           @Value("${tramites.usuarios.cache.ttl:30s}") Duration ttl,
+                           @Value("${tramites.usuarios.cache.tamano-maximo:10000}") long tamanoMaximo,
+                           @Value("${tramites.usuarios.espera-maxima:2s}") Duration esperaMaxima) {
+        this.cliente = constructor.baseUrl(url).build();
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(tamanoMaximo)
+                .expireAfterWrite(ttl)
+                .buildAsync();
+        this.loteMaximo = loteMaximo;
+        this.esperaMaxima = esperaMaxima;
+    }
+
+    /**
+     * Busca un usuario por su identificador.
+     * @param idUser identificador del usuario en usuarios-api.
+     * @return el usuario, o vacío si no existe; falla con ServicioNoDisponibleException
+     *         si usuarios-api falla o no responde a tiempo.
+     */
+    public Mono<UsuarioDTO> buscar(Long idUser) {
+        return buscarTodos(List.of(idUser)).flatMap(usuarios -> Mono.justOrEmpty(usuarios.get(idUser)));
+    }
+
+    /**
+     * Busca varios usuarios por sus identificadores.
+     * Los presentes en la caché o ya en vuelo no generan llamadas nuevas.
+     * @param ids identificadores de los usuarios; se ignoran los null.
+     * @return usuarios encontrados por id (los inexistentes no figuran); falla con
+     *         ServicioNoDisponibleException si usuarios-api falla o no responde a tiempo.
+     */
+    public Mono<Map<Long, UsuarioDTO>> buscarTodos(Collection<Long> ids) {
+        Set<Long> unicos = new HashSet<>(ids);
+        unicos.remove(null);
+        if (unicos.isEmpty())
+            return Mono.just(Map.of());
+        return Mono.fromFuture(() -> cache.getAll(unicos, (faltantes, ejecutor) -> consultar(faltantes)), true)
+                .timeout(esperaMaxima)
+                .onErrorMap(TimeoutException.class, e -> new ServicioNoDisponibleException("usuarios-api no respondió a tiempo.", null))
+                .onErrorMap(e -> !(e instanceof ServicioNoDisponibleException),
+                        e -> new ServicioNoDisponibleException("usuarios-api no está disponible.", e));
+    }
+
+    private CompletableFuture<Map<Long, UsuarioDTO>> consultar(Set<? extends Long> faltantes) {
+        List<List<Long>> bloques = new ArrayList<>();
+        List<Long> bloque = new ArrayList<>(Math.min(faltantes.size(), loteMaximo));
+        for (Long id : faltantes) {
+            if (bloque.size() == loteMaximo) {
+                bloques.add(bloque);
+                bloque = new ArrayList<>(loteMaximo);
+            }
+            bloque.add(id);
+        }
+        bloques.add(bloque);
+        return Flux.fromIterable(bloques)
+                .flatMap(this::consultarBloque)
+                .collectMap(UsuarioDTO::getIdUser, usuario -> usuario, () -> new HashMap<Long, UsuarioDTO>(faltantes.size() * 2))
+                .doOnError(e -> log.warn("Falló la búsqueda de {} usuarios en usuarios-api: {}", faltantes.size(), e.getMessage()))
+                .toFuture();
+    }
+
+    private Flux<UsuarioDTO> consultarBloque(List<Long> bloque) {
+        return cliente.get()
+                .uri(uri -> uri.path("/api/v1/usuarios/batch").queryParam("ids", unir(bloque)).build())
+                .retrieve()
+                .bodyToFlux(UsuarioDTO.class);
+    }
+
+    private static String unir(List<Long> ids) {
+        StringBuilder texto = new StringBuilder(ids.size() * 8);
+        for (Long id : ids) {
+            if (texto.length() > 0)
+                texto.append(',');
+            texto.append(id);
+        }
+        return texto.toString();
+    }
+}
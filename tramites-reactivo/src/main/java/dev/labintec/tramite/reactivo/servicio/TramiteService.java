@@ -0,0 +1,272 @@
+package dev.labintec.tramite.reactivo.servicio;
+
+import dev.labintec.tramite.dto.ResultadoBorradoDTO;
+import dev.labintec.tramite.dto.TramiteConUsuarioDTO;
+import dev.labintec.tramite.dto.TramiteRequestDTO;
+import dev.labintec.tramite.dto.TramiteResponseDTO;
+import dev.labintec.tramite.dto.TramitesUsuarioDTO;
+import dev.labintec.tramite.dto.UsuarioDTO;
+import dev.labintec.tramite.excepcion.RecursoDuplicadoException;
+import dev.labintec.tramite.excepcion.RecursoNoEncontradoException;
+import dev.labintec.tramite.excepcion.RestriccionUnica;
+import dev.labintec.tramite.excepcion.SolicitudInvalidaException;
+import dev.labintec.tramite.reactivo.repositorio.TramiteRepository;
+import java.text.CollationKey;
+import java.text.Collator;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.reactive.TransactionSynchronization;
+import org.springframework.transaction.reactive.TransactionSynchronizationManager;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Lógica de negocio de trámites sobre el repositorio reactivo.
+ * Replica las reglas de TramiteService de tramites-api (mismos mensajes y
+ * excepciones) devolviendo Mono y Flux en lugar de bloquear el hilo.
+ * @author Quique
+ */
+@Service
+public class TramiteService {
+    @Autowired
+    private TramiteRepository repositorio;
+
+    @Autowired // Instantánea en memoria que se republica tras cada escritura
+    private CatalogoTramites catalogo;
+
+    @Autowired // Búsquedas por lote y cacheadas de usuarios en usuarios-api
+    private ClienteUsuarios usuarios;
+
+    @Autowired // Transacciones reactivas acotadas a las sentencias SQL
+    private TransactionalOperator transaccion;
+
+    /**
+     * Cantidad de valores por cláusula IN en los borrados masivos.
+     */
+    private static final int TAMANO_BLOQUE = 500;
+
+    /**
+     * Recorre todos los trámites a medida que llegan las filas, con contrapresión.
+     * @return flujo con todos los trámites ordenados por id_transaction.
+     */
+    public Flux<TramiteResponseDTO> recorrerTodos() {
+        return repositorio.listar();
+    }
+
+    /**
+     * Obtiene un trámite según su identificador.
+     * @param id clave primaria del trámite.
+     * @return el trámite correspondiente al ID, o error RecursoNoEncontradoException.
+     */
+    public Mono<TramiteResponseDTO> obtenerPorId(Long id) {
+        return repositorio.buscarPorId(id)
+                .switchIfEmpty(Mono.error(() -> new RecursoNoEncontradoException("Trámite con id = " + id + ", no existe.")));
+    }
+
+    /**
+     * Obtiene un trámite por su type de trámite único.
+     * @param type nombre único del trámite.
+     * @return el trámite asociado al nombre, o error RecursoNoEncontradoException.
+     */
+    public Mono<TramiteResponseDTO> obtenerPorType(String type) {
+        return repositorio.buscarPorType(type)
+                .switchIfEmpty(Mono.error(() -> new RecursoNoEncontradoException("Trámite de tipo = " + type + ", no existe.")));
+    }
+
+    /**
+     * Lista los trámites de un usuario junto con su nombre de usuario.
+     * La búsqueda en usuarios-api y la consulta de trámites corren en paralelo.
+     * @param idUser identificador del usuario en usuarios-api.
+     * @return vista con el username y los trámites, o error RecursoNoEncontradoException
+     *         si el usuario no existe en usuarios-api.
+     */
+    public Mono<TramitesUsuarioDTO> listarPorUsuario(Long idUser) {
+        Mono<UsuarioDTO> usuario = usuarios.buscar(idUser)
+                .switchIfEmpty(Mono.error(() -> new RecursoNoEncontradoException("Usuario con id = " + idUser + ", no existe.")));
+        return Mono.zip(usuario, repositorio.listarPorUsuario(idUser).collectList())
+                .map(t -> new TramitesUsuarioDTO(idUser, t.getT1().getUsername(), t.getT2()));
+    }
+
+    /**
+     * Recupera una página de trámites con el nombre de su usuario dueño.
+     * Todos los usuarios de la página se resuelven con una única búsqueda
+     * por lote en usuarios-api (o ninguna, si ya estaban en caché).
+     * @param despuesDe último id_transaction entregado (0 para la primera página).
+     * @param limite cantidad máxima de trámites a devolver.
+     * @return lista ordenada por id_transaction con a lo sumo "limite" trámites.
+     */
+    public Mono<List<TramiteConUsuarioDTO>> listarPaginaConUsuario(long despuesDe, int limite) {
+        return repositorio.listarPagina(despuesDe, limite).collectList().flatMap(tramites -> {
+            List<Long> ids = new ArrayList<>(tramites.size());
+            for (TramiteResponseDTO tramite : tramites)
+                ids.add(tramite.getIdUser());
+            return usuarios.buscarTodos(ids).map(porId -> combinar(tramites, porId));
+        });
+    }
+
+    /**
+     * Registra un nuevo trámite con un único INSERT, delegando la unicidad
+     * en el índice único uk_transaction_type, sin consulta previa.
+     * @param dto datos del nuevo trámite.
+     * @return el trámite persistido con su ID generado, o error
+     *         RecursoDuplicadoException si ya existe un type idéntico.
+     */
+    public Mono<TramiteResponseDTO> crearTramite(TramiteRequestDTO dto) {
+        return repositorio.insertar(dto.getType(), dto.getStatus(), dto.getIdUser())
+                .onErrorMap(e -> e instanceof DataIntegrityViolationException violacion  // Solo el índice único de type
+                                && RestriccionUnica.violada(violacion, RestriccionUnica.TYPE),
+                        e -> new RecursoDuplicadoException("Trámite de tipo = " + dto.getType() + ", ya existe."))
+                .map(id -> new TramiteResponseDTO(id, dto.getType(), dto.getStatus(), dto.getIdUser()))
+                .doOnNext(catalogo::publicarAlta);
+    }
+
+    /**
+     * Actualiza únicamente el estado de un trámite existente con un único UPDATE.
+     * En la misma transacción relee la fila, que aporta el type canónico con el
+     * que se indexa la instantánea (el pedido puede diferir en mayúsculas o acentos).
+     * @param type clave única que identifica al trámite a modificar.
+     * @param status nuevo estado.
+     * @return el trámite con el estado actualizado, o error RecursoNoEncontradoException.
+     */
+    public Mono<TramiteResponseDTO> actualizarStatus(String type, Boolean status) {
+        return repositorio.actualizarStatus(type, status)
+                .filter(filas -> filas > 0)
+                .flatMap(filas -> repositorio.buscarPorType(type))   // La fila sigue bloqueada por el UPDATE
+                .as(transaccion::transactional)
+                .flatMap(catalogo::publicarStatus)
+                .switchIfEmpty(Mono.error(() -> new RecursoNoEncontradoException("Trámite de tipo = " + type + ", no existe.")));
+    }
+
+    /**
+     * Cambia el estado de muchos trámites en una sola sentencia UPDATE.
+     * @param types tipos a modificar, o null para filtrar por estado.
+     * @param statusActual estado actual de los trámites a modificar.
+     * @param status nuevo estado a asignar.
+     * @return cantidad de trámites modificados, o error SolicitudInvalidaException
+     *         si no se indica ningún criterio.
+     */
+    public Mono<Integer> actualizarStatusMasivo(List<String> types, Boolean statusActual, Boolean status) {
+        Mono<Long> filas;
+        if (types != null && !types.isEmpty())
+            filas = repositorio.actualizarStatusPorTypes(types, status);
+        else if (statusActual != null)
+            filas = repositorio.actualizarStatusPorStatus(statusActual, status);
+        else
+            return Mono.error(new SolicitudInvalidaException("Debe indicar types o statusActual."));
+        return filas.flatMap(n -> (n > 0) ? catalogo.recargar().thenReturn(n.intValue()) : Mono.just(n.intValue()));
+    }
+
+    /**
+     * Elimina un trámite definido por su type.
+     * En una transacción bloquea la fila (SELECT ... FOR UPDATE), que aporta el
+     * type canónico con el que se indexa la instantánea, y la borra con un DELETE.
+     * @param type tipo único del trámite a borrar.
+     * @return vacío al terminar, o error RecursoNoEncontradoException.
+     */
+    public Mono<Void> eleminarTramite(String type) {
+        return repositorio.bloquearTypesExistentes(List.of(type)).collectList()
+                .flatMap(existentes -> existentes.isEmpty() ? Mono.just(existentes)
+                        : repositorio.eliminarPorType(type).thenReturn(existentes)) // Ejecuta DELETE en la tabla transaction
+                .as(transaccion::transactional)
+                .flatMap(borrados -> {
+                    if (borrados.isEmpty())
+                        return Mono.error(new RecursoNoEncontradoException("Trámite de tipo = " + type + ", no existe."));
+                    catalogo.publicarBajas(Set.copyOf(borrados));
+                    return Mono.empty();
+                });
+    }
+
+    /**
+     * Elimina muchos trámites en una sola transacción reactiva.
+     * Igual que en tramites-api, los types afectados se leen antes con un
+     * SELECT ... FOR UPDATE y se borran por bloques con DELETE ... IN, o con
+     * un único DELETE por estado; la instantánea se publica tras el commit.
+     * @param types tipos a eliminar, o null para filtrar por estado.
+     * @param status estado de los trámites a eliminar.
+     * @return types eliminados e inexistentes, o error SolicitudInvalidaException
+     *         si no se indica ningún criterio.
+     */
+    @Transactional
+    public Mono<ResultadoBorradoDTO> eliminarMasivo(List<String> types, Boolean status) {
+        Mono<ResultadoBorradoDTO> borrado;
+        if (types != null && !types.isEmpty()) {
+            List<String> unicos = new ArrayList<>(new LinkedHashSet<>(types));
+            List<List<String>> bloques = new ArrayList<>();
+            for (int i = 0; i < unicos.size(); i += TAMANO_BLOQUE)
+                bloques.add(unicos.subList(i, Math.min(i + TAMANO_BLOQUE, unicos.size())));
+            borrado = Flux.fromIterable(bloques)
+                    .concatMap(bloque -> repositorio.bloquearTypesExistentes(bloque).collectList()
+                            .flatMap(existentes -> existentes.isEmpty() ? Mono.just(existentes)
+                                    : repositorio.eliminarPorTypes(existentes).thenReturn(existentes))) // DELETE ... WHERE type IN (...)
+                    .collect(HashSet<String>::new, Set::addAll)
+                    .flatMap(eliminados -> {
+                        Collator colacion = colacion();
+                        Set<CollationKey> claves = new HashSet<>();
+                        for (String eliminado : eliminados)
+                            claves.add(colacion.getCollationKey(eliminado));
+                        ResultadoBorradoDTO resultado = new ResultadoBorradoDTO(new ArrayList<>(), new ArrayList<>());
+                        for (String type : unicos) {    // Los types pedidos pueden diferir de los canónicos en mayúsculas o acentos
+                            if (claves.contains(colacion.getCollationKey(type)))
+                                resultado.getEliminados().add(type);
+                            else
+                                resultado.getInexistentes().add(type);
+                        }
+                        return eliminados.isEmpty() ? Mono.just(resultado)
+                                : publicarTrasCommit(eliminados).thenReturn(resultado);
+                    });
+        } else if (status != null) {
+            borrado = repositorio.bloquearTypesPorStatus(status).collectList()
+                    .flatMap(eliminados -> {
+                        ResultadoBorradoDTO resultado = new ResultadoBorradoDTO(eliminados, new ArrayList<>());
+                        return eliminados.isEmpty() ? Mono.just(resultado)
+                                : repositorio.eliminarPorStatus(status)    // DELETE ... WHERE status = ?
+                                        .then(publicarTrasCommit(new HashSet<>(eliminados))).thenReturn(resultado);
+                    });
+        } else
+            return Mono.error(new SolicitudInvalidaException("Debe indicar types o status."));
+        return borrado;
+    }
+
+    private Mono<Void> publicarTrasCommit(Set<String> bajas) {
+        // La instantánea se publica solo si el borrado llega a confirmarse
+        return TransactionSynchronizationManager.forCurrentTransaction()
+                .doOnNext(sincronizacion -> sincronizacion.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public Mono<Void> afterCommit() {
+                        return Mono.fromRunnable(() -> catalogo.publicarBajas(bajas));
+                    }
+                }))
+                .then();
+    }
+
+    /**
+     * Comparador equivalente a la colación utf8mb4_0900_ai_ci de la columna type:
+     * intensidad primaria, sin distinguir mayúsculas ni acentos. Cada llamada
+     * devuelve una instancia propia (Collator no es seguro entre hilos).
+     */
+    private static Collator colacion() {
+        Collator colacion = Collator.getInstance(Locale.ROOT);
+        colacion.setStrength(Collator.PRIMARY);
+        return colacion;
+    }
+
+    private static List<TramiteConUsuarioDTO> combinar(List<TramiteResponseDTO> tramites, Map<Long, UsuarioDTO> porId) {
+        List<TramiteConUsuarioDTO> pagina = new ArrayList<>(tramites.size());
+        for (TramiteResponseDTO tramite : tramites) {
+            UsuarioDTO usuario = (tramite.getIdUser() == null) ? null : porId.get(tramite.getIdUser());
+            pagina.add(new TramiteConUsuarioDTO(tramite.getIdTransaction(), tramite.getType(), tramite.getStatus(),
+                    tramite.getIdUser(), (usuario == null) ? null : usuario.getUsername()));
+        }
+        return pagina;
+    }
+}
@@ -0,0 +1,120 @@
+package dev.labintec.tramite.reactivo.controlador;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+import dev.labintec.tramite.dto.BorradoMasivoDTO;
+import dev.labintec.tramite.dto.ResultadoBorradoDTO;
+import dev.labintec.tramite.dto.TramiteRequestDTO;
+import dev.labintec.tramite.dto.TramiteResponseDTO;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+/**
+ * Verifica sobre H2 embebida que la variante reactiva respeta el contrato
+ * de tramites-api: códigos de estado, cuerpo ErrorDTO, ETag y borrado masivo.
+ * Cada prueba usa sus propios types para no depender del orden de ejecución.
+ * @author Quique
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("embebida")
+class TramiteControllerTests {
+
+    @Autowired
+    private WebTestClient cliente;
+
+    @Test
+    void crearLeerActualizarYEliminar() {
+        TramiteResponseDTO creado = crear("alta-1", true);
+        assertNotNull(creado.getIdTransaction());
+
+        cliente.get().uri("/api/v1/tramites/{id}", creado.getIdTransaction()).exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.type").isEqualTo("alta-1");
+
+        cliente.put().uri("/api/v1/tramites/alta-1").bodyValue(new TramiteRequestDTO("alta-1", false, null)).exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.status").isEqualTo(false);
+
+        cliente.get().uri("/api/v1/tramites/type/alta-1").exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.status").isEqualTo(false);
+
+        cliente.delete().uri("/api/v1/tramites/alta-1").exchange().expectStatus().isNoContent();
+        cliente.delete().uri("/api/v1/tramites/alta-1").exchange().expectStatus().isNotFound();
+    }
+
+    @Test
+    void erroresUsanErrorDTO() {
+        cliente.get().uri("/api/v1/tramites/999999").exchange()
+                .expectStatus().isNotFound()
+                .expectBody()
+                .jsonPath("$.status").isEqualTo(404)
+                .jsonPath("$.error").isEqualTo("Recurso no encontrado")
+                .jsonPath("$.path").isEqualTo("/api/v1/tramites/999999");
+
+        crear("duplicado-1", true);
+        cliente.post().uri("/api/v1/tramites").bodyValue(new TramiteRequestDTO("duplicado-1", true, null)).exchange()
+                .expectStatus().isEqualTo(409)
+                .expectBody()
+                .jsonPath("$.error").isEqualTo("Recurso duplicado")
+                .jsonPath("$.message").isEqualTo("Trámite de tipo = duplicado-1, ya existe.");
+
+        cliente.get().uri("/api/v1/tramites/con-usuario?after=basura").exchange()
+                .expectStatus().isBadRequest()
+                .expectBody().jsonPath("$.status").isEqualTo(400);
+    }
+
+    @Test
+    void listadoRespondeNoModificadoConEtagVigente() {
+        crear("etag-1", true);
+        String etag = cliente.get().uri("/api/v1/tramites").exchange()
+                .expectStatus().isOk()
+                .returnResult(String.class).getResponseHeaders().getETag();
+        assertNotNull(etag);
+        cliente.get().uri("/api/v1/tramites").header(HttpHeaders.IF_NONE_MATCH, etag).exchange()
+                .expectStatus().isNotModified();
+
+        crear("etag-2", true);  // Una escritura publica una nueva versión
+        cliente.get().uri("/api/v1/tramites").header(HttpHeaders.IF_NONE_MATCH, etag).exchange()
+                .expectStatus().isOk();
+    }
+
+    @Test
+    void exportaNdjson() {
+        crear("export-1", true);
+        List<TramiteResponseDTO> tramites = cliente.get().uri("/api/v1/tramites/export").exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .returnResult(TramiteResponseDTO.class).getResponseBody().collectList().block();
+        assertNotNull(tramites);
+        assertEquals(1, tramites.stream().filter(t -> t.getType().equals("export-1")).count());
+    }
+
+    @Test
+    void borradoMasivoInformaInexistentes() {
+        crear("masivo-1", true);
+        crear("masivo-2", true);
+        ResultadoBorradoDTO resultado = cliente.method(HttpMethod.DELETE).uri("/api/v1/tramites")
+                .bodyValue(new BorradoMasivoDTO(List.of("masivo-1", "masivo-2", "masivo-x"), null)).exchange()
+                .expectStatus().isOk()
+                .expectBody(ResultadoBorradoDTO.class).returnResult().getResponseBody();
+        assertNotNull(resultado);
+        assertEquals(List.of("masivo-1", "masivo-2"), resultado.getEliminados());
+        assertEquals(List.of("masivo-x"), resultado.getInexistentes());
+        cliente.get().uri("/api/v1/tramites/type/masivo-1").exchange().expectStatus().isNotFound();
+    }
+
+    private TramiteResponseDTO crear(String type, boolean status) {
+        return cliente.post().uri("/api/v1/tramites").bodyValue(new TramiteRequestDTO(type, status, null)).exchange()
+                .expectStatus().isCreated()
+                .expectBody(TramiteResponseDTO.class).returnResult().getResponseBody();
+    }
+}
@@ -0,0 +1,24 @@
+package dev.labintec.usuario.configuracion;
+
+import dev.labintec.comun.diagnostico.DiagnosticoPinningJfr;
+import java.time.Duration;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Diagnóstico del anclaje de hilos virtuales con la implementación común
+ * DiagnosticoPinningJfr. Solo se activa en el modo de hilos virtuales.
+ * @author Quique
+ */
+@Component
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class DiagnosticoPinning extends DiagnosticoPinningJfr {
+
+    /**
+     * @param umbral duración mínima de un anclaje para ser reportado.
+     */
+    public DiagnosticoPinning(@Value("${diagnostico.pinning.umbral:20ms}") Duration umbral) {
+        super(umbral);
+    }
+}
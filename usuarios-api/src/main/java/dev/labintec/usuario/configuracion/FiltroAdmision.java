@@ -0,0 +1,52 @@
+package dev.labintec.usuario.configuracion;
+
+import dev.labintec.comun.admision.ControlAdmision;
+import dev.labintec.usuario.dto.ErrorDTO;
+import jakarta.servlet.http.HttpServletRequest;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Set;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+/**
+ * Control de admisión delante de los controladores REST, con la implementación
+ * común ControlAdmision y la configuración usuarios.admision.*.
+ * Los rechazos responden con ErrorDTO, igual que el manejador de excepciones.
+ * @author Quique
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 2) // Después del filtro de métricas HTTP, para que los rechazos se vean
+public class FiltroAdmision extends ControlAdmision {
+
+    /**
+     * @param habilitada si es false todas las peticiones se admiten.
+     * @param exentos direcciones remotas que no se limitan (por ejemplo, otro microservicio).
+     * @param tasa peticiones por segundo sostenidas por cliente.
+     * @param rafaga peticiones que un cliente puede enviar de golpe.
+     * @param clientesMaximos cantidad máxima de clientes con estado en memoria.
+     * @param inicial límite de concurrencia al arrancar.
+     * @param minimo límite de concurrencia mínimo.
+     * @param maximo límite de concurrencia máximo.
+     * @param latenciaObjetivo latencia por encima de la cual el límite se reduce.
+     */
+    public FiltroAdmision(@Value("${usuarios.admision.habilitada:false}") boolean habilitada,
+                          @Value("${usuarios.admision.clientes-exentos:127.0.0.1,0:0:0:0:0:0:0:1}") Set<String> exentos,
+                          @Value("${usuarios.admision.tasa-por-cliente:50}") double tasa,
+                          @Value("${usuarios.admision.rafaga-por-cliente:100}") int rafaga,
+                          @Value("${usuarios.admision.clientes-maximos:100000}") long clientesMaximos,
+                          @Value("${usuarios.admision.concurrencia-inicial:20}") int inicial,
+                          @Value("${usuarios.admision.concurrencia-minima:10}") int minimo,
+                          @Value("${usuarios.admision.concurrencia-maxima:200}") int maximo,
+                          @Value("${usuarios.admision.latencia-objetivo:250ms}") Duration latenciaObjetivo) {
+        super("usuarios", habilitada, exentos, tasa, rafaga, clientesMaximos, inicial, minimo, maximo, latenciaObjetivo);
+    }
+
+    @Override
+    protected Object cuerpoError(HttpServletRequest request, HttpStatus estado, String error, String mensaje) {
+        return new ErrorDTO(LocalDateTime.now(), estado.value(), error, mensaje, request.getRequestURI());
+    }
+}
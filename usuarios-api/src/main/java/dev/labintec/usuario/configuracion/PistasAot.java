@@ -0,0 +1,51 @@
+package dev.labintec.usuario.configuracion;
+
+import dev.labintec.usuario.controlador.ManejadorExcepciones;
+import dev.labintec.usuario.dto.ErrorDTO;
+import dev.labintec.usuario.dto.UsuarioResponseDTO;
+import dev.labintec.usuario.entidad.Usuario;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.annotation.RegisterReflectionForBinding;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.ImportRuntimeHints;
+
+/**
+ * Pistas de reflexión y proxies para el procesamiento AOT (perfil Maven
+ * arranque-rapido) y la imagen nativa (perfil native), donde solo existe lo
+ * que se declaró en el build. Cubre lo que Spring no deduce por su cuenta:
+ *  - la entidad Usuario, armada por Hibernate con su constructor vacío (Lombok) y sus campos;
+ *  - UsuarioResponseDTO, creado con "SELECT new ..." en las consultas JPQL;
+ *  - ErrorDTO, escrito con el ObjectMapper fuera de un controlador (FiltroAdmision);
+ *  - los métodos @ExceptionHandler de ManejadorExcepciones;
+ *  - los proxies JDK de RegistroSql sobre Connection, Statement y ResultSet.
+ * @author Quique
+ */
+@Configuration(proxyBeanMethods = false)
+@ImportRuntimeHints(PistasAot.class)
+@RegisterReflectionForBinding({ErrorDTO.class, UsuarioResponseDTO.class}) // Jackson: getters, setters y constructores
+public class PistasAot implements RuntimeHintsRegistrar {
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        hints.reflection().registerType(Usuario.class, MemberCategory.DECLARED_FIELDS,
+                MemberCategory.INVOKE_DECLARED_CONSTRUCTORS, MemberCategory.INVOKE_PUBLIC_METHODS);
+        hints.reflection().registerType(UsuarioResponseDTO.class, MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS);
+        hints.reflection().registerType(ManejadorExcepciones.class, MemberCategory.INVOKE_PUBLIC_METHODS);
+        // RegistroSql invoca por reflexión el método real detrás de cada proxy
+        for (Class<?> tipo : new Class<?>[] {Connection.class, Statement.class, PreparedStatement.class,
+                CallableStatement.class, ResultSet.class})
+            hints.reflection().registerType(tipo, MemberCategory.INVOKE_PUBLIC_METHODS);
+        hints.proxies().registerJdkProxy(Connection.class);
+        hints.proxies().registerJdkProxy(Statement.class);
+        hints.proxies().registerJdkProxy(PreparedStatement.class);
+        hints.proxies().registerJdkProxy(CallableStatement.class);
+        hints.proxies().registerJdkProxy(ResultSet.class);
+    }
+}
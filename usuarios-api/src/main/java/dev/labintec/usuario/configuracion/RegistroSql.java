@@ -0,0 +1,29 @@
+package dev.labintec.usuario.configuracion;
+
+import dev.labintec.comun.jdbc.RegistroSqlMuestreado;
+import java.time.Duration;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Registro de sentencias SQL muestreado y fuera del hilo de la petición, con la
+ * implementación común RegistroSqlMuestreado y la configuración usuarios.sql.*.
+ * Reemplaza a spring.jpa.show-sql.
+ * @author Quique
+ */
+@Component
+public class RegistroSql extends RegistroSqlMuestreado {
+
+    /**
+     * @param habilitado si es false el DataSource no se envuelve.
+     * @param muestreo fracción (0 a 1) de las sentencias rápidas que se registran.
+     * @param umbralLento duración a partir de la cual una sentencia se registra siempre.
+     * @param cola cantidad máxima de registros pendientes de escritura.
+     */
+    public RegistroSql(@Value("${usuarios.sql.habilitado:true}") boolean habilitado,
+                       @Value("${usuarios.sql.muestreo:0.01}") double muestreo,
+                       @Value("${usuarios.sql.umbral-lento:200ms}") Duration umbralLento,
+                       @Value("${usuarios.sql.cola:1024}") int cola) {
+        super(habilitado, muestreo, umbralLento, cola);
+    }
+}
@@ -1,11 +1,20 @@
 package dev.labintec.usuario.controlador;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
 import jakarta.servlet.http.HttpServletRequest;
 import java.time.LocalDateTime;
-import java.util.HashMap;
-import java.util.Map;
+import dev.labintec.usuario.dto.ErrorDTO;
+import dev.labintec.usuario.excepcion.PrecondicionFallidaException;
 import dev.labintec.usuario.excepcion.RecursoDuplicadoException;
 import dev.labintec.usuario.excepcion.RecursoNoEncontradoException;
+import dev.labintec.usuario.excepcion.RestriccionUnica;
+import dev.labintec.usuario.excepcion.ServicioSaturadoException;
+import dev.labintec.usuario.excepcion.SolicitudInvalidaException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -18,11 +27,34 @@ import org.springframework.web.bind.annotation.RestControllerAdvice;
  * Excepciones gestionadas:
  *  - RecursoNoEncontradoException → HTTP 404 Not Found
  *  - RecursoDuplicadoException   → HTTP 409 Conflict
+ *  - DataIntegrityViolationException → HTTP 409 Conflict si viola el índice único,
+ *    HTTP 400 Bad Request si viola otra restricción
+ *  - SolicitudInvalidaException  → HTTP 400 Bad Request
+ *  - PrecondicionFallidaException → HTTP 412 Precondition Failed (If-Match)
+ *  - ServicioSaturadoException   → HTTP 503 Service Unavailable (con Retry-After)
+ * Los 404 y 409 se cuentan en el contador usuarios.errores (etiquetas status y excepcion).
  * @author Quique
  */
 @RestControllerAdvice // Intercepta excepciones en todos los @RestController
 public class ManejadorExcepciones {
-    
+
+    @Autowired // Registro de métricas provisto por actuator
+    private MeterRegistry registro;
+
+    private Counter noEncontrados;
+    private Counter duplicados;
+    private Counter violacionesIntegridad;
+
+    /**
+     * Registra los contadores una sola vez, para que cada error solo haga un incremento.
+     */
+    @PostConstruct
+    public void registrarContadores() {
+        noEncontrados = contador(HttpStatus.NOT_FOUND, RecursoNoEncontradoException.class);
+        duplicados = contador(HttpStatus.CONFLICT, RecursoDuplicadoException.class);
+        violacionesIntegridad = contador(HttpStatus.CONFLICT, DataIntegrityViolationException.class);
+    }
+
     /**
      * Construye la respuesta para ausencia de recurso.
      * @param e excepción que indica que el recurso no existe.
@@ -30,13 +62,10 @@ public class ManejadorExcepciones {
      * @return ResponseEntity con cuerpo de error y estado 404.
      */
     @ExceptionHandler(RecursoNoEncontradoException.class)
-    public ResponseEntity<Map<String, Object>> maanejarRecursoNoEncontrado(RecursoNoEncontradoException e, HttpServletRequest request) {
-        Map<String, Object> error = new HashMap();
-        error.put("timestamp", LocalDateTime.now());            // Hora del incidente
-        error.put("status", HttpStatus.NOT_FOUND.value());      // Código HTTP 404
-        error.put("error", "Recurso no encontrado");            // Descripción breve
-        error.put("message", e.getMessage());                   // Detalle enviado por la excepción
-        error.put("path", request.getRequestURI());             // Ruta invocada por el cliente
+    public ResponseEntity<ErrorDTO> maanejarRecursoNoEncontrado(RecursoNoEncontradoException e, HttpServletRequest request) {
+        noEncontrados.increment();
+        ErrorDTO error = new ErrorDTO(LocalDateTime.now(), HttpStatus.NOT_FOUND.value(),
+                "Recurso no encontrado", e.getMessage(), request.getRequestURI());
         return new ResponseEntity<>(error, HttpStatus.NOT_FOUND);
     }
 
@@ -47,13 +76,80 @@ public class ManejadorExcepciones {
      * @return ResponseEntity con cuerpo de error y estado 409
      */
     @ExceptionHandler(RecursoDuplicadoException.class)
-    public ResponseEntity<Map<String, Object>> maanejarRecursoDuplicado(RecursoDuplicadoException e, HttpServletRequest request) {
-        Map<String, Object> error = new HashMap();
-        error.put("timestamp", LocalDateTime.now());            // Hora del incidente
-        error.put("status", HttpStatus.CONFLICT.value());       // Código HTTP 409
-        error.put("error", "Recurso duplicado");                // Descripción breve
-        error.put("message", e.getMessage());                   // Detalle enviado por la excepción
-        error.put("path", request.getRequestURI());             // Ruta invocada por el cliente
+    public ResponseEntity<ErrorDTO> maanejarRecursoDuplicado(RecursoDuplicadoException e, HttpServletRequest request) {
+        duplicados.increment();
+        ErrorDTO error = new ErrorDTO(LocalDateTime.now(), HttpStatus.CONFLICT.value(),
+                "Recurso duplicado", e.getMessage(), request.getRequestURI());
         return new ResponseEntity<>(error, HttpStatus.CONFLICT);
     }
+
+    /**
+     * Traduce una violación del índice único no capturada por el servicio (por
+     * ejemplo, en un lote) al mismo contrato 409. Cualquier otra restricción
+     * (NOT NULL, largo de columna) la incumplen los datos enviados: 400.
+     * @param e excepción de integridad lanzada por la capa de datos
+     * @param request objeto que aporta la URI de la petición
+     * @return ResponseEntity con cuerpo de error y estado 409 o 400
+     */
+    @ExceptionHandler(DataIntegrityViolationException.class)
+    public ResponseEntity<ErrorDTO> manejarViolacionIntegridad(DataIntegrityViolationException e, HttpServletRequest request) {
+        if (!RestriccionUnica.violada(e, RestriccionUnica.USERNAME)) {
+            ErrorDTO error = new ErrorDTO(LocalDateTime.now(), HttpStatus.BAD_REQUEST.value(),
+                    "Solicitud inválida", "Los datos no cumplen una restricción de la base de datos.", request.getRequestURI());
+            return new ResponseEntity<>(error, HttpStatus.BAD_REQUEST);
+        }
+        violacionesIntegridad.increment();
+        ErrorDTO error = new ErrorDTO(LocalDateTime.now(), HttpStatus.CONFLICT.value(),
+                "Recurso duplicado", "El recurso ya existe.", request.getRequestURI());
+        return new ResponseEntity<>(error, HttpStatus.CONFLICT);
+    }
+
+    /**
+     * Construye la respuesta para parámetros de petición inválidos.
+     * @param e excepción que indica el parámetro rechazado
+     * @param request objeto que aporta la URI de la petición
+     * @return ResponseEntity con cuerpo de error y estado 400
+     */
+    @ExceptionHandler(SolicitudInvalidaException.class)
+    public ResponseEntity<ErrorDTO> manejarSolicitudInvalida(SolicitudInvalidaException e, HttpServletRequest request) {
+        ErrorDTO error = new ErrorDTO(LocalDateTime.now(), HttpStatus.BAD_REQUEST.value(),
+                "Solicitud inválida", e.getMessage(), request.getRequestURI());
+        return new ResponseEntity<>(error, HttpStatus.BAD_REQUEST);
+    }
+
+    /**
+     * Construye la respuesta para una actualización condicional con versión vencida.
+     * @param e excepción que indica el conflicto de versiones
+     * @param request objeto que aporta la URI de la petición
+     * @return ResponseEntity con cuerpo de error y estado 412
+     */
+    @ExceptionHandler(PrecondicionFallidaException.class)
+    public ResponseEntity<ErrorDTO> manejarPrecondicionFallida(PrecondicionFallidaException e, HttpServletRequest request) {
+        ErrorDTO error = new ErrorDTO(LocalDateTime.now(), HttpStatus.PRECONDITION_FAILED.value(),
+                "Precondición fallida", e.getMessage(), request.getRequestURI());
+        return new ResponseEntity<>(error, HttpStatus.PRECONDITION_FAILED);
+    }
+
+    /**
+     * Construye la respuesta para peticiones rechazadas por saturación.
+     * @param e excepción que indica el recurso saturado
+     * @param request objeto que aporta la URI de la petición
+     * @return ResponseEntity con cuerpo de error, cabecera Retry-After y estado 503
+     */
+    @ExceptionHandler(ServicioSaturadoException.class)
+    public ResponseEntity<ErrorDTO> manejarServicioSaturado(ServicioSaturadoException e, HttpServletRequest request) {
+        ErrorDTO error = new ErrorDTO(LocalDateTime.now(), HttpStatus.SERVICE_UNAVAILABLE.value(),
+                "Servicio saturado", e.getMessage(), request.getRequestURI());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")                   // Segundos sugeridos antes de reintentar
+                .body(error);
+    }
+
+    private Counter contador(HttpStatus estado, Class<? extends Exception> excepcion) {
+        return Counter.builder("usuarios.errores")
+                .description("Respuestas de error emitidas por ManejadorExcepciones")
+                .tag("status", String.valueOf(estado.value()))
+                .tag("excepcion", excepcion.getSimpleName())
+                .register(registro);
+    }
 }
\ No newline at end of file
@@ -1,24 +1,43 @@
 package dev.labintec.usuario.controlador;
 
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import dev.labintec.usuario.dto.CursorUsuario;
+import dev.labintec.usuario.dto.EtagUsuario;
+import dev.labintec.usuario.dto.EstadisticasCacheDTO;
+import dev.labintec.usuario.dto.EstadisticasIndiceDTO;
+import dev.labintec.usuario.dto.PaginaUsuariosDTO;
+import dev.labintec.usuario.dto.ResultadoBorradoDTO;
+import dev.labintec.usuario.dto.ResultadoLoteDTO;
 import dev.labintec.usuario.dto.UsuarioMapper;
 import dev.labintec.usuario.dto.UsuarioRequestDTO;
 import dev.labintec.usuario.dto.UsuarioResponseDTO;
 import dev.labintec.usuario.entidad.Usuario;
+import dev.labintec.usuario.excepcion.PrecondicionFallidaException;
+import dev.labintec.usuario.excepcion.SolicitudInvalidaException;
+import dev.labintec.usuario.servicio.CacheUsuarios;
+import dev.labintec.usuario.servicio.IndiceUsernames;
 import dev.labintec.usuario.servicio.UsuarioService;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
 import java.util.ArrayList;
 import java.util.List;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 /**
  * Controlador REST para la gestión de usuarios.
@@ -27,12 +46,19 @@ import org.springframework.web.bind.annotation.RestController;
  * la API y la lógica de negocio.
  *
  * Endpoints:
- *  - GET /api/v1/usuarios                      → lista todos los usuarios
- *  - GET /api/v1/usuarios/{id}                 → obtiene usuario por ID
- *  - GET /api/v1/usuarios/username/{username}  → obtiene por nombre de usuario
+ *  - GET /api/v1/usuarios?limit=&after=        → lista usuarios paginados por cursor
+ *  - GET /api/v1/usuarios?todos=true           → lista todos los usuarios (arreglo, sin paginar)
+ *  - GET /api/v1/usuarios/{id}                 → obtiene usuario por ID (ETag / 304)
+ *  - GET /api/v1/usuarios/batch?ids=1,2,3      → obtiene varios usuarios por ID en una llamada
+ *  - GET /api/v1/usuarios/username/{username}  → obtiene por nombre de usuario (ETag / 304)
  *  - POST /api/v1/usuarios                     → crea un nuevo usuario
- *  - PUT /api/v1/usuarios/{username}           → actualiza usuario existente
+ *  - POST /api/v1/usuarios/batch               → crea varios usuarios en lote
+ *  - PUT /api/v1/usuarios/{username}           → actualiza usuario existente (If-Match / 412)
  *  - DELETE /api/v1/usuarios/{username}        → elimina usuario existente
+ *  - DELETE /api/v1/usuarios                   → elimina varios usuarios por username
+ *  - GET /api/v1/usuarios/search?prefix=&limit= → autocompletado por prefijo de username (en memoria)
+ *  - GET /api/v1/usuarios/search/stats         → tamaño y memoria del índice de usernames
+ *  - GET /api/v1/usuarios/cache/stats          → contadores de la caché por username
  * @author Quique
  */
 @RestController
@@ -42,42 +68,98 @@ public class UsuarioController {
     @Autowired
     private UsuarioService servicio;
 
+    @Autowired
+    private CacheUsuarios cache;
+
+    @Value("${usuarios.paginacion.limite-defecto:50}")
+    private int limiteDefecto;
+
+    @Value("${usuarios.paginacion.limite-maximo:500}")
+    private int limiteMaximo;
+
+    @Value("${usuarios.lote.tamano-maximo:5000}")
+    private int loteMaximo;
+
+    @Value("${usuarios.busqueda.limite-defecto:10}")
+    private int limiteBusquedaDefecto;
+
+    @Value("${usuarios.busqueda.limite-maximo:100}")
+    private int limiteBusquedaMaximo;
+
+    @Autowired
+    private IndiceUsernames indice;
+
     /**
-     * Lista todos los usuarios registrados.
+     * Lista todos los usuarios registrados, sin paginar.
+     * Conserva la respuesta original del endpoint (un arreglo de usuarios), para
+     * los clientes que todavía la esperan; solo se atiende si se pide con todos=true.
      * @return colección de UsuarioResponseDTO.
      */
+    @GetMapping(params = "todos=true")
+    @ResponseStatus(HttpStatus.OK)
+    public List<UsuarioResponseDTO> listarTodos() {
+        return servicio.listarTodos();
+    }
+
+    /**
+     * Lista los usuarios registrados paginando por cursor sobre id_user.
+     * Cada página cuesta lo mismo sin importar su profundidad.
+     * @param limit cantidad máxima de usuarios por página.
+     * @param after cursor opaco devuelto en la página anterior.
+     * @return página con UsuarioResponseDTO y el cursor siguiente.
+     */
     @GetMapping
     @ResponseStatus(HttpStatus.OK)
-    public List<UsuarioResponseDTO> listarUsuarios() {
-        List<Usuario> usuarios = servicio.listarTodos();
-        List<UsuarioResponseDTO> rdto = new ArrayList<>();
-        for (Usuario usuario : usuarios)
-            rdto.add(UsuarioMapper.toDTO(usuario));
-        return rdto;
+    public PaginaUsuariosDTO listarUsuarios(@RequestParam(required = false) Integer limit,
+                                            @RequestParam(required = false) String after) {
+        int limite = (limit == null) ? limiteDefecto : limit;
+        if (limite < 1 || limite > limiteMaximo)
+            throw new SolicitudInvalidaException("Limit = " + limite + ", debe estar entre 1 y " + limiteMaximo + ".");
+        // Pide una fila extra para saber si existe una página siguiente
+        List<UsuarioResponseDTO> usuarios = servicio.listarPagina(CursorUsuario.decodificar(after), limite + 1);
+        if (usuarios.size() <= limite)
+            return new PaginaUsuariosDTO(usuarios, null);
+        List<UsuarioResponseDTO> pagina = usuarios.subList(0, limite);
+        return new PaginaUsuariosDTO(pagina, CursorUsuario.codificar(pagina.get(limite - 1).getIdUser()));
     }
 
     /**
      * Recupera un usuario por su identificador.
+     * Responde 304 sin cuerpo si el cliente envía en If-None-Match el ETag vigente.
      * @param id clave primaria del usuario.
-     * @return UsuarioResponseDTO asociado al ID.
+     * @param request petición actual, usada para evaluar If-None-Match.
+     * @return UsuarioResponseDTO asociado al ID, con su ETag.
      */
     @GetMapping("/{id}")
+    public ResponseEntity<UsuarioResponseDTO> obtenerPorId(@PathVariable Long id, WebRequest request) {
+        return responderCondicional(servicio.obtenerPorId(id), request); // Proyección sin contraseña o 404
+    }
+
+    /**
+     * Recupera varios usuarios por sus identificadores en una sola petición.
+     * Pensado para otros servicios que resuelven muchos usuarios a la vez;
+     * los IDs inexistentes no figuran en la respuesta.
+     * @param ids claves primarias, separadas por comas o repetidas.
+     * @return lista de UsuarioResponseDTO encontrados.
+     */
+    @GetMapping("/batch")
     @ResponseStatus(HttpStatus.OK)
-    public UsuarioResponseDTO obtenerPorId(@PathVariable Long id) {
-        Usuario usuario = servicio.obtenerPorId(id);     // Obtiene entidad o lanza 404
-        return UsuarioMapper.toDTO(usuario);             // Mapea a DTO de salida
+    public List<UsuarioResponseDTO> obtenerPorIds(@RequestParam List<Long> ids) {
+        if (ids.isEmpty() || ids.size() > loteMaximo)
+            throw new SolicitudInvalidaException("El lote debe tener entre 1 y " + loteMaximo + " usuarios.");
+        return servicio.obtenerPorIds(ids);
     }
 
     /**
      * Recupera un usuario por su nombre único.
+     * Responde 304 sin cuerpo si el cliente envía en If-None-Match el ETag vigente.
      * @param username cadena que identifica al usuario.
-     * @return UsuarioResponseDTO asociado al username.
+     * @param request petición actual, usada para evaluar If-None-Match.
+     * @return UsuarioResponseDTO asociado al username, con su ETag.
      */
     @GetMapping("/username/{username}")
-    @ResponseStatus(HttpStatus.OK)
-    public UsuarioResponseDTO obtenerPorUsername(@PathVariable String username) {
-        Usuario usuario = servicio.obtenerPorUsername(username);
-        return UsuarioMapper.toDTO(usuario);
+    public ResponseEntity<UsuarioResponseDTO> obtenerPorUsername(@PathVariable String username, WebRequest request) {
+        return responderCondicional(servicio.obtenerPorUsername(username), request);
     }
 
     /**
@@ -93,17 +175,45 @@ public class UsuarioController {
         return UsuarioMapper.toDTO(guardado);             // Convierte Entidad → ResponseDTO
     }
 
+    /**
+     * Crea varios usuarios en una sola petición.
+     * Los usernames ya existentes o repetidos en el lote no se insertan y
+     * se informan como DUPLICADO en lugar de abortar la operación.
+     * @param dtos lista de UsuarioRequestDTO validados.
+     * @return resultado de cada elemento, en el orden recibido.
+     */
+    @PostMapping("/batch")
+    @ResponseStatus(HttpStatus.OK)
+    public List<ResultadoLoteDTO> crearUsuarios(@RequestBody List<@Valid UsuarioRequestDTO> dtos) {
+        if (dtos.isEmpty() || dtos.size() > loteMaximo)
+            throw new SolicitudInvalidaException("El lote debe tener entre 1 y " + loteMaximo + " usuarios.");
+        List<Usuario> entidades = new ArrayList<>(dtos.size());
+        for (UsuarioRequestDTO dto : dtos)
+            entidades.add(UsuarioMapper.toUsuario(dto));
+        return servicio.crearLote(entidades);
+    }
+
     /**
      * Actualiza un usuario existente identificado por username.
+     * Con If-Match el cambio solo se aplica si el ETag enviado sigue vigente;
+     * en caso contrario se responde 412 sin modificar nada.
      * @param username clave única del usuario a modificar.
+     * @param ifMatch ETag esperado, opcional ("*" equivale a no enviarlo).
      * @param dto datos nuevos en UsuarioRequestDTO.
-     * @return UsuarioResponseDTO con los cambios aplicados.
+     * @return UsuarioResponseDTO con los cambios aplicados y su nuevo ETag.
      */
     @PutMapping("/{username}")
-    @ResponseStatus(HttpStatus.OK)
-    public UsuarioResponseDTO actualizarPassword(@PathVariable String username, @Valid @RequestBody UsuarioRequestDTO dto) {
-        Usuario actualizado = servicio.actualizarPassword(username, UsuarioMapper.toUsuario(dto));
-        return UsuarioMapper.toDTO(actualizado);
+    public ResponseEntity<UsuarioResponseDTO> actualizarPassword(@PathVariable String username,
+                                                                 @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                                                 @Valid @RequestBody UsuarioRequestDTO dto) {
+        EtagUsuario esperado = null;
+        if (ifMatch != null && !ifMatch.trim().equals("*")) {
+            esperado = EtagUsuario.decodificar(ifMatch);
+            if (esperado == null)   // Un ETag ajeno nunca coincide con el vigente
+                throw new PrecondicionFallidaException("If-Match = " + ifMatch + ", no corresponde a ninguna versión del usuario.");
+        }
+        UsuarioResponseDTO actualizado = servicio.actualizarPassword(username, UsuarioMapper.toUsuario(dto), esperado);
+        return ResponseEntity.ok().eTag(EtagUsuario.de(actualizado).codificar()).body(actualizado);
     }
 
     /**
@@ -115,4 +225,71 @@ public class UsuarioController {
     public void eliminarUsuario(@PathVariable String username) {
         servicio.eliminarUsuario(username);
     }
+
+    /**
+     * Elimina varios usuarios en una sola petición con un borrado por conjuntos.
+     * Los usernames inexistentes no abortan la operación: se informan aparte.
+     * @param usernames lista de usernames a borrar.
+     * @return ResultadoBorradoDTO con los usernames eliminados e inexistentes.
+     */
+    @DeleteMapping
+    @ResponseStatus(HttpStatus.OK)
+    public ResultadoBorradoDTO eliminarUsuarios(@RequestBody List<@NotBlank String> usernames) {
+        if (usernames.isEmpty() || usernames.size() > loteMaximo)
+            throw new SolicitudInvalidaException("El lote debe tener entre 1 y " + loteMaximo + " usuarios.");
+        return servicio.eliminarLote(usernames);
+    }
+
+    /**
+     * Busca usuarios cuyo username empieza con el prefijo indicado, para
+     * autocompletado. Se resuelve en el índice en memoria, sin consultar MySQL.
+     * @param prefix comienzo del username (sin distinguir mayúsculas ASCII).
+     * @param limit cantidad máxima de usuarios a devolver.
+     * @return lista de UsuarioResponseDTO en orden alfabético.
+     */
+    @GetMapping("/search")
+    @ResponseStatus(HttpStatus.OK)
+    public List<UsuarioResponseDTO> buscarPorPrefijo(@RequestParam String prefix,
+                                                     @RequestParam(required = false) Integer limit) {
+        if (prefix.isBlank())
+            throw new SolicitudInvalidaException("El prefijo no puede estar vacío.");
+        int limite = (limit == null) ? limiteBusquedaDefecto : limit;
+        if (limite < 1 || limite > limiteBusquedaMaximo)
+            throw new SolicitudInvalidaException("Limit = " + limite + ", debe estar entre 1 y " + limiteBusquedaMaximo + ".");
+        return servicio.buscarPorPrefijo(prefix, limite);
+    }
+
+    /**
+     * Informa el tamaño y la memoria ocupada por el índice de usernames.
+     * @return EstadisticasIndiceDTO con usuarios indexados, bytes totales y bytes por usuario.
+     */
+    @GetMapping("/search/stats")
+    @ResponseStatus(HttpStatus.OK)
+    public EstadisticasIndiceDTO estadisticasIndice() {
+        int usuarios = indice.tamano();
+        long bytes = indice.bytes();
+        return new EstadisticasIndiceDTO(usuarios, bytes, (usuarios == 0) ? 0 : (double) bytes / usuarios);
+    }
+
+    /**
+     * Informa los contadores de la caché de búsquedas por username.
+     * @return EstadisticasCacheDTO con aciertos, fallos, expulsiones y tamaño.
+     */
+    @GetMapping("/cache/stats")
+    @ResponseStatus(HttpStatus.OK)
+    public EstadisticasCacheDTO estadisticasCache() {
+        CacheStats stats = cache.estadisticas();
+        return new EstadisticasCacheDTO(stats.hitCount(), stats.missCount(), stats.evictionCount(), cache.tamano());
+    }
+
+    /**
+     * Devuelve el usuario con su ETag, o 304 sin cuerpo si el ETag enviado
+     * en If-None-Match es el vigente; en ese caso no se serializa nada.
+     */
+    private static ResponseEntity<UsuarioResponseDTO> responderCondicional(UsuarioResponseDTO dto, WebRequest request) {
+        String etag = EtagUsuario.de(dto).codificar();
+        if (request.checkNotModified(etag))
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        return ResponseEntity.ok().eTag(etag).body(dto);
+    }
 }
\ No newline at end of file
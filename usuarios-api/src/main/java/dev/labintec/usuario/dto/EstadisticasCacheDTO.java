@@ -0,0 +1,35 @@
+package dev.labintec.usuario.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Contadores de la caché de usuarios devueltos en la respuesta de la API.
+ * @author Quique
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EstadisticasCacheDTO {
+
+    /**
+     * Búsquedas resueltas desde la caché.
+     */
+    private long hits;
+
+    /**
+     * Búsquedas que tuvieron que consultar la base de datos.
+     */
+    private long misses;
+
+    /**
+     * Entradas expulsadas por tamaño o por tiempo de vida.
+     */
+    private long evictions;
+
+    /**
+     * Cantidad aproximada de entradas retenidas.
+     */
+    private long size;
+}
@@ -0,0 +1,30 @@
+package dev.labintec.usuario.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Tamaño y memoria del índice de usernames devueltos en la respuesta de la API.
+ * @author Quique
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EstadisticasIndiceDTO {
+
+    /**
+     * Cantidad de usuarios indexados.
+     */
+    private int usuarios;
+
+    /**
+     * Memoria aproximada ocupada por el índice, en bytes.
+     */
+    private long bytes;
+
+    /**
+     * Memoria aproximada por usuario indexado, en bytes.
+     */
+    private double bytesPorUsuario;
+}
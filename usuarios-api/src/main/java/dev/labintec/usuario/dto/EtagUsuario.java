@@ -0,0 +1,55 @@
+package dev.labintec.usuario.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * ETag fuerte de un usuario, formado por su id_user y su versión.
+ * El id_user distingue a un usuario borrado y vuelto a crear con el mismo
+ * username; la versión aumenta con cada cambio de contraseña.
+ * @author Quique
+ */
+@Getter
+@AllArgsConstructor
+public class EtagUsuario {
+
+    private final long idUser;
+
+    private final long version;
+
+    /**
+     * Obtiene el ETag vigente de un usuario.
+     * @param dto usuario con id_user y versión
+     * @return ETag del usuario
+     */
+    public static EtagUsuario de(UsuarioResponseDTO dto) {
+        return new EtagUsuario(dto.getIdUser(), dto.getVersion());
+    }
+
+    /**
+     * Genera el valor de la cabecera ETag, entre comillas.
+     * @return ETag listo para devolver al cliente
+     */
+    public String codificar() {
+        return "\"" + idUser + "-" + version + "\"";
+    }
+
+    /**
+     * Interpreta un ETag recibido en If-Match.
+     * @param valor contenido de la cabecera
+     * @return ETag recibido, o null si no tiene el formato de un ETag fuerte de usuario
+     */
+    public static EtagUsuario decodificar(String valor) {
+        String texto = valor.trim();
+        if (texto.length() < 2 || !texto.startsWith("\"") || !texto.endsWith("\""))
+            return null;    // Incluye los ETag débiles (W/"...") y las listas
+        int guion = texto.indexOf('-');
+        if (guion < 0)
+            return null;
+        try {
+            return new EtagUsuario(Long.parseLong(texto.substring(1, guion)), Long.parseLong(texto.substring(guion + 1, texto.length() - 1)));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
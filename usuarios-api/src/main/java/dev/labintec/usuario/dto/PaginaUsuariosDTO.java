@@ -0,0 +1,28 @@
+package dev.labintec.usuario.dto;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Página de usuarios devuelta por el listado paginado por cursor.
+ * Contiene los usuarios de la página y el cursor opaco para pedir la siguiente.
+ * @author Quique
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaginaUsuariosDTO {
+
+    /**
+     * Usuarios de la página, ordenados por identificador ascendente.
+     */
+    private List<UsuarioResponseDTO> items;
+
+    /**
+     * Cursor a enviar en el parámetro "after" para obtener la siguiente página,
+     * o null si no quedan más usuarios.
+     */
+    private String nextCursor;
+}
@@ -0,0 +1,27 @@
+package dev.labintec.usuario.dto;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Resultado de un borrado masivo de usuarios.
+ * Informa qué usernames fueron eliminados y cuáles no existían.
+ * @author Quique
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResultadoBorradoDTO {
+
+    /**
+     * Usernames eliminados, en el orden recibido.
+     */
+    private List<String> eliminados;
+
+    /**
+     * Usernames que no existían, en el orden recibido.
+     */
+    private List<String> inexistentes;
+}
@@ -0,0 +1,39 @@
+package dev.labintec.usuario.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Resultado de un elemento dentro de una creación de usuarios por lote.
+ * Indica si el usuario fue creado y, en ese caso, el identificador asignado.
+ * @author Quique
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResultadoLoteDTO {
+
+    /**
+     * Posibles resultados de cada elemento del lote.
+     */
+    public enum Estado {
+        CREADO,      // Insertado en la base de datos
+        DUPLICADO    // Ya existía o se repitió dentro del mismo lote
+    }
+
+    /**
+     * Nombre de usuario enviado en el elemento.
+     */
+    private String username;
+
+    /**
+     * Resultado obtenido para el elemento.
+     */
+    private Estado estado;
+
+    /**
+     * Identificador asignado, o null si no fue creado.
+     */
+    private Long idUser;
+}
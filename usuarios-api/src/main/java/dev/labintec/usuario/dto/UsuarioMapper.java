@@ -20,6 +20,7 @@ public class UsuarioMapper {
         UsuarioResponseDTO dto = new UsuarioResponseDTO();
         dto.setIdUser(usuario.getIdUser());
         dto.setUsername(usuario.getUsername());
+        dto.setVersion(usuario.getVersion());
         return dto;
     }
 
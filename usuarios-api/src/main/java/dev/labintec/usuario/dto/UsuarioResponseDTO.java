@@ -1,5 +1,6 @@
 package dev.labintec.usuario.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.Data;
 import jakarta.validation.constraints.NotBlank;
 import lombok.AllArgsConstructor;
@@ -7,7 +8,8 @@ import lombok.NoArgsConstructor;
 
 /**
  * Datos de usuario devueltos en la respuesta de la API.
- * Contiene el identificador único y el nombre asociado.
+ * Contiene el identificador único y el nombre asociado. La versión no
+ * viaja en el cuerpo: se publica en la cabecera ETag.
  * @author Quique
  */
 @Data
@@ -25,4 +27,10 @@ public class UsuarioResponseDTO {
      */
     @NotBlank(message = "El nombre de usuario es obligatorio")
     private String username;
+
+    /**
+     * Versión de la fila, usada para calcular el ETag.
+     */
+    @JsonIgnore
+    private Long version;
 }
\ No newline at end of file
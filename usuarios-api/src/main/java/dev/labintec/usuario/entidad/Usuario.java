@@ -6,6 +6,8 @@ import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import jakarta.persistence.Version;
 import lombok.NonNull;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -15,11 +17,12 @@ import lombok.RequiredArgsConstructor;
 
 /**
  * Entidad JPA que corresponde a la tabla "user" en la base de datos.
- * Define el identificador, el nombre de usuario y la contraseña
+ * Define el identificador, el nombre de usuario, la contraseña y la versión
  * @author Quique
  */
 @Entity                    // JPA: marca la clase como entidad para persistencia
-@Table(name = "user")      // JPA: especifica el nombre de la tabla en la base de datos
+@Table(name = "user",      // JPA: especifica el nombre de la tabla en la base de datos
+       uniqueConstraints = @UniqueConstraint(name = "uk_user_username", columnNames = "username")) // JPA: índice único sobre "username"
 @Data                      // Lombok: genera getters, setters, equals, hashCode y toString
 @NoArgsConstructor         // Lombok: crea un constructor público sin argumentos
 @AllArgsConstructor        // Lombok: crea un constructor con argumentos para todos los campos
@@ -41,9 +44,16 @@ public class Usuario {
     private String username;
 
     /**
-     * Contraseña cifrada.
+     * Contraseña cifrada (hash bcrypt).
      */
     @NonNull                                        // Lombok: incluye este campo en el constructor requerido
     @Column(name = "password")                      // JPA: mapea a columna "password"
     private String password;
+
+    /**
+     * Versión de la fila; aumenta con cada cambio de contraseña.
+     */
+    @Version                                        // JPA: control de concurrencia optimista
+    @Column(name = "version")                       // JPA: mapea a columna "version"
+    private Long version;
 }
\ No newline at end of file
@@ -0,0 +1,22 @@
+package dev.labintec.usuario.excepcion;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Excepción para indicar que la versión enviada en If-Match ya no es la vigente.
+ * Esta excepción devuelve HTTP 412 (Precondition Failed) gracias a la anotación.
+ * No captura la traza de pila, ya que forma parte del flujo normal de la API.
+ * @author Quique
+ */
+@ResponseStatus(HttpStatus.PRECONDITION_FAILED) // Código 412 automáticamente cuando se lanza esta excepción.
+public class PrecondicionFallidaException extends RuntimeException {
+
+    /**
+     * Crea la excepción con un mensaje que describe el conflicto de versiones.
+     * @param message texto que explica la causa del error.
+     */
+    public PrecondicionFallidaException(String message) {
+        super(message, null, false, false); // Sin traza ni supresión: el error se responde, no se depura
+    }
+}
@@ -6,6 +6,7 @@ import org.springframework.web.bind.annotation.ResponseStatus;
 /**
  * Excepción para señalar que un recurso ya existe.
  * Esta excepción devuelve HTTP 409 (Conflict) gracias a la anotación
+ * No captura la traza de pila, ya que forma parte del flujo normal de la API.
  * @author Quique
  */
 @ResponseStatus(HttpStatus.CONFLICT) // Asigna estado 409 al lanzar esta excepción
@@ -16,6 +17,6 @@ public class RecursoDuplicadoException extends RuntimeException {
      * @param message texto que detalla el conflicto de recursos
      */
     public RecursoDuplicadoException(String message) {
-        super(message);
+        super(message, null, false, false); // Sin traza ni supresión: el error se responde, no se depura
     }
 }
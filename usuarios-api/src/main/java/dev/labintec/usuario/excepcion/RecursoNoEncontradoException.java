@@ -6,6 +6,7 @@ import org.springframework.web.bind.annotation.ResponseStatus;
 /**
  * Excepción para indicar que un recurso no existe.
  * Esta excepción devuelve HTTP 404 (Not Found) gracias a la anotación.
+ * No captura la traza de pila, ya que forma parte del flujo normal de la API.
  * @author Quique
  */
 @ResponseStatus(HttpStatus.NOT_FOUND) // Código 404 automáticamente cuando se lanza esta excepción.
@@ -16,6 +17,6 @@ public class RecursoNoEncontradoException extends RuntimeException {
      * @param message texto que explica la causa del error.
      */
     public RecursoNoEncontradoException(String message) {
-        super(message);
+        super(message, null, false, false); // Sin traza ni supresión: el error se responde, no se depura
     }
 }
\ No newline at end of file
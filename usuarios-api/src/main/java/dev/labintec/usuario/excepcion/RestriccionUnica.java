@@ -0,0 +1,35 @@
+package dev.labintec.usuario.excepcion;
+
+import java.util.Locale;
+import org.springframework.dao.DataIntegrityViolationException;
+
+/**
+ * Reconoce la violación de un índice único dentro de una DataIntegrityViolationException.
+ * La capa de datos traduce a esa misma excepción cualquier restricción (NOT NULL,
+ * largo de columna, clave foránea), pero solo la del índice único significa que el
+ * recurso ya existe. El nombre del índice figura en el mensaje del driver (MySQL:
+ * "Duplicate entry ... for key 'user.uk_user_username'"; H2 lo informa en mayúsculas).
+ * @author Quique
+ */
+public class RestriccionUnica {
+
+    /**
+     * Índice único sobre user.username.
+     */
+    public static final String USERNAME = "uk_user_username";
+
+    /**
+     * Indica si la excepción, o alguna de sus causas, es la violación del índice dado.
+     * @param e excepción de integridad lanzada por la capa de datos
+     * @param indice nombre del índice único, en minúsculas
+     * @return true si la restricción violada es ese índice
+     */
+    public static boolean violada(DataIntegrityViolationException e, String indice) {
+        for (Throwable causa = e; causa != null; causa = causa.getCause()) {
+            String mensaje = causa.getMessage();
+            if (mensaje != null && mensaje.toLowerCase(Locale.ROOT).contains(indice))
+                return true;
+        }
+        return false;
+    }
+}
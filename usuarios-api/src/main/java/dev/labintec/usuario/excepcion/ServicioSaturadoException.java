@@ -0,0 +1,21 @@
+package dev.labintec.usuario.excepcion;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Excepción para indicar que el servicio rechaza la petición por saturación.
+ * Esta excepción devuelve HTTP 503 (Service Unavailable) gracias a la anotación.
+ * @author Quique
+ */
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE) // Código 503 automáticamente cuando se lanza esta excepción.
+public class ServicioSaturadoException extends RuntimeException {
+
+    /**
+     * Crea la excepción con un mensaje que describe el recurso saturado.
+     * @param message texto que explica la causa del rechazo.
+     */
+    public ServicioSaturadoException(String message) {
+        super(message);
+    }
+}
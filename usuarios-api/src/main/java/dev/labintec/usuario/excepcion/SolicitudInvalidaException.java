@@ -0,0 +1,21 @@
+package dev.labintec.usuario.excepcion;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Excepción para indicar que los parámetros de la petición no son válidos.
+ * Esta excepción devuelve HTTP 400 (Bad Request) gracias a la anotación.
+ * @author Quique
+ */
+@ResponseStatus(HttpStatus.BAD_REQUEST) // Código 400 automáticamente cuando se lanza esta excepción.
+public class SolicitudInvalidaException extends RuntimeException {
+
+    /**
+     * Crea la excepción con un mensaje que describe el parámetro inválido.
+     * @param message texto que explica la causa del error.
+     */
+    public SolicitudInvalidaException(String message) {
+        super(message);
+    }
+}
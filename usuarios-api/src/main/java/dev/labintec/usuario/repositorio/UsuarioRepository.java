@@ -1,15 +1,146 @@
 package dev.labintec.usuario.repositorio;
 
+import dev.labintec.usuario.dto.UsuarioResponseDTO;
 import dev.labintec.usuario.entidad.Usuario;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 /**
  * Repositorio para la entidad Usuario.
  * Esta interfaz extiende de JpaRepository, lo que le proporciona métodos CRUD
  * básicos, además de la posibilidad de definir consultas personalizadas.
+ * Las lecturas de la API usan proyecciones que seleccionan solo id_user,
+ * username y version directamente en UsuarioResponseDTO, en transacciones de solo lectura,
+ * de modo que la contraseña nunca sale de la base en una lectura.
  * @author Quique
  */
 public interface UsuarioRepository extends JpaRepository<Usuario, Long> {
     Optional<Usuario> findByUsername(String username);
+
+    /**
+     * Proyección de un usuario por su identificador.
+     * @param idUser clave primaria
+     * @return DTO con id_user, username y versión, o vacío si no existe
+     */
+    @Transactional(readOnly = true)
+    @Query("SELECT new dev.labintec.usuario.dto.UsuarioResponseDTO(u.idUser, u.username, u.version) FROM Usuario u WHERE u.idUser = :idUser")
+    Optional<UsuarioResponseDTO> buscarDTOPorId(@Param("idUser") Long idUser);
+
+    /**
+     * Proyección de un usuario por su username.
+     * @param username nombre único
+     * @return DTO con id_user, username y versión, o vacío si no existe
+     */
+    @Transactional(readOnly = true)
+    @Query("SELECT new dev.labintec.usuario.dto.UsuarioResponseDTO(u.idUser, u.username, u.version) FROM Usuario u WHERE u.username = :username")
+    Optional<UsuarioResponseDTO> buscarDTOPorUsername(@Param("username") String username);
+
+    /**
+     * Proyección de todos los usuarios, ordenados por id_user.
+     * @return DTO de todos los usuarios
+     */
+    @Transactional(readOnly = true)
+    @Query("SELECT new dev.labintec.usuario.dto.UsuarioResponseDTO(u.idUser, u.username, u.version) FROM Usuario u ORDER BY u.idUser")
+    List<UsuarioResponseDTO> listarDTO();
+
+    /**
+     * Recupera la siguiente página de usuarios a partir de un id_user (keyset).
+     * Usa el índice de la clave primaria, por lo que el coste no depende de la profundidad.
+     * @param idUser último identificador ya entregado al cliente
+     * @param limite cantidad máxima de filas a devolver
+     * @return DTO de los usuarios con id_user mayor al indicado, en orden ascendente
+     */
+    @Transactional(readOnly = true)
+    @Query("SELECT new dev.labintec.usuario.dto.UsuarioResponseDTO(u.idUser, u.username, u.version) FROM Usuario u WHERE u.idUser > :idUser ORDER BY u.idUser")
+    List<UsuarioResponseDTO> listarPaginaDTO(@Param("idUser") Long idUser, Limit limite);
+
+    /**
+     * Proyección de los usuarios cuyos identificadores figuran en la colección.
+     * @param ids claves primarias a buscar
+     * @return DTO de los usuarios encontrados
+     */
+    @Transactional(readOnly = true)
+    @Query("SELECT new dev.labintec.usuario.dto.UsuarioResponseDTO(u.idUser, u.username, u.version) FROM Usuario u WHERE u.idUser IN :ids")
+    List<UsuarioResponseDTO> listarDTOPorIds(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Devuelve, en una sola consulta, cuáles de los usernames indicados ya existen.
+     * @param usernames nombres a verificar
+     * @return subconjunto de usernames presentes en la tabla user
+     */
+    @Query("SELECT u.username FROM Usuario u WHERE u.username IN :usernames")
+    List<String> findUsernamesExistentes(@Param("usernames") Collection<String> usernames);
+
+    /**
+     * Devuelve cuáles de los usernames indicados existen y bloquea esas filas
+     * (SELECT ... FOR UPDATE) hasta el final de la transacción, para que el
+     * borrado posterior informe exactamente las filas que eliminó.
+     * @param usernames nombres a verificar
+     * @return subconjunto de usernames presentes en la tabla user
+     */
+    @Query(value = "SELECT username FROM `user` WHERE username IN (:usernames) FOR UPDATE", nativeQuery = true)
+    List<String> bloquearUsernamesExistentes(@Param("usernames") Collection<String> usernames);
+
+    /**
+     * Proyección de los usuarios cuyos usernames figuran en la colección.
+     * @param usernames nombres a buscar
+     * @return DTO de los usuarios encontrados
+     */
+    @Transactional(readOnly = true)
+    @Query("SELECT new dev.labintec.usuario.dto.UsuarioResponseDTO(u.idUser, u.username, u.version) FROM Usuario u WHERE u.username IN :usernames")
+    List<UsuarioResponseDTO> listarDTOPorUsernames(@Param("usernames") Collection<String> usernames);
+
+    /**
+     * Cambia la contraseña de un usuario con un único UPDATE, sin cargar la entidad.
+     * Incrementa la versión en la misma sentencia.
+     * @param username nombre único del usuario
+     * @param password nueva contraseña
+     * @return cantidad de filas afectadas (0 si el username no existe)
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE Usuario u SET u.password = :password, u.version = u.version + 1 WHERE u.username = :username")
+    int actualizarPassword(@Param("username") String username, @Param("password") String password);
+
+    /**
+     * Cambia la contraseña solo si el usuario conserva el id_user y la versión
+     * esperados (compare-and-set en un único UPDATE).
+     * @param username nombre único del usuario
+     * @param idUser identificador esperado
+     * @param version versión esperada
+     * @param password nueva contraseña
+     * @return cantidad de filas afectadas (0 si no existe o la versión cambió)
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE Usuario u SET u.password = :password, u.version = u.version + 1 WHERE u.username = :username AND u.idUser = :idUser AND u.version = :version")
+    int actualizarPasswordSiVersion(@Param("username") String username, @Param("idUser") Long idUser,
+                                    @Param("version") Long version, @Param("password") String password);
+
+    /**
+     * Elimina un usuario con un único DELETE, sin cargar la entidad.
+     * @param username nombre único del usuario
+     * @return cantidad de filas afectadas (0 si el username no existe)
+     */
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM Usuario u WHERE u.username = :username")
+    int eliminarPorUsername(@Param("username") String username);
+
+    /**
+     * Elimina con un único DELETE todos los usuarios cuyos usernames figuran en la colección.
+     * @param usernames nombres a eliminar
+     * @return cantidad de filas afectadas
+     */
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM Usuario u WHERE u.username IN :usernames")
+    int eliminarPorUsernames(@Param("usernames") Collection<String> usernames);
 }
\ No newline at end of file
@@ -0,0 +1,77 @@
+package dev.labintec.usuario.servicio;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import dev.labintec.usuario.dto.UsuarioResponseDTO;
+import java.time.Duration;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Caché en memoria, acotada por tamaño y tiempo de vida, de usuarios por username.
+ * Se ubica delante de la búsqueda por username para evitar la ida y vuelta a
+ * MySQL en las cuentas consultadas con frecuencia. Guarda solo id_user y
+ * username, nunca la contraseña.
+ * @author Quique
+ */
+@Component
+public class CacheUsuarios {
+
+    private final Cache<String, UsuarioResponseDTO> cache;
+
+    /**
+     * Construye la caché con los límites configurados.
+     * @param tamanoMaximo cantidad máxima de usuarios retenidos.
+     * @param ttl tiempo de vida de cada entrada desde su escritura.
+     */
+    public CacheUsuarios(@Value("${usuarios.cache.tamano-maximo:10000}") long tamanoMaximo,
+                         @Value("${usuarios.cache.ttl:10m}") Duration ttl) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(tamanoMaximo)   // Expulsa por tamaño (W-TinyLFU)
+                .expireAfterWrite(ttl)       // Expulsa por antigüedad
+                .recordStats()               // Registra aciertos, fallos y expulsiones
+                .build();
+    }
+
+    /**
+     * Busca un usuario en la caché.
+     * @param username nombre único del usuario.
+     * @return el usuario cacheado o null si no está.
+     */
+    public UsuarioResponseDTO obtener(String username) {
+        return cache.getIfPresent(username);
+    }
+
+    /**
+     * Guarda o reemplaza el usuario asociado a su username.
+     * @param usuario usuario persistido.
+     */
+    public void guardar(UsuarioResponseDTO usuario) {
+        cache.put(usuario.getUsername(), usuario);
+    }
+
+    /**
+     * Elimina la entrada de un username.
+     * @param username nombre único del usuario.
+     */
+    public void invalidar(String username) {
+        cache.invalidate(username);
+    }
+
+    /**
+     * Devuelve los contadores acumulados de la caché.
+     * @return instantánea de aciertos, fallos y expulsiones.
+     */
+    public CacheStats estadisticas() {
+        return cache.stats();
+    }
+
+    /**
+     * Devuelve la cantidad aproximada de entradas retenidas.
+     * @return número de usuarios en caché.
+     */
+    public long tamano() {
+        return cache.estimatedSize();
+    }
+}
@@ -0,0 +1,111 @@
+package dev.labintec.usuario.servicio;
+
+import dev.labintec.usuario.excepcion.ServicioSaturadoException;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Component;
+
+/**
+ * Calcula hashes bcrypt de contraseñas en un pool de hilos propio y acotado.
+ * El trabajo de CPU queda limitado a "hilos" núcleos y a lo sumo "cola"
+ * peticiones esperan turno; el resto se rechaza de inmediato con 503,
+ * de modo que las altas masivas no dejan sin hilos de Tomcat a los GET.
+ * @author Quique
+ */
+@Component
+public class HasheadorPasswords {
+
+    private final BCryptPasswordEncoder encoder;
+    private final ThreadPoolExecutor pool;
+    private final long esperaMaximaMs;
+
+    /**
+     * Construye el pool y el codificador con los parámetros configurados.
+     * @param costo factor de trabajo de bcrypt (log2 de las rondas).
+     * @param hilos cantidad de hilos dedicados al cálculo de hashes.
+     * @param cola cantidad máxima de hashes pendientes antes de rechazar.
+     * @param esperaMaxima tiempo máximo que una petición espera su hash.
+     */
+    public HasheadorPasswords(@Value("${usuarios.hash.costo:10}") int costo,
+                              @Value("${usuarios.hash.hilos:2}") int hilos,
+                              @Value("${usuarios.hash.cola:64}") int cola,
+                              @Value("${usuarios.hash.espera-maxima:5s}") Duration esperaMaxima) {
+        this.encoder = new BCryptPasswordEncoder(costo);
+        this.pool = new ThreadPoolExecutor(hilos, hilos, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(cola),                  // Cola acotada: aplica contrapresión
+                new CustomizableThreadFactory("hash-password-"),
+                new ThreadPoolExecutor.AbortPolicy());           // Cola llena → RejectedExecutionException
+        this.esperaMaximaMs = esperaMaxima.toMillis();
+    }
+
+    /**
+     * Calcula el hash de una contraseña en el pool dedicado.
+     * @param password contraseña en texto plano.
+     * @return hash bcrypt de la contraseña.
+     * @throws ServicioSaturadoException si el pool está lleno o el hash no llega a tiempo.
+     */
+    public String hashear(String password) {
+        return esperar(enviar(password));
+    }
+
+    /**
+     * Calcula en paralelo los hashes de varias contraseñas, en tandas del tamaño del pool.
+     * @param passwords contraseñas en texto plano.
+     * @return hashes bcrypt en el mismo orden.
+     * @throws ServicioSaturadoException si el pool está lleno o algún hash no llega a tiempo.
+     */
+    public List<String> hashearTodos(List<String> passwords) {
+        List<String> hashes = new ArrayList<>(passwords.size());
+        int tanda = pool.getMaximumPoolSize();
+        for (int i = 0; i < passwords.size(); i += tanda) {
+            List<Future<String>> pendientes = new ArrayList<>(tanda);
+            for (String password : passwords.subList(i, Math.min(i + tanda, passwords.size())))
+                pendientes.add(enviar(password));
+            for (Future<String> pendiente : pendientes)
+                hashes.add(esperar(pendiente));
+        }
+        return hashes;
+    }
+
+    private Future<String> enviar(String password) {
+        try {
+            return pool.submit(() -> encoder.encode(password));
+        } catch (RejectedExecutionException e) {
+            throw new ServicioSaturadoException("Demasiadas contraseñas pendientes de cifrar, reintente más tarde.");
+        }
+    }
+
+    private String esperar(Future<String> pendiente) {
+        try {
+            return pendiente.get(esperaMaximaMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            pendiente.cancel(true);
+            throw new ServicioSaturadoException("El cifrado de la contraseña superó el tiempo máximo de espera.");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServicioSaturadoException("Cifrado de la contraseña interrumpido.");
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Error al cifrar la contraseña", e.getCause());
+        }
+    }
+
+    /**
+     * Detiene el pool al cerrar la aplicación.
+     */
+    @PreDestroy
+    public void cerrar() {
+        pool.shutdown();
+    }
+}
@@ -0,0 +1,356 @@
+package dev.labintec.usuario.servicio;
+
+import dev.labintec.usuario.dto.UsuarioResponseDTO;
+import dev.labintec.usuario.repositorio.UsuarioRepository;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentSkipListMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Índice en memoria de usernames para búsquedas por prefijo (autocompletado).
+ * Los usernames se guardan ordenados y concatenados en UTF-8 en un único
+ * arreglo de bytes, con un arreglo de posiciones y otro de id_user paralelos:
+ * unos 12 bytes por usuario más el largo del nombre, sin un objeto por usuario.
+ * La búsqueda es binaria sobre esa estructura, sin tocar la base de datos.
+ * El orden, la búsqueda exacta y las bajas no distinguen mayúsculas ASCII, igual
+ * que la restricción única de la columna.
+ *
+ * La base del índice es inmutable; las altas y bajas posteriores se anotan en una
+ * lista con saltos concurrente ordenada con el mismo criterio, que las búsquedas
+ * combinan con la base. Cuando esos cambios superan MAX_CAMBIOS se vuelcan en una
+ * base nueva, así una escritura no copia los arreglos completos. Base y cambios se
+ * publican juntos en una referencia volatile: las lecturas no se bloquean.
+ * Se construye al terminar el arranque (antes de que la instancia se declare
+ * lista para recibir tráfico) y se reconstruye periódicamente para incorporar
+ * cambios hechos por otras instancias. La reconstrucción lee y arma la base nueva
+ * sin tomar el monitor, así no frena las altas y bajas; las que llegan mientras
+ * tanto se registran aparte y se vuelven a anotar sobre la base nueva al publicarla.
+ * @author Quique
+ */
+@Component
+public class IndiceUsernames {
+
+    private static final Logger log = LoggerFactory.getLogger(IndiceUsernames.class);
+
+    @Autowired
+    private UsuarioRepository repositorio;
+
+    private static final int MAX_CAMBIOS = 4096;    // Altas y bajas pendientes antes de rearmar la base
+
+    private static final long BAJA = -1;            // id_user de un cambio que marca una baja
+
+    private static final Comparator<byte[]> PLEGADO = (a, b) -> comparar(a, 0, a.length, b, 0, b.length);
+
+    private volatile Estado actual = new Estado(new Indice(new byte[0], new int[] {0}, new long[0]));
+
+    private final Object reconstruccion = new Object();    // Una reconstrucción a la vez
+
+    private List<Entrada> durante;  // Cambios anotados desde que empezó la lectura en curso; protegido por this
+
+    /**
+     * Construye el índice con todos los usuarios de la base de datos.
+     * Corre con el contexto ya refrescado, así el arranque no consulta la base
+     * (ni la necesita el entrenamiento del archivo CDS del perfil arranque-rapido).
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void construir() {
+        reconstruir();
+        Indice indice = actual.base;
+        log.info("Índice de usernames: {} usuarios, {} bytes ({} bytes por usuario)",
+                indice.tamano(), indice.bytes(), indice.tamano() == 0 ? 0 : indice.bytes() / indice.tamano());
+    }
+
+    /**
+     * Relee todos los usuarios y publica un índice nuevo.
+     * Solo el reemplazo y la reanotación de los cambios hechos durante la lectura
+     * se hacen con el monitor tomado. Reanotar un alta o baja que la lectura ya
+     * incluía no altera el resultado.
+     */
+    @Scheduled(fixedDelayString = "${usuarios.indice.refresco:5m}", initialDelayString = "${usuarios.indice.refresco:5m}")
+    public void reconstruir() {
+        synchronized (reconstruccion) {
+            synchronized (this) {
+                durante = new ArrayList<>();
+            }
+            Indice base;
+            try {
+                List<UsuarioResponseDTO> usuarios = repositorio.listarDTO(); // SELECT id_user, username FROM user
+                List<Entrada> entradas = new ArrayList<>(usuarios.size());
+                for (UsuarioResponseDTO usuario : usuarios)
+                    entradas.add(new Entrada(usuario.getUsername().getBytes(StandardCharsets.UTF_8), usuario.getIdUser()));
+                base = Indice.de(entradas);
+            } catch (RuntimeException e) {
+                synchronized (this) {
+                    durante = null;
+                }
+                throw e;
+            }
+            synchronized (this) {
+                List<Entrada> cambios = durante;
+                durante = null;
+                actual = new Estado(base);
+                for (Entrada cambio : cambios)
+                    anotar(cambio);
+                compactarSiCorresponde();
+            }
+        }
+    }
+
+    /**
+     * Busca los usuarios cuyo username empieza con el prefijo, en orden alfabético.
+     * @param prefijo comienzo del username (sin distinguir mayúsculas ASCII).
+     * @param limite cantidad máxima de resultados.
+     * @return usuarios encontrados, con id_user y username.
+     */
+    public List<UsuarioResponseDTO> buscar(String prefijo, int limite) {
+        Estado estado = actual;
+        Indice indice = estado.base;
+        byte[] buscado = prefijo.getBytes(StandardCharsets.UTF_8);
+        List<UsuarioResponseDTO> encontrados = new ArrayList<>(Math.min(limite, 16));
+        Iterator<Entrada> cambios = estado.cambios.tailMap(buscado).values().iterator();
+        Entrada cambio = cambios.hasNext() ? cambios.next() : null;
+        int i = indice.primeroNoMenor(buscado);
+        while (encontrados.size() < limite) {   // Mezcla de las dos secuencias ordenadas
+            boolean enBase = i < indice.tamano() && indice.empiezaCon(i, buscado);
+            boolean enCambios = cambio != null && empiezaCon(cambio.nombre, buscado);
+            if (!enBase && !enCambios)
+                break;
+            int c = !enCambios ? -1 : !enBase ? 1
+                    : comparar(indice.datos, indice.inicios[i], indice.inicios[i + 1], cambio.nombre, 0, cambio.nombre.length);
+            if (c < 0) {
+                encontrados.add(new UsuarioResponseDTO(indice.ids[i], indice.username(i), null));
+                i++;
+                continue;
+            }
+            if (c == 0)     // El cambio reemplaza a la entrada de la base
+                i++;
+            if (cambio.id != BAJA)
+                encontrados.add(new UsuarioResponseDTO(cambio.id, new String(cambio.nombre, StandardCharsets.UTF_8), null));
+            cambio = cambios.hasNext() ? cambios.next() : null;
+        }
+        return encontrados;
+    }
+
+    /**
+     * Agrega o reemplaza usuarios recién creados.
+     * @param usuarios usuarios persistidos.
+     */
+    public synchronized void agregar(Collection<UsuarioResponseDTO> usuarios) {
+        for (UsuarioResponseDTO usuario : usuarios)
+            anotar(new Entrada(usuario.getUsername().getBytes(StandardCharsets.UTF_8), usuario.getIdUser()));
+        compactarSiCorresponde();
+    }
+
+    /**
+     * Quita usuarios eliminados; los usernames que no figuran se ignoran.
+     * @param usernames nombres de los usuarios borrados (sin distinguir mayúsculas ASCII).
+     */
+    public synchronized void quitar(Collection<String> usernames) {
+        for (String username : usernames)
+            anotar(new Entrada(username.getBytes(StandardCharsets.UTF_8), BAJA));
+        compactarSiCorresponde();
+    }
+
+    /**
+     * Registra un alta o baja sobre el estado vigente y ajusta la cantidad de usuarios.
+     * Si hay una reconstrucción leyendo la base, también la guarda para reanotarla.
+     */
+    private void anotar(Entrada entrada) {
+        if (durante != null)
+            durante.add(entrada);
+        Estado estado = actual;
+        Entrada previo = estado.cambios.put(entrada.nombre, entrada);  // El valor conserva el nombre tal como llegó
+        boolean estaba = (previo != null) ? previo.id != BAJA : estado.base.buscarExacto(entrada.nombre) >= 0;
+        boolean esta = entrada.id != BAJA;
+        if (estaba != esta)
+            estado.tamano += esta ? 1 : -1;
+    }
+
+    /**
+     * Vuelca los cambios en una base nueva cuando son demasiados para combinarlos en cada búsqueda.
+     */
+    private void compactarSiCorresponde() {
+        Estado estado = actual;
+        if (estado.cambios.size() <= MAX_CAMBIOS)
+            return;
+        Indice base = estado.base;
+        List<Entrada> entradas = new ArrayList<>(estado.tamano);
+        for (int i = 0; i < base.tamano(); i++) {
+            byte[] nombre = Arrays.copyOfRange(base.datos, base.inicios[i], base.inicios[i + 1]);
+            if (!estado.cambios.containsKey(nombre))
+                entradas.add(new Entrada(nombre, base.ids[i]));
+        }
+        for (Entrada cambio : estado.cambios.values())
+            if (cambio.id != BAJA)
+                entradas.add(cambio);
+        actual = new Estado(Indice.de(entradas));
+    }
+
+    /**
+     * @return cantidad de usuarios en el índice.
+     */
+    public int tamano() {
+        return actual.tamano;
+    }
+
+    /**
+     * @return memoria aproximada ocupada por el índice, en bytes.
+     */
+    public long bytes() {
+        Estado estado = actual;
+        long bytes = estado.base.bytes();
+        for (Entrada cambio : estado.cambios.values())
+            bytes += 64 + cambio.nombre.length;     // Nodo de la lista con saltos, entrada y arreglo, aproximado
+        return bytes;
+    }
+
+    /**
+     * Compara dos usernames en UTF-8 byte a byte (sin signo), plegando A-Z a minúsculas.
+     */
+    private static int comparar(byte[] a, int desdeA, int hastaA, byte[] b, int desdeB, int hastaB) {
+        int largo = Math.min(hastaA - desdeA, hastaB - desdeB);
+        for (int k = 0; k < largo; k++) {
+            int x = plegar(a[desdeA + k]);
+            int y = plegar(b[desdeB + k]);
+            if (x != y)
+                return x - y;
+        }
+        return (hastaA - desdeA) - (hastaB - desdeB);
+    }
+
+    private static boolean empiezaCon(byte[] nombre, byte[] prefijo) {
+        return nombre.length >= prefijo.length && comparar(nombre, 0, prefijo.length, prefijo, 0, prefijo.length) == 0;
+    }
+
+    private static int plegar(byte b) {
+        int c = b & 0xFF;
+        return (c >= 'A' && c <= 'Z') ? c + ('a' - 'A') : c;
+    }
+
+    /**
+     * Base inmutable más los cambios anotados desde que se armó; se reemplaza entero
+     * al reconstruir o compactar. Los cambios y la cantidad solo se modifican con el
+     * monitor del índice tomado.
+     */
+    private static class Estado {
+
+        private final Indice base;
+        private final ConcurrentSkipListMap<byte[], Entrada> cambios = new ConcurrentSkipListMap<>(PLEGADO);
+        private volatile int tamano;
+
+        Estado(Indice base) {
+            this.base = base;
+            this.tamano = base.tamano();
+        }
+    }
+
+    /**
+     * Username con su id_user (BAJA si es una baja pendiente).
+     */
+    private static class Entrada implements Comparable<Entrada> {
+
+        private final byte[] nombre;
+        private final long id;
+
+        Entrada(byte[] nombre, long id) {
+            this.nombre = nombre;
+            this.id = id;
+        }
+
+        @Override
+        public int compareTo(Entrada otra) {
+            int c = comparar(nombre, 0, nombre.length, otra.nombre, 0, otra.nombre.length);
+            return (c != 0) ? c : Arrays.compareUnsigned(nombre, otra.nombre);
+        }
+    }
+
+    /**
+     * Versión inmutable del índice: el username i ocupa datos[inicios[i] .. inicios[i + 1]).
+     */
+    private static class Indice {
+
+        private final byte[] datos;
+        private final int[] inicios;
+        private final long[] ids;
+
+        Indice(byte[] datos, int[] inicios, long[] ids) {
+            this.datos = datos;
+            this.inicios = inicios;
+            this.ids = ids;
+        }
+
+        static Indice de(List<Entrada> entradas) {
+            entradas.sort(null);
+            int total = 0;
+            for (Entrada entrada : entradas)
+                total += entrada.nombre.length;
+            byte[] datos = new byte[total];
+            int[] inicios = new int[entradas.size() + 1];
+            long[] ids = new long[entradas.size()];
+            int posicion = 0;
+            for (int i = 0; i < entradas.size(); i++) {
+                Entrada entrada = entradas.get(i);
+                System.arraycopy(entrada.nombre, 0, datos, posicion, entrada.nombre.length);
+                inicios[i] = posicion;
+                ids[i] = entrada.id;
+                posicion += entrada.nombre.length;
+            }
+            inicios[entradas.size()] = posicion;
+            return new Indice(datos, inicios, ids);
+        }
+
+        int tamano() {
+            return ids.length;
+        }
+
+        long bytes() {
+            return 3 * 16L + datos.length + 4L * inicios.length + 8L * ids.length;  // Cabeceras y contenido de los arreglos
+        }
+
+        String username(int i) {
+            return new String(datos, inicios[i], inicios[i + 1] - inicios[i], StandardCharsets.UTF_8);
+        }
+
+        /**
+         * Búsqueda binaria de la primera posición cuyo username no es menor que el buscado.
+         */
+        int primeroNoMenor(byte[] buscado) {
+            int desde = 0;
+            int hasta = tamano();
+            while (desde < hasta) {
+                int medio = (desde + hasta) >>> 1;
+                if (comparar(datos, inicios[medio], inicios[medio + 1], buscado, 0, buscado.length) < 0)
+                    desde = medio + 1;
+                else
+                    hasta = medio;
+            }
+            return desde;
+        }
+
+        boolean empiezaCon(int i, byte[] prefijo) {
+            int largo = inicios[i + 1] - inicios[i];
+            return largo >= prefijo.length
+                    && comparar(datos, inicios[i], inicios[i] + prefijo.length, prefijo, 0, prefijo.length) == 0;
+        }
+
+        /**
+         * Posición del username sin distinguir mayúsculas ASCII, o -1 si no figura.
+         */
+        int buscarExacto(byte[] nombre) {
+            int i = primeroNoMenor(nombre);
+            return (i < tamano() && comparar(datos, inicios[i], inicios[i + 1], nombre, 0, nombre.length) == 0) ? i : -1;
+        }
+    }
+}
@@ -1,13 +1,37 @@
 package dev.labintec.usuario.servicio;
 
+import dev.labintec.usuario.dto.EtagUsuario;
+import dev.labintec.usuario.dto.ResultadoBorradoDTO;
+import dev.labintec.usuario.dto.ResultadoLoteDTO;
+import dev.labintec.usuario.dto.UsuarioMapper;
+import dev.labintec.usuario.dto.UsuarioResponseDTO;
 import dev.labintec.usuario.entidad.Usuario;
+import dev.labintec.usuario.excepcion.PrecondicionFallidaException;
 import dev.labintec.usuario.excepcion.RecursoDuplicadoException;
 import dev.labintec.usuario.excepcion.RecursoNoEncontradoException;
+import dev.labintec.usuario.excepcion.RestriccionUnica;
 import dev.labintec.usuario.repositorio.UsuarioRepository;
+import io.micrometer.core.annotation.Timed;
+import java.text.CollationKey;
+import java.text.Collator;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 /**
  * Servicio que agrupa las operaciones CRUD para la entidad Usuario.
@@ -16,96 +40,352 @@ import org.springframework.stereotype.Service;
  * @author Quique
  */
 @Service
+@Timed(value = "usuarios.servicio", histogram = true) // Histograma de latencia por método
 public class UsuarioService {
     @Autowired // Inyección del repositorio JPA que gestiona la persistencia de Usuario
     private UsuarioRepository repositorio;
 
+    @Autowired // Caché acotada delante de findByUsername
+    private CacheUsuarios cache;
+
+    @Autowired // Índice en memoria de usernames para búsquedas por prefijo
+    private IndiceUsernames indice;
+
+    @Autowired // Cifrado bcrypt en un pool dedicado y acotado
+    private HasheadorPasswords hasheador;
+
+    @Autowired // Acceso JDBC directo para las inserciones por lote
+    private JdbcTemplate jdbc;
+
+    @Autowired // Escritura y relectura del username canónico en una misma transacción
+    private TransactionTemplate transaccion;
+
+    /**
+     * Cantidad de filas por lote JDBC y de valores por cláusula IN.
+     */
+    private static final int TAMANO_BLOQUE = 500;
+
     /**
      * Recupera todos los usuarios registrados en la base de datos.
-     * @return lista de todos los usuarios.
+     * @return lista de todos los usuarios, sin contraseña.
      */
-    public List<Usuario> listarTodos() {
-        return repositorio.findAll(); // Ejecuta SELECT * FROM user
+    public List<UsuarioResponseDTO> listarTodos() {
+        return repositorio.listarDTO(); // Ejecuta SELECT id_user, username FROM user
+    }
+
+    /**
+     * Recupera una página de usuarios posteriores a un identificador dado.
+     * @param despuesDe último id_user entregado (0 para la primera página).
+     * @param limite cantidad máxima de usuarios a devolver.
+     * @return lista ordenada por id_user con a lo sumo "limite" usuarios.
+     */
+    public List<UsuarioResponseDTO> listarPagina(long despuesDe, int limite) {
+        // Ejecuta SELECT id_user, username ... WHERE id_user > ? ORDER BY id_user LIMIT ?
+        return repositorio.listarPaginaDTO(despuesDe, Limit.of(limite));
     }
 
     /**
      * Obtiene un usuario según su identificador.
      * @param id clave primaria del usuario.
-     * @return el Usuario correspondiente al ID.
+     * @return el usuario correspondiente al ID, sin contraseña.
      * @throws RecursoNoEncontradoException si no existe un usuario con ese ID.
      */
-    public Usuario obtenerPorId(Long id) {
-        Optional<Usuario> opcional = repositorio.findById(id);
+    public UsuarioResponseDTO obtenerPorId(Long id) {
+        Optional<UsuarioResponseDTO> opcional = repositorio.buscarDTOPorId(id);
         if (!opcional.isPresent())
             throw new RecursoNoEncontradoException("Usuario con id = " + id + ", no existe.");
         return opcional.get();
     }
 
+    /**
+     * Obtiene varios usuarios por sus identificadores con consultas IN por bloques.
+     * Los identificadores inexistentes simplemente no figuran en el resultado.
+     * @param ids claves primarias de los usuarios.
+     * @return usuarios encontrados, sin contraseña.
+     */
+    public List<UsuarioResponseDTO> obtenerPorIds(List<Long> ids) {
+        List<Long> unicos = new ArrayList<>(new LinkedHashSet<>(ids));
+        List<UsuarioResponseDTO> usuarios = new ArrayList<>(unicos.size());
+        for (int i = 0; i < unicos.size(); i += TAMANO_BLOQUE)
+            usuarios.addAll(repositorio.listarDTOPorIds(unicos.subList(i, Math.min(i + TAMANO_BLOQUE, unicos.size()))));
+        return usuarios;
+    }
+
     /**
      * Obtiene un usuario por su nombre de usuario único.
      * @param username nombre único del usuario.
-     * @return el Usuario asociado al nombre.
+     * @return el usuario asociado al nombre, sin contraseña.
      * @throws RecursoNoEncontradoException si no hay coincidencias.
      */
-    public Usuario obtenerPorUsername(String username) {
-        Optional<Usuario> opcional = repositorio.findByUsername(username);
+    public UsuarioResponseDTO obtenerPorUsername(String username) {
+        Optional<UsuarioResponseDTO> opcional = buscarPorUsername(username);
         if (!opcional.isPresent())
             throw new RecursoNoEncontradoException("Usuario con nombre = " + username + ", no existe.");
         return opcional.get();
     }
 
+    /**
+     * Busca usuarios por prefijo de username en el índice en memoria, sin
+     * consultar la base de datos.
+     * @param prefijo comienzo del username (sin distinguir mayúsculas ASCII).
+     * @param limite cantidad máxima de usuarios a devolver.
+     * @return usuarios en orden alfabético, sin contraseña.
+     */
+    public List<UsuarioResponseDTO> buscarPorPrefijo(String prefijo, int limite) {
+        return indice.buscar(prefijo, limite);
+    }
+
     /**
      * Registra un nuevo usuario en la base de datos.
-     * Verifica previamente que no exista otro usuario con el mismo username.
-     * @param usuario objeto con los datos del nuevo usuario.
+     * Ejecuta directamente el INSERT y delega la unicidad en el índice
+     * único uk_user_username, evitando la consulta previa y la carrera
+     * entre dos altas simultáneas del mismo username. La contraseña se
+     * guarda cifrada con bcrypt.
+     * @param usuario objeto con los datos del nuevo usuario (contraseña en texto plano).
      * @return el Usuario persistido con su ID generado.
      * @throws RecursoDuplicadoException si ya existe un username idéntico.
      */
     public Usuario crearUsuario(Usuario usuario) {
-        Optional<Usuario> opcional = repositorio.findByUsername(usuario.getUsername());
-        if (opcional.isPresent())
+        usuario.setPassword(hasheador.hashear(usuario.getPassword()));
+        Usuario guardado;
+        try {
+            guardado = repositorio.save(usuario); // Ejecuta INSERT en la tabla user
+        } catch (DataIntegrityViolationException e) {
+            if (!RestriccionUnica.violada(e, RestriccionUnica.USERNAME))   // Otra restricción: la traduce el manejador
+                throw e;
             throw new RecursoDuplicadoException("Usuario con nombre = " + usuario.getUsername() + ", ya existe.");
-        return repositorio.save(usuario); // Ejecuta INSERT en la tabla user
+        }
+        UsuarioResponseDTO dto = UsuarioMapper.toDTO(guardado);
+        cache.guardar(dto);
+        indice.agregar(List.of(dto));
+        return guardado;
+    }
+
+    /**
+     * Registra varios usuarios.
+     * Los duplicados se descartan comparando con la colación de la columna
+     * (sin distinguir mayúsculas ni acentos), tanto contra los existentes como
+     * dentro del mismo lote. Las contraseñas se cifran antes de abrir la
+     * transacción, para no retener una conexión mientras corre bcrypt; ya en
+     * ella se vuelve a consultar qué usernames existen y los nuevos se insertan
+     * con lotes JDBC (rewriteBatchedStatements=true los convierte en INSERT
+     * multi-fila), sin pasar por el contexto de persistencia.
+     * @param usuarios usuarios a crear, en el orden recibido.
+     * @return resultado de cada elemento, en el mismo orden.
+     */
+    public List<ResultadoLoteDTO> crearLote(List<Usuario> usuarios) {
+        Collator colacion = colacion();
+        // Candidatos: la primera aparición de cada username que no existía al consultar
+        Set<CollationKey> existentes = clavesExistentes(usuarios, colacion);
+        List<Usuario> candidatos = new ArrayList<>();
+        Set<CollationKey> vistos = new HashSet<>();
+        for (Usuario usuario : usuarios) {
+            CollationKey clave = colacion.getCollationKey(usuario.getUsername());
+            if (!existentes.contains(clave) && vistos.add(clave))
+                candidatos.add(usuario);
+        }
+
+        // Cifra solo las contraseñas de los candidatos, fuera de la transacción
+        List<String> passwords = new ArrayList<>(candidatos.size());
+        for (Usuario usuario : candidatos)
+            passwords.add(usuario.getPassword());
+        List<String> hashes = hasheador.hashearTodos(passwords);
+        for (int i = 0; i < candidatos.size(); i++)
+            candidatos.get(i).setPassword(hashes.get(i));
+
+        Map<CollationKey, UsuarioResponseDTO> creados = transaccion.execute(estado -> {
+            Set<CollationKey> altasConcurrentes = clavesExistentes(candidatos, colacion);  // Desde la consulta anterior
+            List<Usuario> nuevos = new ArrayList<>(candidatos.size());
+            for (Usuario usuario : candidatos)
+                if (!altasConcurrentes.contains(colacion.getCollationKey(usuario.getUsername())))
+                    nuevos.add(usuario);
+
+            jdbc.batchUpdate("INSERT INTO `user` (username, password) VALUES (?, ?)", nuevos, TAMANO_BLOQUE,
+                    (ps, usuario) -> {
+                        ps.setString(1, usuario.getUsername());
+                        ps.setString(2, usuario.getPassword());
+                    });
+
+            // Recupera los id_user generados con consultas IN por bloques
+            Map<CollationKey, UsuarioResponseDTO> porClave = new HashMap<>(nuevos.size() * 2);
+            for (int i = 0; i < nuevos.size(); i += TAMANO_BLOQUE) {
+                List<String> bloque = new ArrayList<>();
+                for (Usuario usuario : nuevos.subList(i, Math.min(i + TAMANO_BLOQUE, nuevos.size())))
+                    bloque.add(usuario.getUsername());
+                for (UsuarioResponseDTO creado : repositorio.listarDTOPorUsernames(bloque))
+                    porClave.put(colacion.getCollationKey(creado.getUsername()), creado);
+            }
+            return porClave;
+        });
+        creados.values().forEach(cache::guardar);   // Ya confirmados
+        indice.agregar(creados.values());
+
+        List<ResultadoLoteDTO> resultados = new ArrayList<>(usuarios.size());
+        Set<CollationKey> informados = new HashSet<>();
+        for (Usuario usuario : usuarios) {
+            CollationKey clave = colacion.getCollationKey(usuario.getUsername());
+            UsuarioResponseDTO creado = creados.get(clave);
+            if (creado != null && informados.add(clave))
+                resultados.add(new ResultadoLoteDTO(usuario.getUsername(), ResultadoLoteDTO.Estado.CREADO, creado.getIdUser()));
+            else
+                resultados.add(new ResultadoLoteDTO(usuario.getUsername(), ResultadoLoteDTO.Estado.DUPLICADO, null));
+        }
+        return resultados;
     }
 
     /**
      * Actualiza únicamente la contraseña de un usuario existente.
-     * Busca el usuario por su username, asigna la nueva contraseña
-     * y persiste los cambios.
+     * Ejecuta un único UPDATE sin cargar la entidad que además incrementa
+     * la versión. Si se indica la versión esperada, el UPDATE solo se aplica
+     * si sigue vigente, de modo que dos cambios concurrentes no se pisan.
+     * En la misma transacción relee la fila, bloqueada por el UPDATE, para obtener
+     * la versión resultante y el username canónico: la colación de la columna
+     * (utf8mb4_0900_ai_ci) no distingue mayúsculas ni acentos y la caché se indexa
+     * por el username tal como está en la base de datos.
+     * La nueva contraseña se guarda cifrada con bcrypt.
      * @param username clave única que identifica al usuario a modificar
-     * @param usuarioActualizado objeto que aporta la nueva contraseña
-     * @return el Usuario con la contraseña actualizada
+     * @param usuarioActualizado objeto que aporta la nueva contraseña en texto plano
+     * @param esperado ETag recibido en If-Match, o null para una actualización incondicional
+     * @return el usuario actualizado con su nueva versión, sin contraseña
      * @throws RecursoNoEncontradoException si no existe un usuario con ese username
+     * @throws PrecondicionFallidaException si el usuario cambió desde la versión esperada
      */
-    public Usuario actualizarPassword(String username, Usuario usuarioActualizado) {
-        // Busca el usuario existente por su username
-        Optional<Usuario> opcional = repositorio.findByUsername(username);
-        if (!opcional.isPresent())
-            throw new RecursoNoEncontradoException("Usuario con nombre = " + username + ", no existe.");
-        Usuario usuario = opcional.get();
-        /** 
-        // Verifica duplicidad si se desea cambiar el username
-        if (!usuario.getUsername().equals(usuarioActualizado.getUsername())) {
-            Optional<Usuario> opcionalNuevo = repositorio.findByUsername(usuarioActualizado.getUsername());
-            if (opcionalNuevo.isPresent() && usuarioActualizado.getUsername().equals(username))
-                throw new RecursoDuplicadoException("Usuario con nombre = " + usuarioActualizado.getUsername() + ", ya existe.");
-        }*/
-        // Aplica los cambios permitidos (por ahora solo la contraseña)
-        //usuario.setUsername(usuarioActualizado.getUsername());
-        usuario.setPassword(usuarioActualizado.getPassword());
-        // Persiste los cambios y devuelve el resultado
-        return repositorio.save(usuario); // Ejecuta UPDATE en la tabla user
+    public UsuarioResponseDTO actualizarPassword(String username, Usuario usuarioActualizado, EtagUsuario esperado) {
+        String hash = hasheador.hashear(usuarioActualizado.getPassword());
+        UsuarioResponseDTO actualizado = transaccion.execute(estado -> {
+            int filas = (esperado == null)
+                    ? repositorio.actualizarPassword(username, hash) // Ejecuta UPDATE en la tabla user
+                    : repositorio.actualizarPasswordSiVersion(username, esperado.getIdUser(), esperado.getVersion(), hash);
+            return (filas == 0) ? null : repositorio.buscarDTOPorUsername(username).orElse(null);
+        });
+        if (actualizado != null) {
+            cache.guardar(actualizado); // Reemplaza la entrada del username canónico
+            return actualizado;
+        }
+        if (esperado != null) {
+            Optional<UsuarioResponseDTO> vigente = repositorio.buscarDTOPorUsername(username);
+            if (vigente.isPresent()) {
+                cache.guardar(vigente.get());   // La entrada cacheada puede tener una versión vieja
+                throw new PrecondicionFallidaException("Usuario con nombre = " + username + ", fue modificado por otra petición.");
+            }
+        }
+        cache.invalidar(username);
+        throw new RecursoNoEncontradoException("Usuario con nombre = " + username + ", no existe.");
     }
 
     /**
      * Elimina un usuario definido por su username.
+     * En una transacción bloquea la fila (SELECT ... FOR UPDATE), que aporta el
+     * username canónico con el que se indexan la caché y el índice, y la borra
+     * con un DELETE; si no hay fila el usuario no existe.
      * @param username nombre único del usuario a borrar.
      * @throws RecursoNoEncontradoException si no se encuentra el registro.
      */
     public void eliminarUsuario(String username) {
-        Optional<Usuario> opcional = repositorio.findByUsername(username);
-        if (!opcional.isPresent())
+        List<String> borrados = transaccion.execute(estado -> {
+            List<String> existentes = repositorio.bloquearUsernamesExistentes(List.of(username));
+            if (!existentes.isEmpty())
+                repositorio.eliminarPorUsername(username); // Ejecuta DELETE en la tabla user
+            return existentes;
+        });
+        cache.invalidar(username);
+        if (borrados == null || borrados.isEmpty())
             throw new RecursoNoEncontradoException("Usuario con nombre = " + username + ", no existe.");
-        repositorio.delete(opcional.get()); // Ejecuta DELETE en la tabla user
+        borrados.forEach(cache::invalidar);
+        indice.quitar(borrados);
+    }
+
+    /**
+     * Elimina varios usuarios en una sola transacción.
+     * Por cada bloque se bloquean los usernames existentes con un SELECT ... FOR UPDATE
+     * que solo lee esa columna y se borran con un único DELETE ... IN, sin
+     * cargar entidades. Los usernames repetidos se informan una sola vez.
+     * La base de datos devuelve los usernames canónicos, que pueden diferir de los
+     * pedidos en mayúsculas o acentos: cada pedido se informa como eliminado si
+     * coincide con uno de ellos según la colación, y la caché y el índice se
+     * limpian con los canónicos.
+     * @param usernames nombres de los usuarios a borrar.
+     * @return usernames eliminados e inexistentes, en el orden recibido.
+     */
+    @Transactional
+    public ResultadoBorradoDTO eliminarLote(List<String> usernames) {
+        List<String> unicos = new ArrayList<>(new LinkedHashSet<>(usernames));
+        List<String> eliminados = new ArrayList<>();
+        for (int i = 0; i < unicos.size(); i += TAMANO_BLOQUE) {
+            List<String> existentes = repositorio.bloquearUsernamesExistentes(unicos.subList(i, Math.min(i + TAMANO_BLOQUE, unicos.size())));
+            if (!existentes.isEmpty())
+                repositorio.eliminarPorUsernames(existentes); // Ejecuta DELETE ... WHERE username IN (...)
+            eliminados.addAll(existentes);
+        }
+
+        Collator colacion = colacion();
+        Set<CollationKey> claves = new HashSet<>(eliminados.size() * 2);
+        for (String username : eliminados) {
+            claves.add(colacion.getCollationKey(username));
+            cache.invalidar(username);
+        }
+        ResultadoBorradoDTO resultado = new ResultadoBorradoDTO(new ArrayList<>(eliminados.size()), new ArrayList<>());
+        for (String username : unicos) {
+            if (claves.contains(colacion.getCollationKey(username)))
+                resultado.getEliminados().add(username);
+            else
+                resultado.getInexistentes().add(username);
+        }
+        alConfirmar(() -> indice.quitar(eliminados));
+        return resultado;
+    }
+
+    /**
+     * Ejecuta la acción solo si la transacción en curso llega a confirmarse,
+     * para que el índice en memoria no refleje lotes revertidos.
+     */
+    private static void alConfirmar(Runnable accion) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                accion.run();
+            }
+        });
+    }
+
+    /**
+     * Busca un usuario por username consultando primero la caché.
+     * Solo se cachean usuarios existentes; los fallos siempre van a la base de datos.
+     * @param username nombre único del usuario.
+     * @return Optional con el usuario encontrado o vacío.
+     */
+    private Optional<UsuarioResponseDTO> buscarPorUsername(String username) {
+        UsuarioResponseDTO cacheado = cache.obtener(username);
+        if (cacheado != null)
+            return Optional.of(cacheado);
+        Optional<UsuarioResponseDTO> opcional = repositorio.buscarDTOPorUsername(username);
+        opcional.ifPresent(cache::guardar);
+        return opcional;
+    }
+
+    /**
+     * Consulta con IN por bloques cuáles de los usernames ya existen.
+     * @return claves de colación de los usernames existentes, tal como están en la base de datos.
+     */
+    private Set<CollationKey> clavesExistentes(List<Usuario> usuarios, Collator colacion) {
+        List<String> usernames = new ArrayList<>(usuarios.size());
+        for (Usuario usuario : usuarios)
+            usernames.add(usuario.getUsername());
+        Set<CollationKey> existentes = new HashSet<>();
+        for (int i = 0; i < usernames.size(); i += TAMANO_BLOQUE)
+            for (String existente : repositorio.findUsernamesExistentes(usernames.subList(i, Math.min(i + TAMANO_BLOQUE, usernames.size()))))
+                existentes.add(colacion.getCollationKey(existente));
+        return existentes;
+    }
+
+    /**
+     * Comparador equivalente a la colación utf8mb4_0900_ai_ci de la columna username:
+     * intensidad primaria, sin distinguir mayúsculas ni acentos. Cada llamada
+     * devuelve una instancia propia (Collator no es seguro entre hilos).
+     */
+    private static Collator colacion() {
+        Collator colacion = Collator.getInstance(Locale.ROOT);
+        colacion.setStrength(Collator.PRIMARY);
+        return colacion;
     }
-}
\ No newline at end of file
+}
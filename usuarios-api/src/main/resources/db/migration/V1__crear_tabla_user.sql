@@ -0,0 +1,7 @@
+-- Tabla de usuarios. IF NOT EXISTS permite adoptar bases creadas antes por ddl-auto=update.
+CREATE TABLE IF NOT EXISTS `user` (
+    id_user  BIGINT       NOT NULL AUTO_INCREMENT,
+    username VARCHAR(255),
+    password VARCHAR(255),
+    PRIMARY KEY (id_user)
+) ENGINE = InnoDB;
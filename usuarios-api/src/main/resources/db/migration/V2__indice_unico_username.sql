@@ -0,0 +1,9 @@
+-- Índice único sobre username: findByUsername pasa de recorrer la tabla a una búsqueda por índice
+-- y garantiza la unicidad en la que se apoya crearUsuario. Solo se crea si no existe
+-- (ddl-auto=update pudo haberlo agregado en bases anteriores).
+SET @existe := (SELECT COUNT(*) FROM information_schema.statistics
+                WHERE table_schema = DATABASE() AND table_name = 'user' AND index_name = 'uk_user_username');
+SET @ddl := IF(@existe = 0, 'ALTER TABLE `user` ADD CONSTRAINT uk_user_username UNIQUE (username)', 'DO 0');
+PREPARE sentencia FROM @ddl;
+EXECUTE sentencia;
+DEALLOCATE PREPARE sentencia;
@@ -0,0 +1,2 @@
+-- Versión de cada usuario: base de los ETag y de las actualizaciones condicionales (If-Match).
+ALTER TABLE `user` ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
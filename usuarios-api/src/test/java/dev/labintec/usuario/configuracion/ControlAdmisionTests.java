@@ -0,0 +1,87 @@
+package dev.labintec.usuario.configuracion;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import dev.labintec.comun.admision.LimitadorClientes;
+import dev.labintec.comun.admision.LimiteConcurrencia;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Verifica la cubeta de fichas por cliente y el límite adaptativo de concurrencia.
+ * @author Quique
+ */
+class ControlAdmisionTests {
+
+    @Test
+    void clienteAgotaSuRafagaYRecibeEspera() {
+        LimitadorClientes limitador = new LimitadorClientes(1, 5, 100);   // 1 por segundo, ráfaga de 5
+        int admitidas = 0;
+        for (int i = 0; i < 10; i++)
+            if (limitador.intentar("10.0.0.1") == 0)
+                admitidas++;
+        assertTrue(admitidas >= 5 && admitidas <= 6, "Admitidas: " + admitidas);
+        long espera = limitador.intentar("10.0.0.1");
+        assertTrue(espera > 0 && espera <= TimeUnit.SECONDS.toNanos(1), "Espera: " + espera);
+        assertEquals(0, limitador.intentar("10.0.0.2"));   // Otro cliente no se ve afectado
+    }
+
+    @Test
+    void rafagaConcurrenteNoSuperaLaCapacidad() throws Exception {
+        LimitadorClientes limitador = new LimitadorClientes(0.001, 100, 100);   // Sin recarga apreciable
+        int hilos = 16;
+        ExecutorService pool = Executors.newFixedThreadPool(hilos);
+        CountDownLatch largada = new CountDownLatch(1);
+        AtomicInteger admitidas = new AtomicInteger();
+        for (int h = 0; h < hilos; h++)
+            pool.execute(() -> {
+                try {
+                    largada.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < 100; i++)
+                    if (limitador.intentar("10.0.0.1") == 0)
+                        admitidas.incrementAndGet();
+            });
+        largada.countDown();
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+        assertTrue(admitidas.get() >= 100 && admitidas.get() <= 101, "Admitidas: " + admitidas.get());
+    }
+
+    @Test
+    void limiteRechazaPorEncimaDeLaCapacidad() {
+        LimiteConcurrencia limite = new LimiteConcurrencia(2, 1, 10, Duration.ofMillis(100));
+        assertTrue(limite.adquirir());
+        assertTrue(limite.adquirir());
+        assertFalse(limite.adquirir());
+        limite.liberar(TimeUnit.MILLISECONDS.toNanos(1));
+        assertTrue(limite.adquirir());
+    }
+
+    @Test
+    void latenciaAltaReduceYLatenciaBajaRecupera() throws InterruptedException {
+        LimiteConcurrencia limite = new LimiteConcurrencia(100, 10, 200, Duration.ofMillis(50));
+        Thread.sleep(60);    // Deja pasar la primera ventana de reducción
+        limite.adquirir();
+        limite.liberar(TimeUnit.MILLISECONDS.toNanos(80));
+        assertEquals(90, limite.getLimite());
+
+        limite.adquirir();
+        limite.liberar(TimeUnit.MILLISECONDS.toNanos(80));
+        assertEquals(90, limite.getLimite());     // A lo sumo una reducción por ventana
+
+        for (int i = 0; i < 60; i++)
+            limite.adquirir();
+        limite.liberar(TimeUnit.MICROSECONDS.toNanos(100));   // Rápida y con el límite en uso
+        assertEquals(91, limite.getLimite());
+    }
+}
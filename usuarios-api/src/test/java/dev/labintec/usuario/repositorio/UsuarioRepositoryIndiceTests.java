@@ -0,0 +1,39 @@
+package dev.labintec.usuario.repositorio;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+/**
+ * Verifica, sobre un MySQL real con las migraciones aplicadas, que la búsqueda
+ * por username usa el índice único en lugar de recorrer la tabla.
+ * Se omite si no hay Docker disponible.
+ * @author Quique
+ */
+@SpringBootTest
+@Testcontainers(disabledWithoutDocker = true)
+class UsuarioRepositoryIndiceTests {
+
+    @Container
+    @ServiceConnection
+    static MySQLContainer<?> mysql = new MySQLContainer<>("mysql:8.4");
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @Test
+    void findByUsernameUsaIndiceUnico() {
+        jdbc.update("INSERT INTO `user` (username, password) VALUES ('ana', 'x'), ('beto', 'y'), ('carla', 'z')");
+        Map<String, Object> plan = jdbc.queryForMap("EXPLAIN SELECT * FROM `user` WHERE username = ?", "beto");
+        assertEquals("uk_user_username", plan.get("key"));
+        assertEquals("const", plan.get("type"));
+    }
+}
@@ -0,0 +1,133 @@
+package dev.labintec.usuario.servicio;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import dev.labintec.usuario.dto.UsuarioResponseDTO;
+import dev.labintec.usuario.repositorio.UsuarioRepository;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * Verifica las búsquedas por prefijo del índice de usernames y que las altas
+ * y bajas individuales y por lote lo mantienen ordenado, sin distinguir
+ * mayúsculas ASCII también al quitar o reemplazar, incluso durante una reconstrucción.
+ * @author Quique
+ */
+class IndiceUsernamesTests {
+
+    private IndiceUsernames indice;
+    private UsuarioRepository repositorio;
+
+    @BeforeEach
+    void iniciar() {
+        repositorio = mock(UsuarioRepository.class);
+        when(repositorio.listarDTO()).thenReturn(List.of(
+                new UsuarioResponseDTO(1L, "martina", 0L),
+                new UsuarioResponseDTO(2L, "Marcos", 0L),
+                new UsuarioResponseDTO(3L, "mar", 0L),
+                new UsuarioResponseDTO(4L, "lucía", 0L),
+                new UsuarioResponseDTO(5L, "matías", 0L)));
+        indice = new IndiceUsernames();
+        ReflectionTestUtils.setField(indice, "repositorio", repositorio);
+        indice.construir();
+    }
+
+    private List<String> buscar(String prefijo, int limite) {
+        List<String> usernames = new ArrayList<>();
+        for (UsuarioResponseDTO usuario : indice.buscar(prefijo, limite))
+            usernames.add(usuario.getUsername());
+        return usernames;
+    }
+
+    @Test
+    void prefijoSinDistinguirMayusculas() {
+        assertEquals(List.of("mar", "Marcos", "martina"), buscar("mar", 10));
+        assertEquals(List.of("mar", "Marcos", "martina"), buscar("MAR", 10));
+        assertEquals(List.of("mar", "Marcos"), buscar("Mar", 2));
+        assertEquals(List.of("matías"), buscar("matí", 10));
+        assertEquals(List.of(), buscar("z", 10));
+        assertEquals(2L, indice.buscar("marc", 1).get(0).getIdUser());
+    }
+
+    @Test
+    void altasYBajasMantienenElOrden() {
+        indice.agregar(List.of(new UsuarioResponseDTO(6L, "marta", null)));
+        indice.agregar(List.of(new UsuarioResponseDTO(7L, "a", null), new UsuarioResponseDTO(8L, "mario", null)));
+        assertEquals(List.of("mar", "Marcos", "mario", "marta", "martina"), buscar("mar", 10));
+        assertEquals(List.of("a"), buscar("a", 10));
+
+        indice.quitar(List.of("Marcos"));
+        indice.quitar(List.of("marta", "mario", "inexistente"));
+        assertEquals(List.of("mar", "martina"), buscar("mar", 10));
+        assertEquals(5, indice.tamano());
+    }
+
+    @Test
+    void bajasYReemplazosSinDistinguirMayusculas() {
+        indice.quitar(List.of("MARCOS", "Lucía"));
+        assertEquals(List.of("mar", "martina"), buscar("mar", 10));
+        assertEquals(List.of(), buscar("luc", 10));
+        assertEquals(3, indice.tamano());
+
+        indice.agregar(List.of(new UsuarioResponseDTO(9L, "marcos", null)));   // Recreado con otras mayúsculas
+        indice.agregar(List.of(new UsuarioResponseDTO(10L, "MAR", null)));
+        assertEquals(List.of("MAR", "marcos", "martina"), buscar("mar", 10));
+        assertEquals(10L, indice.buscar("mar", 1).get(0).getIdUser());
+        assertEquals(4, indice.tamano());
+    }
+
+    @Test
+    void cambiosIndividualesSeVuelcanEnLaBase() {
+        for (int i = 0; i < 5_000; i++)
+            indice.agregar(List.of(new UsuarioResponseDTO(100L + i, String.format("nuevo-%04d", i), null)));
+        for (int i = 0; i < 5_000; i += 2)
+            indice.quitar(List.of(String.format("NUEVO-%04d", i)));
+        assertEquals(List.of("nuevo-0001", "nuevo-0003"), buscar("nuevo-000", 2));
+        assertEquals(List.of("nuevo-4999"), buscar("nuevo-4999", 10));
+        assertEquals(5 + 2_500, indice.tamano());
+    }
+
+    @Test
+    void reconstruccionNoBloqueaYReanotaLosCambios() throws Exception {
+        CountDownLatch leyendo = new CountDownLatch(1);
+        CountDownLatch seguir = new CountDownLatch(1);
+        doAnswer(invocacion -> {
+            leyendo.countDown();
+            assertTrue(seguir.await(5, TimeUnit.SECONDS));
+            return List.of(new UsuarioResponseDTO(1L, "martina", 0L), new UsuarioResponseDTO(2L, "Marcos", 0L));
+        }).when(repositorio).listarDTO();
+        CompletableFuture<Void> reconstruccion = CompletableFuture.runAsync(indice::reconstruir);
+        assertTrue(leyendo.await(5, TimeUnit.SECONDS));
+
+        CompletableFuture.runAsync(() -> {     // Con la lectura en curso las escrituras no esperan
+            indice.agregar(List.of(new UsuarioResponseDTO(6L, "marta", null)));
+            indice.quitar(List.of("MARCOS"));
+        }).get(1, TimeUnit.SECONDS);
+        seguir.countDown();
+        reconstruccion.get(5, TimeUnit.SECONDS);
+
+        assertEquals(List.of("marta", "martina"), buscar("mar", 10));
+        assertEquals(2, indice.tamano());
+    }
+
+    @Test
+    void memoriaPorUsuarioAcotada() {
+        List<UsuarioResponseDTO> muchos = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++)
+            muchos.add(new UsuarioResponseDTO((long) i, String.format("usuario-%05d", i), null));
+        indice.agregar(muchos);
+        assertEquals(List.of("usuario-01230", "usuario-01231"), buscar("usuario-0123", 2));
+        long porUsuario = indice.bytes() / indice.tamano();
+        assertTrue(porUsuario <= 12 + 13 + 1, "Bytes por usuario: " + porUsuario);   // Posición, id y nombre
+    }
+}
@@ -0,0 +1,94 @@
+package dev.labintec.usuario.servicio;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import dev.labintec.usuario.dto.ResultadoLoteDTO;
+import dev.labintec.usuario.dto.UsuarioResponseDTO;
+import dev.labintec.usuario.entidad.Usuario;
+import dev.labintec.usuario.repositorio.UsuarioRepository;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Verifica que el alta por lote descarta los duplicados según la colación de la
+ * columna username (sin distinguir mayúsculas) y que cifra antes de la transacción.
+ * @author Quique
+ */
+class UsuarioServiceLoteTests {
+
+    private final UsuarioRepository repositorio = mock(UsuarioRepository.class);
+    private final JdbcTemplate jdbc = mock(JdbcTemplate.class);
+    private final HasheadorPasswords hasheador = mock(HasheadorPasswords.class);
+    private final PlatformTransactionManager transacciones = mock(PlatformTransactionManager.class);
+    private UsuarioService servicio;
+
+    @BeforeEach
+    void iniciar() {
+        servicio = new UsuarioService();
+        ReflectionTestUtils.setField(servicio, "repositorio", repositorio);
+        ReflectionTestUtils.setField(servicio, "jdbc", jdbc);
+        ReflectionTestUtils.setField(servicio, "hasheador", hasheador);
+        ReflectionTestUtils.setField(servicio, "cache", mock(CacheUsuarios.class));
+        ReflectionTestUtils.setField(servicio, "indice", mock(IndiceUsernames.class));
+        ReflectionTestUtils.setField(servicio, "transaccion", new TransactionTemplate(transacciones));
+        when(hasheador.hashearTodos(anyList())).thenAnswer(invocacion -> {
+            List<String> hashes = new ArrayList<>();
+            for (Object password : invocacion.<List<?>>getArgument(0))
+                hashes.add("hash-" + password);
+            return hashes;
+        });
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void duplicadosConOtrasMayusculasNoLleganAlInsert() {
+        when(repositorio.findUsernamesExistentes(anyCollection())).thenReturn(List.of("alice"));  // Colación _ai_ci
+        when(repositorio.listarDTOPorUsernames(anyCollection())).thenReturn(List.of(
+                new UsuarioResponseDTO(10L, "bob", 0L), new UsuarioResponseDTO(11L, "carol", 0L)));
+
+        List<ResultadoLoteDTO> resultados = servicio.crearLote(List.of(new Usuario("Alice", "a"),
+                new Usuario("bob", "b"), new Usuario("BOB", "b2"), new Usuario("carol", "c")));
+
+        ArgumentCaptor<Collection<Usuario>> insertados = ArgumentCaptor.forClass(Collection.class);
+        verify(jdbc).batchUpdate(anyString(), insertados.capture(), anyInt(), any());
+        List<String> usernames = new ArrayList<>();
+        for (Usuario usuario : insertados.getValue())
+            usernames.add(usuario.getUsername());
+        assertEquals(List.of("bob", "carol"), usernames);
+
+        assertEquals(List.of(ResultadoLoteDTO.Estado.DUPLICADO, ResultadoLoteDTO.Estado.CREADO,
+                        ResultadoLoteDTO.Estado.DUPLICADO, ResultadoLoteDTO.Estado.CREADO),
+                resultados.stream().map(ResultadoLoteDTO::getEstado).toList());
+        assertEquals(10L, resultados.get(1).getIdUser());
+    }
+
+    @Test
+    void cifraAntesDeAbrirLaTransaccion() {
+        when(repositorio.findUsernamesExistentes(anyCollection())).thenReturn(List.of());
+        when(repositorio.listarDTOPorUsernames(anyCollection())).thenReturn(List.of(new UsuarioResponseDTO(1L, "dora", 0L)));
+
+        servicio.crearLote(List.of(new Usuario("dora", "d")));
+
+        InOrder orden = inOrder(hasheador, transacciones);
+        orden.verify(hasheador).hashearTodos(List.of("d"));
+        orden.verify(transacciones).getTransaction(any());
+    }
+}